@@ -0,0 +1,128 @@
+package com.kaamwala.benchmark;
+
+import com.kaamwala.dtos.CategoryDto;
+import com.kaamwala.dtos.SubCategoryDto;
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Synthetic, deterministic (fixed seed) workers and categories for the benchmarks. Shaped like
+ * the seeded catalog: 9 categories with 4 subcategories each.
+ */
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = {
+            "Plumbing", "Electrical", "Carpentry", "Painting", "Cleaning",
+            "Gardening", "Appliance Repair", "Masonry", "Welding"};
+
+    static final String[] AREAS = {
+            "Delhi", "Noida", "Gurugram", "Faridabad", "Ghaziabad", "Dwarka", "Rohini", "Saket",
+            "Karol Bagh", "Lajpat Nagar", "Janakpuri", "Vasant Kunj", "Mayur Vihar", "Pitampura"};
+
+    // Around central Delhi
+    static final double BASE_LATITUDE = 28.61;
+    static final double BASE_LONGITUDE = 77.21;
+
+    private BenchmarkData() {
+    }
+
+    static List<SubCategory> subCategories() {
+        List<SubCategory> subCategories = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            Category category = Category.builder()
+                    .categoryId("CAT_" + c)
+                    .categoryName(CATEGORIES[c])
+                    .description(CATEGORIES[c] + " services")
+                    .iconName(CATEGORIES[c].toLowerCase() + "_icon.png")
+                    .build();
+            for (int s = 0; s < 4; s++) {
+                SubCategory subCategory = SubCategory.builder()
+                        .subCategoryId("SUB_" + c + "_" + s)
+                        .subCategoryName(CATEGORIES[c] + " Skill " + s)
+                        .description("Skill " + s + " of " + CATEGORIES[c])
+                        .category(category)
+                        .build();
+                category.getSubCategories().add(subCategory);
+                subCategories.add(subCategory);
+            }
+        }
+        return subCategories;
+    }
+
+    static List<User> workers(int count, int skillsPerWorker) {
+        Random random = new Random(42);
+        List<SubCategory> subCategories = subCategories();
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String areas = AREAS[random.nextInt(AREAS.length)] + ", " + AREAS[random.nextInt(AREAS.length)];
+            User user = User.builder()
+                    .userId(String.format("user-%06d", i))
+                    .name("Worker " + i)
+                    .email("worker" + i + "@example.com")
+                    .password("secret")
+                    .gender("Male")
+                    .about("Worker with " + (i % 30) + " years of experience")
+                    .phone("9876543210")
+                    .role("worker")
+                    .experience(random.nextInt(30))
+                    .hourlyRate(100.0 + random.nextInt(900))
+                    .serviceAreas(areas)
+                    .latitude(BASE_LATITUDE + (random.nextDouble() - 0.5) * 0.6)
+                    .longitude(BASE_LONGITUDE + (random.nextDouble() - 0.5) * 0.6)
+                    .serviceRadiusKm(5.0 + random.nextInt(20))
+                    .averageRating(1 + random.nextDouble() * 4)
+                    .ratingCount((long) random.nextInt(200))
+                    .createdAt(now.minusDays(random.nextInt(1000)))
+                    .build();
+            Set<UserSkill> userSkills = new HashSet<>();
+            for (int s = 0; s < skillsPerWorker; s++) {
+                SubCategory skill = subCategories.get(random.nextInt(subCategories.size()));
+                userSkills.add(UserSkill.builder()
+                        .userSkillId(user.getUserId() + "-" + skill.getSubCategoryId())
+                        .user(user)
+                        .subCategory(skill)
+                        .proficiencyLevel(UserSkill.ProficiencyLevel.INTERMEDIATE)
+                        .experienceYears(random.nextInt(20))
+                        .skillHourlyRate(user.getHourlyRate())
+                        .build());
+            }
+            user.setUserSkills(userSkills);
+            users.add(user);
+        }
+        return users;
+    }
+
+    // The category tree returned by GET /api/categories/active
+    static List<CategoryDto> categoryTree() {
+        Map<String, CategoryDto> categories = new LinkedHashMap<>();
+        for (SubCategory subCategory : subCategories()) {
+            Category category = subCategory.getCategory();
+            CategoryDto categoryDto = categories.computeIfAbsent(category.getCategoryId(), id -> CategoryDto.builder()
+                    .categoryId(id)
+                    .categoryName(category.getCategoryName())
+                    .description(category.getDescription())
+                    .iconName(category.getIconName())
+                    .isActive(true)
+                    .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0))
+                    .updatedAt(LocalDateTime.of(2025, 1, 1, 0, 0))
+                    .subCategories(new LinkedHashSet<>())
+                    .build());
+            categoryDto.getSubCategories().add(SubCategoryDto.builder()
+                    .subCategoryId(subCategory.getSubCategoryId())
+                    .subCategoryName(subCategory.getSubCategoryName())
+                    .description(subCategory.getDescription())
+                    .isActive(true)
+                    .categoryId(category.getCategoryId())
+                    .categoryName(category.getCategoryName())
+                    .build());
+        }
+        return new ArrayList<>(categories.values());
+    }
+}
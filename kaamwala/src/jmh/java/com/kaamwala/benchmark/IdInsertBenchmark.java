@@ -0,0 +1,119 @@
+package com.kaamwala.benchmark;
+
+import com.kaamwala.helper.TimeOrderedId;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Primary key choice: UUID.randomUUID() against TimeOrderedId (UUIDv7) strings.
+ *
+ * The insert benchmarks need a MySQL server (same MYSQL_HOST / MYSQL_POST variables as the
+ * application, user root/root). They create bench_user / bench_user_skills, shaped like user and
+ * user_skills (VARCHAR primary keys, FK index on user_id), fill them with {@code preload} users,
+ * then measure batches of users plus one skill each in a transaction. Random keys hurt once the
+ * indexes outgrow the buffer pool, so raise preload (or shrink innodb_buffer_pool_size) to see it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    // users (and skills) per insert operation
+    static final int BATCH = 500;
+
+    @State(Scope.Benchmark)
+    public static class Tables {
+
+        @Param({"random", "timeOrdered"})
+        public String ids;
+
+        @Param({"200000"})
+        public int preload;
+
+        Supplier<String> idSupplier;
+
+        Connection connection;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            idSupplier = "random".equals(ids) ? () -> UUID.randomUUID().toString() : TimeOrderedId::next;
+            String url = "jdbc:mysql://" + env("MYSQL_HOST", "localhost") + ":" + env("MYSQL_POST", "3306")
+                    + "/KaamWala?rewriteBatchedStatements=true";
+            connection = DriverManager.getConnection(url, "root", "root");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_user_skills");
+                statement.execute("DROP TABLE IF EXISTS bench_user");
+                statement.execute("CREATE TABLE bench_user (user_id VARCHAR(255) NOT NULL PRIMARY KEY, "
+                        + "user_name VARCHAR(255), created_at DATETIME(6)) ENGINE=InnoDB");
+                statement.execute("CREATE TABLE bench_user_skills (user_skill_id VARCHAR(255) NOT NULL PRIMARY KEY, "
+                        + "user_id VARCHAR(255) NOT NULL, years_of_experience INT, "
+                        + "CONSTRAINT fk_bench_skill_user FOREIGN KEY (user_id) REFERENCES bench_user (user_id)) ENGINE=InnoDB");
+            }
+            connection.setAutoCommit(false);
+            for (int done = 0; done < preload; done += BATCH) {
+                insertBatch();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_user_skills");
+                statement.execute("DROP TABLE IF EXISTS bench_user");
+            }
+            connection.close();
+        }
+
+        int insertBatch() throws SQLException {
+            try (PreparedStatement users = connection.prepareStatement(
+                    "INSERT INTO bench_user (user_id, user_name, created_at) VALUES (?, ?, ?)");
+                 PreparedStatement skills = connection.prepareStatement(
+                         "INSERT INTO bench_user_skills (user_skill_id, user_id, years_of_experience) VALUES (?, ?, ?)")) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (int i = 0; i < BATCH; i++) {
+                    String userId = idSupplier.get();
+                    users.setString(1, userId);
+                    users.setString(2, "Worker " + i);
+                    users.setTimestamp(3, now);
+                    users.addBatch();
+                    skills.setString(1, idSupplier.get());
+                    skills.setString(2, userId);
+                    skills.setInt(3, i % 20);
+                    skills.addBatch();
+                }
+                users.executeBatch();
+                skills.executeBatch();
+                connection.commit();
+            }
+            return BATCH;
+        }
+
+        private static String env(String name, String fallback) {
+            String value = System.getenv(name);
+            return value == null || value.isBlank() ? fallback : value;
+        }
+    }
+
+    // ops/s x BATCH = users inserted per second
+    @Benchmark
+    public int insertUsersWithSkills(Tables tables) throws SQLException {
+        return tables.insertBatch();
+    }
+
+    @Benchmark
+    public String generateRandomId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String generateTimeOrderedId() {
+        return TimeOrderedId.next();
+    }
+}
@@ -0,0 +1,91 @@
+package com.kaamwala.benchmark;
+
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.UserSkillDto;
+import com.kaamwala.mapper.UserMapper;
+import com.kaamwala.mapper.UserMapperImpl;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps one page of workers (20 users with 3 skills each) to UserDto with:
+ * - the generated MapStruct mapper the application uses
+ * - a shared ModelMapper, configured as the old application bean was
+ * - a new ModelMapper per element, as the old Helper.getPageableResponse did
+ *
+ * Run with -prof gc (the benchmark profile does) and compare gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private List<User> page;
+
+    private UserMapper userMapper;
+
+    private ModelMapper sharedModelMapper;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkData.workers(PAGE_SIZE, 3);
+        userMapper = new UserMapperImpl();
+        sharedModelMapper = modelMapper();
+    }
+
+    @Benchmark
+    public List<UserDto> mapStruct() {
+        List<UserDto> result = new ArrayList<>(page.size());
+        for (User user : page) {
+            result.add(userMapper.toDto(user));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserDto> modelMapperShared() {
+        List<UserDto> result = new ArrayList<>(page.size());
+        for (User user : page) {
+            result.add(sharedModelMapper.map(user, UserDto.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<UserDto> modelMapperPerElement() {
+        List<UserDto> result = new ArrayList<>(page.size());
+        for (User user : page) {
+            result.add(modelMapper().map(user, UserDto.class));
+        }
+        return result;
+    }
+
+    // Same configuration as the former application bean; plain new ModelMapper() cannot map UserSkill
+    private static ModelMapper modelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.createTypeMap(UserSkill.class, UserSkillDto.class,
+                        modelMapper.getConfiguration().copy().setMatchingStrategy(MatchingStrategies.STRICT))
+                .setPostConverter(context -> {
+                    UserSkill source = context.getSource();
+                    UserSkillDto destination = context.getDestination();
+                    destination.setUserId(source.getUser().getUserId());
+                    destination.setSubCategoryId(source.getSubCategory().getSubCategoryId());
+                    destination.setSubCategoryName(source.getSubCategory().getSubCategoryName());
+                    destination.setCategoryName(source.getSubCategory().getCategory().getCategoryName());
+                    return destination;
+                });
+        return modelMapper;
+    }
+}
@@ -0,0 +1,59 @@
+package com.kaamwala.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaamwala.dtos.CategoryDto;
+import com.kaamwala.dtos.PageableResponse;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of the two largest responses: a 20-worker PageableResponse (/users/getAll,
+ * worker search pages) and the full active category tree. The ObjectMapper is built the same
+ * way Spring MVC builds its own.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private PageableResponse<UserDto> workerPage;
+
+    private List<CategoryDto> categoryTree;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        UserMapperImpl userMapper = new UserMapperImpl();
+        List<UserDto> workers = BenchmarkData.workers(20, 3).stream().map(userMapper::toDto).toList();
+        workerPage = PageableResponse.<UserDto>builder()
+                .content(workers)
+                .pageNumber(1)
+                .pageSize(20)
+                .totalElement(1000)
+                .totalPages(50)
+                .lastPage(false)
+                .build();
+        categoryTree = BenchmarkData.categoryTree();
+    }
+
+    @Benchmark
+    public byte[] workerPage() throws Exception {
+        return objectMapper.writeValueAsBytes(workerPage);
+    }
+
+    @Benchmark
+    public byte[] categoryTree() throws Exception {
+        return objectMapper.writeValueAsBytes(categoryTree);
+    }
+}
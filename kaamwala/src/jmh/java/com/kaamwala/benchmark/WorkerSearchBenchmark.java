@@ -0,0 +1,82 @@
+package com.kaamwala.benchmark;
+
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import com.kaamwala.search.WorkerSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker filters over synthetic workers: the in-memory WorkerSearchIndex (posting lists, rate
+ * and experience ranges, geo grid) against a plain scan of the same data, which is roughly
+ * what the unindexed filter does per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WorkerSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int workers;
+
+    private List<User> users;
+
+    private WorkerSearchIndex index;
+
+    private WorkerSearchCriteria criteria;
+
+    private final Sort byName = Sort.by("name");
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkData.workers(workers, 3);
+        index = new WorkerSearchIndex(0.05);
+        index.load(users);
+        criteria = WorkerSearchCriteria.builder()
+                .category("Plumbing")
+                .location("Noida")
+                .minRate(200.0)
+                .maxRate(600.0)
+                .minExperience(5)
+                .build();
+    }
+
+    @Benchmark
+    public WorkerSearchIndex.WorkerHits indexFilter() {
+        return index.search(criteria, byName, 0, 20);
+    }
+
+    @Benchmark
+    public WorkerSearchIndex.WorkerHits indexSkillOnly() {
+        return index.search(WorkerSearchCriteria.builder().skill("Electrical Skill 1").build(), byName, 0, 20);
+    }
+
+    @Benchmark
+    public List<WorkerSearchIndex.NearbyHit> indexNearby() {
+        return index.nearby(BenchmarkData.BASE_LATITUDE, BenchmarkData.BASE_LONGITUDE, 5, null, 20);
+    }
+
+    @Benchmark
+    public List<User> linearScan() {
+        String area = Helper.canonicalArea(criteria.getLocation());
+        return users.stream()
+                .filter(user -> user.getHourlyRate() >= criteria.getMinRate() && user.getHourlyRate() <= criteria.getMaxRate())
+                .filter(user -> user.getExperience() >= criteria.getMinExperience())
+                .filter(user -> Helper.parseServiceAreas(user.getServiceAreas()).containsKey(area))
+                .filter(user -> user.getUserSkills().stream()
+                        .map(UserSkill::getSubCategory)
+                        .anyMatch(skill -> skill.getCategory().getCategoryName().equalsIgnoreCase(criteria.getCategory())))
+                .sorted(Comparator.comparing(User::getName))
+                .limit(20)
+                .toList();
+    }
+}
@@ -1,5 +1,7 @@
 package com.kaamwala;
 
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.model.AccessRole;
 import com.kaamwala.model.Role;
 import com.kaamwala.model.User;
 import com.kaamwala.model.Category;
@@ -8,18 +10,14 @@ import com.kaamwala.repository.RoleRepository;
 import com.kaamwala.repository.UserRepository;
 import com.kaamwala.repository.CategoryRepository;
 import com.kaamwala.repository.SubCategoryRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import java.time.LocalDateTime;
-import java.util.Set;
-import java.util.UUID;
 
 @SpringBootApplication
 @EnableWebMvc
@@ -70,7 +68,7 @@ public class KaamwalaApplication implements CommandLineRunner {
 
 			// --- Create Admin User ---
 			User adminUser = User.builder()
-					.userId(UUID.randomUUID().toString())
+					.userId(TimeOrderedId.next())
 					.name("Admin")
 					.email("admin@gmail.com")
 					.password("anku123") // Consider encoding in future
@@ -78,12 +76,12 @@ public class KaamwalaApplication implements CommandLineRunner {
 					.about("I am Admin User")
 					.imageName("default.png")
 					.createdAt(LocalDateTime.now())
-					.roles(Set.of(roleAdmin, roleNormal))  // Admin has both roles
+					.roleMask(AccessRole.ADMIN.getMask() | AccessRole.NORMAL.getMask())  // Admin has both roles
 					.build();
 
 			// --- Create Normal User ---
 			User normalUser = User.builder()
-					.userId(UUID.randomUUID().toString())
+					.userId(TimeOrderedId.next())
 					.name("Ankur Singh")
 					.email("ankur@gmail.com")
 					.password("ankur123")
@@ -91,7 +89,7 @@ public class KaamwalaApplication implements CommandLineRunner {
 					.about("I am Normal User")
 					.imageName("default.png")
 					.createdAt(LocalDateTime.now())
-					.roles(Set.of(roleNormal))
+					.roleMask(AccessRole.NORMAL.getMask())
 					.build();
 
 			// Save users to DB only if email not already present
@@ -276,9 +274,4 @@ public class KaamwalaApplication implements CommandLineRunner {
 			subCategoryRepository.save(subCategory);
 		}
 	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
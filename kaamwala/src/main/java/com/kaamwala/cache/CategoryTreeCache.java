@@ -0,0 +1,184 @@
+package com.kaamwala.cache;
+
+import com.kaamwala.dtos.CategoryDto;
+import com.kaamwala.dtos.SubCategoryDto;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.mapper.CategoryMapper;
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.repository.CategoryRepository;
+import com.kaamwala.repository.SubCategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The whole active category -> subcategory tree, already mapped to DTOs and held as one
+ * immutable snapshot. The catalog changes about once a week and is read on every app start, so
+ * /api/categories/active, /subcategories/active and /{categoryId}/subcategories are served from
+ * here without touching the database.
+ *
+ * Every write through CategoryServiceImp builds a new snapshot (three queries) and swaps it in;
+ * readers always see either the old or the new tree, never a mix. The DTOs are shared between
+ * requests and must not be modified.
+ *
+ * Each snapshot carries a strong ETag built from the id and updatedAt of every active category
+ * and subcategory, so it survives restarts and only changes when the catalog does.
+ *
+ * Writes made by another instance are found by {@link #isStale()}, which compares the row count
+ * and last updatedAt of both tables with the ones the snapshot was built from.
+ */
+@Component
+public class CategoryTreeCache {
+
+    private final Logger logger = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    @Autowired
+    private CategoryMapper mapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Only one rebuild at a time, so an older tree can never replace a newer one
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private long nextVersion = 1;
+
+    // A programmatic transaction rather than @Transactional: get() calls this on the bean itself,
+    // past the proxy, and the change stamp and the tree must come from the same read
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        rebuildLock.lock();
+        try {
+            Snapshot built = readOnly.execute(status -> load(nextVersion++));
+            snapshot.set(built);
+            logger.info("Category tree v{} cached: {} categories, {} subcategories",
+                    built.version, built.categories.size(), built.subCategories.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Current tree; built on first use if a request arrives before the application is ready
+    public Snapshot get() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            rebuild();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    // True when the catalog tables changed after the current snapshot was built
+    @Transactional(readOnly = true)
+    public boolean isStale() {
+        Snapshot current = snapshot.get();
+        return current != null && !current.changeStamp.equals(changeStamp());
+    }
+
+    private String changeStamp() {
+        return Arrays.deepToString(categoryRepository.findChangeStamp().toArray())
+                + Arrays.deepToString(subCategoryRepository.findChangeStamp().toArray());
+    }
+
+    private Snapshot load(long version) {
+        // Read first: a write that lands while the tree loads makes the snapshot stale, never current
+        String changeStamp = changeStamp();
+        Set<String> knownCategoryIds = new HashSet<>(categoryRepository.findAllCategoryIds());
+
+        Map<String, List<SubCategoryDto>> byCategory = new HashMap<>();
+        List<SubCategoryDto> subCategories = new ArrayList<>();
+        List<String> versions = new ArrayList<>();
+        for (SubCategory subCategory : subCategoryRepository.findActiveWithCategory()) {
+            SubCategoryDto dto = mapper.toDto(subCategory);
+            subCategories.add(dto);
+            versions.add("s:" + dto.getSubCategoryId() + "@" + dto.getUpdatedAt());
+            byCategory.computeIfAbsent(dto.getCategoryId(), id -> new ArrayList<>()).add(dto);
+        }
+
+        List<CategoryDto> categories = new ArrayList<>();
+        for (Category category : categoryRepository.findByIsActiveTrue()) {
+            CategoryDto dto = mapper.toSummaryDto(category);
+            versions.add("c:" + dto.getCategoryId() + "@" + dto.getUpdatedAt());
+            List<SubCategoryDto> children = byCategory.getOrDefault(category.getCategoryId(), List.of());
+            dto.setSubCategories(Collections.unmodifiableSet(new LinkedHashSet<>(children)));
+            categories.add(dto);
+        }
+        Collections.sort(versions);
+        String eTag = Helper.eTag(versions.toArray());
+        return new Snapshot(version, eTag, changeStamp, categories, subCategories, byCategory, knownCategoryIds);
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final String eTag;
+        private final String changeStamp;
+        private final List<CategoryDto> categories;
+        private final List<SubCategoryDto> subCategories;
+        private final Map<String, List<SubCategoryDto>> subCategoriesByCategory;
+        private final Set<String> knownCategoryIds;
+
+        private Snapshot(long version, String eTag, String changeStamp, List<CategoryDto> categories,
+                         List<SubCategoryDto> subCategories, Map<String, List<SubCategoryDto>> subCategoriesByCategory,
+                         Set<String> knownCategoryIds) {
+            this.version = version;
+            this.eTag = eTag;
+            this.changeStamp = changeStamp;
+            this.categories = List.copyOf(categories);
+            this.subCategories = List.copyOf(subCategories);
+            Map<String, List<SubCategoryDto>> copy = new HashMap<>();
+            subCategoriesByCategory.forEach((id, list) -> copy.put(id, List.copyOf(list)));
+            this.subCategoriesByCategory = Map.copyOf(copy);
+            this.knownCategoryIds = Set.copyOf(knownCategoryIds);
+        }
+
+        // Incremented on every rebuild
+        public long getVersion() {
+            return version;
+        }
+
+        // Strong ETag of the whole tree, quoted
+        public String getETag() {
+            return eTag;
+        }
+
+        // Active categories, each with its active subcategories
+        public List<CategoryDto> getCategories() {
+            return categories;
+        }
+
+        // All active subcategories
+        public List<SubCategoryDto> getSubCategories() {
+            return subCategories;
+        }
+
+        public List<SubCategoryDto> getSubCategories(String categoryId) {
+            return subCategoriesByCategory.getOrDefault(categoryId, List.of());
+        }
+
+        // True for any category in the table, active or not
+        public boolean containsCategory(String categoryId) {
+            return knownCategoryIds.contains(categoryId);
+        }
+    }
+}
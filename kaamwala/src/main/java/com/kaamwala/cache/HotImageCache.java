@@ -0,0 +1,262 @@
+package com.kaamwala.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bytes of the most requested images (avatars, thumbnails) in direct memory, so a hit is served
+ * with no file system call at all. Bounded by total bytes (image.cache.max-bytes); files larger
+ * than image.cache.max-entry-bytes are never cached and keep using sendfile.
+ *
+ * Eviction is TinyLFU-style: a count-min sketch estimates how often every path was asked for
+ * recently (counts halve periodically, so old popularity fades). A new image only displaces the
+ * least recently used entries if it is asked for more often than each of them, so one scan over
+ * thousands of rarely viewed profiles cannot flush the avatars everybody sees.
+ *
+ * Stored files never change in place (uploads get new names), so entries are only dropped when
+ * their file is deleted or a variant is regenerated. Metrics: image.cache.hits / .misses /
+ * .evictions / .rejections, and gauges image.cache.bytes, .entries and .hit.ratio.
+ */
+@Component
+public class HotImageCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${image.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${image.cache.max-entry-bytes:1048576}")
+    private long maxEntryBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access order: the eldest entry is the least recently used
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long usedBytes;
+
+    private FrequencySketch sketch;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private Counter rejections;
+
+    @PostConstruct
+    public void init() {
+        // Sized for the number of entries that fit if avatars average ~16KB
+        sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(1024, maxBytes / (16 * 1024))));
+        hits = meterRegistry.counter("image.cache.hits");
+        misses = meterRegistry.counter("image.cache.misses");
+        evictions = meterRegistry.counter("image.cache.evictions");
+        rejections = meterRegistry.counter("image.cache.rejections");
+        Gauge.builder("image.cache.bytes", this, cache -> cache.usedBytes).register(meterRegistry);
+        Gauge.builder("image.cache.entries", entries, Map::size).register(meterRegistry);
+        Gauge.builder("image.cache.hit.ratio", this, HotImageCache::hitRatio).register(meterRegistry);
+    }
+
+    // Cached image, or null; every call counts towards the path's popularity
+    public Entry get(Path file) {
+        lock.lock();
+        try {
+            sketch.increment(file);
+            Entry entry = entries.get(file);
+            (entry != null ? hits : misses).increment();
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the file into direct memory and caches it, or returns null without reading anything
+     * when it is too large or less popular than the entries it would displace.
+     */
+    public Entry load(Path file, long size, String hash, String contentType) throws IOException {
+        if (size <= 0 || size > maxEntryBytes || size > maxBytes) {
+            return null;
+        }
+        lock.lock();
+        try {
+            if (victims(file, size) == null) {
+                rejections.increment();
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+        }
+        buffer.flip();
+        Entry entry = new Entry(buffer.asReadOnlyBuffer(), hash, contentType);
+        put(file, entry);
+        return entry;
+    }
+
+    public void invalidate(Path file) {
+        lock.lock();
+        try {
+            Entry removed = entries.remove(file);
+            if (removed != null) {
+                usedBytes -= removed.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Another request may have filled the room meanwhile, so admission is checked again
+    private void put(Path file, Entry entry) {
+        lock.lock();
+        try {
+            Entry previous = entries.remove(file);
+            if (previous != null) {
+                usedBytes -= previous.size();
+            }
+            List<Path> victims = victims(file, entry.size());
+            if (victims == null) {
+                rejections.increment();
+                return;
+            }
+            for (Path victim : victims) {
+                usedBytes -= entries.remove(victim).size();
+                evictions.increment();
+            }
+            entries.put(file, entry);
+            usedBytes += entry.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Least recently used entries that must go to make room, or null when any of them is at least
+    // as popular as the newcomer. Called with the lock held.
+    private List<Path> victims(Path file, long size) {
+        long needed = usedBytes + size - maxBytes;
+        if (needed <= 0) {
+            return List.of();
+        }
+        int frequency = sketch.frequency(file);
+        List<Path> victims = new ArrayList<>();
+        Iterator<Map.Entry<Path, Entry>> eldest = entries.entrySet().iterator();
+        while (needed > 0 && eldest.hasNext()) {
+            Map.Entry<Path, Entry> victim = eldest.next();
+            if (sketch.frequency(victim.getKey()) >= frequency) {
+                return null;
+            }
+            victims.add(victim.getKey());
+            needed -= victim.getValue().size();
+        }
+        return victims;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    public static final class Entry {
+        private final ByteBuffer bytes;
+        private final String hash;
+        private final String contentType;
+
+        private Entry(ByteBuffer bytes, String hash, String contentType) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.contentType = contentType;
+        }
+
+        // Independent read-only view; callers may move its position and limit
+        public ByteBuffer bytes() {
+            return bytes.duplicate();
+        }
+
+        public long size() {
+            return bytes.capacity();
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    // Count-min sketch of 4 rows of saturating 4-bit counters (held in bytes); halves every counter
+    // after 10 increments per slot so popularity is measured over a sliding window
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] rows;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(16, expectedEntries - 1) << 1);
+            rows = new byte[DEPTH][width];
+            mask = width - 1;
+            sampleSize = 10 * width;
+        }
+
+        private void increment(Object key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int slot = index(hash, row);
+                if (rows[row][slot] < MAX_COUNT) {
+                    rows[row][slot]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (byte[] counters : rows) {
+                    for (int i = 0; i < counters.length; i++) {
+                        counters[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        private int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, rows[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9E3779B1;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
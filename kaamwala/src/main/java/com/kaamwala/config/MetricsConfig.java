@@ -0,0 +1,54 @@
+package com.kaamwala.config;
+
+import com.kaamwala.metrics.QueryAccountingListener;
+import com.kaamwala.metrics.QueryCountingIntegrator;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Hooks the per-request query counters (see RequestMetricsFilter) into JDBC and Hibernate.
+ * Endpoint, repository, connection pool and Hibernate statistics meters come from Spring Boot's
+ * actuator auto-configuration; see the management.* properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Wraps the pool in a datasource-proxy, so every statement (JPA and JdbcTemplate) passes
+     * through QueryAccountingListener. Result sets are proxied too, to count rows.
+     */
+    @Bean
+    public static BeanPostProcessor queryAccountingDataSourceProxy(Environment environment) {
+        long slowThresholdMillis = environment.getProperty("query.slow-threshold-ms", Long.class, 500L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                QueryAccountingListener listener = new QueryAccountingListener(slowThresholdMillis);
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingCustomizer() {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(new QueryCountingIntegrator()));
+    }
+}
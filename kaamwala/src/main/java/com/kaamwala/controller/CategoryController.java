@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -71,8 +72,12 @@ public class CategoryController {
         return new ResponseEntity<>(categories, HttpStatus.OK);
     }
     
+    // Clients polling with If-None-Match get 304 without a database query or serialization
     @GetMapping("/active")
-    public ResponseEntity<List<CategoryDto>> getAllActiveCategories() {
+    public ResponseEntity<List<CategoryDto>> getAllActiveCategories(WebRequest request) {
+        if (request.checkNotModified(categoryService.getCatalogETag())) {
+            return null;
+        }
         List<CategoryDto> activeCategories = categoryService.getAllActiveCategories();
         return new ResponseEntity<>(activeCategories, HttpStatus.OK);
     }
@@ -119,8 +124,15 @@ public class CategoryController {
     }
     
     @GetMapping("/{categoryId}/subcategories")
-    public ResponseEntity<List<SubCategoryDto>> getSubCategoriesByCategory(@PathVariable("categoryId") String categoryId) {
+    public ResponseEntity<List<SubCategoryDto>> getSubCategoriesByCategory(@PathVariable("categoryId") String categoryId,
+                                                                           WebRequest request) {
+        // ETag before the lookup: a rebuild in between can only make the tag older than the body.
+        // The lookup comes before the 304, so an unknown category is a 404 whatever the client sent.
+        String eTag = categoryService.getCatalogETag();
         List<SubCategoryDto> subCategories = categoryService.getSubCategoriesByCategory(categoryId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         return new ResponseEntity<>(subCategories, HttpStatus.OK);
     }
     
@@ -131,7 +143,10 @@ public class CategoryController {
     }
     
     @GetMapping("/subcategories/active")
-    public ResponseEntity<List<SubCategoryDto>> getAllActiveSubCategories() {
+    public ResponseEntity<List<SubCategoryDto>> getAllActiveSubCategories(WebRequest request) {
+        if (request.checkNotModified(categoryService.getCatalogETag())) {
+            return null;
+        }
         List<SubCategoryDto> activeSubCategories = categoryService.getAllActiveSubCategories();
         return new ResponseEntity<>(activeSubCategories, HttpStatus.OK);
     }
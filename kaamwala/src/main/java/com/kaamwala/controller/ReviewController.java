@@ -0,0 +1,43 @@
+package com.kaamwala.controller;
+
+import com.kaamwala.dtos.PageableResponse;
+import com.kaamwala.dtos.ReviewDto;
+import com.kaamwala.service.ReviewService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/workers")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ReviewController {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    /**
+     * Rate a worker (1-5). The worker's average rating is updated within a few seconds.
+     */
+    @PostMapping("/{workerId}/reviews")
+    public ResponseEntity<ReviewDto> createReview(
+            @PathVariable("workerId") String workerId,
+            @Valid @RequestBody ReviewDto reviewDto) {
+
+        ReviewDto created = reviewService.createReview(workerId, reviewDto);
+        return new ResponseEntity<>(created, HttpStatus.CREATED);
+    }
+
+    /**
+     * Reviews of a worker, newest first
+     */
+    @GetMapping("/{workerId}/reviews")
+    public ResponseEntity<PageableResponse<ReviewDto>> getReviews(
+            @PathVariable("workerId") String workerId,
+            @RequestParam(value = "pageNumber", defaultValue = "0") int pageNumber,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+
+        return new ResponseEntity<>(reviewService.getReviews(workerId, pageNumber, pageSize), HttpStatus.OK);
+    }
+}
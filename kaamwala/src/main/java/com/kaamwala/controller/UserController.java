@@ -1,11 +1,17 @@
 package com.kaamwala.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaamwala.dtos.ApiResponseMessage;
+import com.kaamwala.dtos.ImportEvent;
 import com.kaamwala.dtos.ImageResponse;
 import com.kaamwala.dtos.PageableResponse;
 import com.kaamwala.dtos.UserDto;
+import com.kaamwala.image.ImageVariant;
+import com.kaamwala.service.ImageService;
+import com.kaamwala.service.WorkerImportService;
 import com.kaamwala.service.imp.FileServiceImp;
 import com.kaamwala.service.imp.UserServiceImp;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -16,12 +22,13 @@ import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.security.PublicKey;
 import java.util.List;
 
@@ -35,6 +42,15 @@ public class UserController {
     @Autowired
     FileServiceImp fileServiceImp;
 
+    @Autowired
+    ImageService imageService;
+
+    @Autowired
+    WorkerImportService workerImportService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     Logger logger= LoggerFactory.getLogger(UserController.class);
 
     @Value("${user.profile.image.path}")
@@ -64,7 +80,11 @@ public class UserController {
     }
 
     @GetMapping("/getById/{userId}")
-    public ResponseEntity<UserDto>getUserById(@PathVariable("userId") String userId){
+    public ResponseEntity<UserDto>getUserById(@PathVariable("userId") String userId, WebRequest request){
+        // Unchanged profile: 304 after one small query instead of loading and mapping the user
+        if (request.checkNotModified(userServiceImp.getUserETag(userId))) {
+            return null;
+        }
         UserDto userById = userServiceImp.getUserById(userId);
         return  new ResponseEntity<>(userById,HttpStatus.OK);
 
@@ -90,6 +110,8 @@ public class UserController {
     @PostMapping("/uploadImage/{userId}")
     public ResponseEntity<ImageResponse>uploadUserImage(@PathVariable("userId")String userId , @RequestParam("userImage")MultipartFile image)throws IOException{
         String imageName = fileServiceImp.uploadImage(image, imageUploadPath);
+        // Returns once the original is stored; thumbnails are built in the background
+        imageService.generateVariants(imageName);
 
         UserDto user = userServiceImp.getUserById(userId);
         user.setImageName(imageName);
@@ -98,15 +120,41 @@ public class UserController {
         return  new ResponseEntity<>(imageUploadSuccessfully,HttpStatus.CREATED);
     }
 
+    // ?variant=thumb|card|full for scaled copies; supports Range and If-None-Match;
+    // ?v=<ETag value> is cached by clients as immutable
     @GetMapping("/image/{userId}")
-    public void serveUserImage(@PathVariable String userId , HttpServletResponse response)throws IOException{
-        UserDto user =userServiceImp.getUserById(userId);
-        logger.info("user image name: {}",user.getImageName());
-        InputStream resource = fileServiceImp.getResource(imageUploadPath, user.getImageName());
-        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+    public void serveUserImage(@PathVariable String userId ,
+                               @RequestParam(value = "variant", required = false) String variant,
+                               @RequestParam(value = "v", required = false) String version,
+                               HttpServletRequest request, HttpServletResponse response)throws IOException{
+        imageService.serveUserImage(userId, ImageVariant.parse(variant), version, request, response);
+    }
 
-        StreamUtils.copy(resource,response.getOutputStream());
+    // Bulk import: text/csv with a header row of UserDto field names, or application/x-ndjson with one
+    // UserDto per line. The body is read as it arrives and the answer is NDJSON written as the import
+    // runs: an "error" line per rejected row, a "progress" line per committed chunk, then "done".
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"}, produces = "application/x-ndjson")
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        response.setContentType("application/x-ndjson");
+        OutputStream out = response.getOutputStream();
+        ImportEvent done = workerImportService.importWorkers(request.getInputStream(), csv, event -> {
+            try {
+                writeLine(out, event);
+                if (!ImportEvent.ERROR.equals(event.getType())) {
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writeLine(out, done);
+        out.flush();
+    }
 
+    private void writeLine(OutputStream out, ImportEvent event) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(event));
+        out.write('\n');
     }
 
 
@@ -1,116 +1,124 @@
 package com.kaamwala.controller;
 
 import com.kaamwala.dtos.UserDto;
-import com.kaamwala.model.User;
-import com.kaamwala.repository.UserRepository;
-import org.modelmapper.ModelMapper;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.service.WorkerSearchService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Worker search endpoints.
+ *
+ * Every list endpoint supports two paging modes:
+ * - offset (default): ?page=&size= returns a plain list, as before
+ * - keyset: ?cursor=&size= returns a CursorPageResponse; start with an empty cursor and pass
+ *   nextCursor back for the following page. Deep pages cost the same as the first one.
+ */
 @RestController
 @RequestMapping("/api/workers")
 @CrossOrigin(origins = "http://localhost:3000")
 public class WorkerSearchController {
-    
-    @Autowired
-    private UserRepository userRepository;
-    
+
     @Autowired
-    private ModelMapper mapper;
-    
+    private WorkerSearchService workerSearchService;
+
     /**
      * Get all workers (users with role = 'worker')
      */
     @GetMapping("/all")
-    public ResponseEntity<List<UserDto>> getAllWorkers(
+    public ResponseEntity<?> getAllWorkers(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "sortBy", defaultValue = "name") String sortBy) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        List<User> workers = userRepository.findByRole("worker", pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    new WorkerSearchCriteria(), Sort.Order.asc(sortBy), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getAllWorkers(page, size, sortBy);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
      * Search workers by category name
      * Example: /api/workers/search/category/Plumbing
      */
     @GetMapping("/search/category/{categoryName}")
-    public ResponseEntity<List<UserDto>> getWorkersByCategory(
+    public ResponseEntity<?> getWorkersByCategory(
             @PathVariable("categoryName") String categoryName,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        List<User> workers = userRepository.findWorkersByCategory(categoryName, pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    WorkerSearchCriteria.builder().category(categoryName).build(),
+                    Sort.Order.asc("name"), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getWorkersByCategory(categoryName, page, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
      * Search workers by subcategory (specific skill)
      * Example: /api/workers/search/skill/Pipe Installation
      */
     @GetMapping("/search/skill/{skillName}")
-    public ResponseEntity<List<UserDto>> getWorkersBySkill(
+    public ResponseEntity<?> getWorkersBySkill(
             @PathVariable("skillName") String skillName,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        List<User> workers = userRepository.findWorkersBySkill(skillName, pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    WorkerSearchCriteria.builder().skill(skillName).build(),
+                    Sort.Order.asc("name"), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getWorkersBySkill(skillName, page, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
      * Search workers by location (service areas)
      * Example: /api/workers/search/location/Delhi
      */
     @GetMapping("/search/location/{location}")
-    public ResponseEntity<List<UserDto>> getWorkersByLocation(
+    public ResponseEntity<?> getWorkersByLocation(
             @PathVariable("location") String location,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        List<User> workers = userRepository.findWorkersByServiceArea(location, pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    WorkerSearchCriteria.builder().location(location).build(),
+                    Sort.Order.asc("name"), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getWorkersByLocation(location, page, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
      * Advanced search: Workers by category and location
      * Example: /api/workers/search?category=Plumbing&location=Delhi
+     *
+     * With ?facets=true the answer is a WorkerSearchResponse: the page, totalHits and category,
+     * skill, hourly rate and experience counts over all matches. ?facets=false gives the same
+     * envelope with totalHits only.
      */
     @GetMapping("/search")
-    public ResponseEntity<List<UserDto>> searchWorkers(
+    public ResponseEntity<?> searchWorkers(
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "skill", required = false) String skill,
             @RequestParam(value = "location", required = false) String location,
@@ -119,53 +127,120 @@ public class WorkerSearchController {
             @RequestParam(value = "minExperience", required = false) Integer minExperience,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
-            @RequestParam(value = "sortBy", defaultValue = "name") String sortBy) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
-        List<User> workers = userRepository.findWorkersWithFilters(
-            category, skill, location, minRate, maxRate, minExperience, pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sortBy", defaultValue = "name") String sortBy,
+            @RequestParam(value = "facets", required = false) Boolean facets) {
+
+        WorkerSearchCriteria criteria = WorkerSearchCriteria.builder()
+                .category(category)
+                .skill(skill)
+                .location(location)
+                .minRate(minRate)
+                .maxRate(maxRate)
+                .minExperience(minExperience)
+                .build();
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(criteria, Sort.Order.asc(sortBy), cursor, size), HttpStatus.OK);
+        }
+        if (facets != null) {
+            return new ResponseEntity<>(workerSearchService.searchWorkers(criteria, page, size, sortBy, facets), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.searchWorkers(criteria, page, size, sortBy);
+        return new ResponseEntity<>(workerDtos, HttpStatus.OK);
+    }
+
+    /**
+     * Every worker matching the /search filters, streamed as NDJSON (default) or CSV.
+     * CSV columns follow the POST /users/import format (without passwords).
+     * Example: /api/workers/export?category=Plumbing&format=csv
+     */
+    @GetMapping("/export")
+    public void exportWorkers(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "skill", required = false) String skill,
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "minRate", required = false) Double minRate,
+            @RequestParam(value = "maxRate", required = false) Double maxRate,
+            @RequestParam(value = "minExperience", required = false) Integer minExperience,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BadApiRequest("Unsupported export format: " + format);
+        }
+        WorkerSearchCriteria criteria = WorkerSearchCriteria.builder()
+                .category(category)
+                .skill(skill)
+                .location(location)
+                .minRate(minRate)
+                .maxRate(maxRate)
+                .minExperience(minExperience)
+                .build();
+        response.setCharacterEncoding("UTF-8");
+        if (csv) {
+            response.setContentType("text/csv");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"workers.csv\"");
+        } else {
+            response.setContentType("application/x-ndjson");
+        }
+        workerSearchService.exportWorkers(criteria, csv, response.getOutputStream());
+    }
+
+    /**
+     * Workers near a point, sorted by distance
+     * Example: /api/workers/search/nearby?lat=28.61&lng=77.21&radiusKm=5&skill=Pipe Installation
+     */
+    @GetMapping("/search/nearby")
+    public ResponseEntity<List<UserDto>> getNearbyWorkers(
+            @RequestParam("lat") double lat,
+            @RequestParam("lng") double lng,
+            @RequestParam(value = "radiusKm", defaultValue = "5") double radiusKm,
+            @RequestParam(value = "skill", required = false) String skill,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+
+        List<UserDto> workerDtos = workerSearchService.getNearbyWorkers(lat, lng, radiusKm, skill, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
-     * Get top-rated workers (placeholder for future rating system)
+     * Get top-rated workers, optionally within a category or skill
+     * Example: /api/workers/top-rated?category=Plumbing
+     *
+     * Offset mode is served from the in-memory top lists (first rating.top-k.size workers).
+     * Cursor mode walks every rated worker by raw average rating.
      */
     @GetMapping("/top-rated")
-    public ResponseEntity<List<UserDto>> getTopRatedWorkers(
+    public ResponseEntity<?> getTopRatedWorkers(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "skill", required = false) String skill,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size) {
-        
-        // For now, sort by experience (highest first)
-        Pageable pageable = PageRequest.of(page, size, Sort.by("experience").descending());
-        List<User> workers = userRepository.findByRole("worker", pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    WorkerSearchCriteria.builder().category(category).skill(skill).build(),
+                    Sort.Order.desc("averageRating"), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getTopRatedWorkers(category, skill, page, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
-    
+
     /**
      * Get recently joined workers
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<UserDto>> getRecentWorkers(
+    public ResponseEntity<?> getRecentWorkers(
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        List<User> workers = userRepository.findByRole("worker", pageable);
-        
-        List<UserDto> workerDtos = workers.stream()
-                .map(worker -> mapper.map(worker, UserDto.class))
-                .collect(Collectors.toList());
-        
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        if (cursor != null) {
+            return new ResponseEntity<>(workerSearchService.seekWorkers(
+                    new WorkerSearchCriteria(), Sort.Order.desc("createdAt"), cursor, size), HttpStatus.OK);
+        }
+        List<UserDto> workerDtos = workerSearchService.getRecentWorkers(page, size);
         return new ResponseEntity<>(workerDtos, HttpStatus.OK);
     }
 }
@@ -0,0 +1,22 @@
+package com.kaamwala.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+
+    // Pass back as ?cursor= to get the next page; null on the last page
+    private String nextCursor;
+
+    private int pageSize;
+
+    private boolean lastPage;
+}
@@ -0,0 +1,23 @@
+package com.kaamwala.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetCount {
+
+    // Category / skill name, or a bucket label such as "200-400" or "1000+"
+    private String value;
+
+    private long count;
+
+    // Bucket bounds, from inclusive and to exclusive (null for open ends and for name facets)
+    private Double from;
+
+    private Double to;
+}
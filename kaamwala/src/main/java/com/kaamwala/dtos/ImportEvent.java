@@ -0,0 +1,31 @@
+package com.kaamwala.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+// One line of the NDJSON stream returned by /users/import
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+
+    public static final String ERROR = "error";
+    public static final String PROGRESS = "progress";
+    public static final String DONE = "done";
+
+    // error: one rejected row; progress: after every committed chunk; done: last line
+    private String type;
+
+    // Rejected row number and email, with the reason
+    private Long row;
+    private String email;
+    private String message;
+
+    // Totals so far
+    private Long rowsRead;
+    private Long imported;
+    private Long failed;
+}
@@ -0,0 +1,34 @@
+package com.kaamwala.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ReviewDto {
+
+    private String reviewId;
+
+    // Taken from the URL
+    private String workerId;
+
+    private String reviewerId;
+
+    @NotNull(message = "Rating is required")
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+
+    @Size(max = 1000, message = "Comment cannot exceed 1000 characters")
+    private String comment;
+
+    private LocalDateTime createdAt;
+}
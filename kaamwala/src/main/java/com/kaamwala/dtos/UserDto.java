@@ -1,9 +1,11 @@
 package com.kaamwala.dtos;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Getter
@@ -54,11 +56,29 @@ public class UserDto {
     @Max(value = 5000, message = "Hourly rate cannot exceed ₹5000")
     private Double hourlyRate;
 
+    // In the order given, so the importer reports the later of two duplicate skills
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<UserSkillDto> userSkills;
 
     @Size(max = 500, message = "Service areas cannot exceed 500 characters")
     private String serviceAreas;
 
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
+    @Min(value = 0, message = "Service radius cannot be negative")
+    @Max(value = 200, message = "Service radius cannot exceed 200 km")
+    private Double serviceRadiusKm;
+
+    // Read-only, maintained from reviews
+    private Double averageRating;
+    private Long ratingCount;
+
     // Customer-specific fields (optional for workers)
     @Size(max = 200, message = "Preferred location cannot exceed 200 characters")
     private String preferredLocation;
@@ -0,0 +1,26 @@
+package com.kaamwala.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class WorkerSearchCriteria {
+
+    // Category name (e.g. "Plumbing")
+    private String category;
+
+    // Subcategory / skill name (e.g. "Pipe Installation")
+    private String skill;
+
+    // Service area (e.g. "Delhi")
+    private String location;
+
+    private Double minRate;
+
+    private Double maxRate;
+
+    private Integer minExperience;
+}
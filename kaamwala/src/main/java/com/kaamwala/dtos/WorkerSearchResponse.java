@@ -0,0 +1,29 @@
+package com.kaamwala.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkerSearchResponse {
+
+    private List<UserDto> content;
+
+    private int pageNumber;
+
+    private int pageSize;
+
+    // Workers matching the filters, over all pages
+    private long totalHits;
+
+    // "category", "skill", "hourlyRate" and "experience" counts over all matching workers;
+    // null unless facets were requested
+    private Map<String, List<FacetCount>> facets;
+}
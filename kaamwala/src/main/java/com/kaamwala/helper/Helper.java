@@ -1,19 +1,24 @@
 package com.kaamwala.helper;
 
 import com.kaamwala.dtos.PageableResponse;
-import org.modelmapper.ModelMapper;
+import com.kaamwala.model.ServiceArea;
+import com.kaamwala.model.User;
 import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class Helper {
 
-    public static <U,V> PageableResponse<V> getPageableResponse(Page<U> page , Class<V> type){
+    public static <U,V> PageableResponse<V> getPageableResponse(Page<U> page , Function<U,V> mapper){
         List<U> entity = page.getContent();
 
 
-        List<V> dtoList = entity.stream().map(object ->new ModelMapper().map(object,type)).collect(Collectors.toList());
+        List<V> dtoList = entity.stream().map(mapper).collect(Collectors.toList());
 
         PageableResponse<V >response=new PageableResponse<>();
         response.setContent(dtoList);
@@ -24,4 +29,89 @@ public class Helper {
         response.setLastPage(page.isLast());
         return response;
     }
-}
\ No newline at end of file
+
+    // Strong ETag ("quoted" MD5 hex) over the parts that decide what a response contains
+    public static String eTag(Object... parts) {
+        StringJoiner joined = new StringJoiner("|");
+        for (Object part : parts) {
+            joined.add(String.valueOf(part));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(joined.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // "  New   Delhi " -> "new delhi", "Gurugram (Sec-14)" -> "gurugram sec 14"
+    public static String canonicalArea(String area) {
+        if (area == null) {
+            return "";
+        }
+        String ascii = Normalizer.normalize(area, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        return ascii.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    // For LIKE ... ESCAPE '!': "50%_off" -> "50!%!_off", so the value only matches itself
+    public static String escapeLike(String value) {
+        return value.replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+
+    // First characters that make a spreadsheet read a CSV cell as a formula (OWASP CSV injection)
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    // "=HYPERLINK(...)" -> "'=HYPERLINK(...)": spreadsheets show the apostrophe-led cell as text
+    public static String guardCsvFormula(String cell) {
+        if (cell.isEmpty() || FORMULA_START.indexOf(cell.charAt(0)) < 0) {
+            return cell;
+        }
+        return "'" + cell;
+    }
+
+    // Reverses guardCsvFormula, so an exported file can be imported again
+    public static String unguardCsvFormula(String cell) {
+        if (cell.length() > 1 && cell.charAt(0) == '\'' && FORMULA_START.indexOf(cell.charAt(1)) >= 0) {
+            return cell.substring(1);
+        }
+        return cell;
+    }
+
+// Splits the free-text service areas column into canonical key -> name as typed
+    public static Map<String, String> parseServiceAreas(String serviceAreas) {
+        Map<String, String> areas = new LinkedHashMap<>();
+        if (serviceAreas == null) {
+            return areas;
+        }
+        for (String area : serviceAreas.split("[,;|\\n]")) {
+            String key = canonicalArea(area);
+            if (!key.isEmpty() && key.length() <= 100) {
+                areas.putIfAbsent(key, area.trim());
+            }
+        }
+        return areas;
+    }
+
+    /**
+     * Brings user.serviceAreaEntries in line with user.serviceAreas. Unchanged areas are kept
+     * (re-inserting them would hit the (user_id, area_key) unique key before the delete is flushed).
+     */
+    public static void syncServiceAreas(User user) {
+        Map<String, String> wanted = parseServiceAreas(user.getServiceAreas());
+        if (user.getServiceAreaEntries() == null) {
+            user.setServiceAreaEntries(new HashSet<>());
+        }
+        Set<ServiceArea> entries = user.getServiceAreaEntries();
+        entries.removeIf(entry -> !wanted.containsKey(entry.getAreaKey()));
+        Set<String> existing = entries.stream().map(ServiceArea::getAreaKey).collect(Collectors.toSet());
+        wanted.forEach((key, name) -> {
+            if (!existing.contains(key)) {
+                entries.add(ServiceArea.builder()
+                        .serviceAreaId(TimeOrderedId.next())
+                        .user(user)
+                        .areaKey(key)
+                        .areaName(name.length() > 100 ? name.substring(0, 100) : name)
+                        .build());
+            }
+        });
+    }
+}
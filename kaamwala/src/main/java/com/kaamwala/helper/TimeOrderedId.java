@@ -0,0 +1,49 @@
+package com.kaamwala.helper;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Primary keys for new rows: UUID version 7 (RFC 9562) strings.
+ *
+ * The first 48 bits are the Unix time in milliseconds, so ids sort (as text too) in creation order
+ * and InnoDB appends new rows at the right edge of the clustered and FK indexes instead of
+ * splitting random pages. The next 12 bits are a per-JVM sequence, so ids generated within the
+ * same millisecond are still increasing; the remaining 62 bits are random. Same 36-character form as
+ * UUID.randomUUID(), so existing random ids stay valid alongside them.
+ */
+public final class TimeOrderedId {
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final TimeOrderedId GENERATOR = new TimeOrderedId();
+
+    // (millis << 12) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    // Package-private: tests use their own generator and clock
+    TimeOrderedId() {
+    }
+
+    public static String next() {
+        return nextUuid().toString();
+    }
+
+    public static UUID nextUuid() {
+        return GENERATOR.generate(System.currentTimeMillis());
+    }
+
+    UUID generate(long nowMillis) {
+        long now = nowMillis << SEQUENCE_BITS;
+        // sequence overflow (4096 ids in one millisecond) borrows from the next millisecond, and a
+        // clock that steps back keeps counting from the last id
+        long timeAndSequence = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long millis = timeAndSequence >>> SEQUENCE_BITS;
+        long sequence = timeAndSequence & ((1L << SEQUENCE_BITS) - 1);
+
+        long mostSignificant = (millis << 16) | (0x7L << 12) | sequence;
+        long leastSignificant = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,86 @@
+package com.kaamwala.helper;
+
+import com.kaamwala.exception.BadApiRequest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque cursor for keyset (seek) pagination of workers.
+ *
+ * The token is the url-safe Base64 form of the sort it was produced for and the key values of the
+ * last row returned (the sort property plus userId). A key without a value is a worker without one,
+ * which sorts after all others. Clients pass it back unchanged as {@code cursor}.
+ */
+public final class WorkerCursor {
+
+    // 2: workers without a value for the sort property are paged through (last) instead of ending the listing
+    private static final int VERSION = 2;
+
+    private WorkerCursor() {
+    }
+
+    public static String encode(Sort.Order order, KeysetScrollPosition position) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(order.getProperty());
+            out.writeBoolean(order.isDescending());
+            Map<String, ?> keys = position.getKeys();
+            out.writeByte(keys.size());
+            for (Map.Entry<String, ?> key : keys.entrySet()) {
+                out.writeUTF(key.getKey());
+                out.writeBoolean(key.getValue() != null);
+                if (key.getValue() != null) {
+                    out.writeUTF(key.getValue().toString());
+                }
+            }
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes a cursor produced for the same sort order. An empty cursor means "first page".
+     */
+    public static KeysetScrollPosition decode(String cursor, Sort.Order order) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION
+                    || !in.readUTF().equals(order.getProperty())
+                    || in.readBoolean() != order.isDescending()) {
+                throw new BadApiRequest("Cursor does not match the requested sort order");
+            }
+            int count = in.readByte();
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String property = in.readUTF();
+                keys.put(property, in.readBoolean() ? parse(property, in.readUTF()) : null);
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadApiRequest("Invalid cursor");
+        }
+    }
+
+    private static Object parse(String property, String value) {
+        return switch (property) {
+            case "experience" -> Integer.valueOf(value);
+            case "hourlyRate", "averageRating" -> Double.valueOf(value);
+            case "createdAt" -> LocalDateTime.parse(value);
+            case "name", "userId" -> value;
+            default -> throw new BadApiRequest("Sorting by '" + property + "' is not supported with cursors");
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.kaamwala.image;
+
+import com.kaamwala.exception.BadApiRequest;
+
+import java.util.Locale;
+
+/**
+ * Fixed-size JPEG renditions generated for every uploaded image. Sizes are in pixels at 2x
+ * density: a thumb fills a 48px avatar, a card a 160px list tile.
+ */
+public enum ImageVariant {
+
+    // Center-cropped square
+    THUMB(96, true),
+    // Longest edge
+    CARD(320, false),
+    FULL(1280, false);
+
+    private final int size;
+    private final boolean square;
+
+    ImageVariant(int size, boolean square) {
+        this.size = size;
+        this.square = square;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isSquare() {
+        return square;
+    }
+
+    // "ab12.png" -> "ab12_thumb.jpg", next to the original
+    public String fileName(String originalName) {
+        int dot = originalName.lastIndexOf('.');
+        String base = dot > 0 ? originalName.substring(0, dot) : originalName;
+        return base + "_" + name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    // null or blank means the original upload
+    public static ImageVariant parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadApiRequest("Unknown image variant: " + value + " (use thumb, card or full)");
+        }
+    }
+}
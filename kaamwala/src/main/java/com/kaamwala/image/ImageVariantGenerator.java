@@ -0,0 +1,221 @@
+package com.kaamwala.image;
+
+import com.kaamwala.cache.HotImageCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the thumb/card/full JPEGs of uploaded images on a small, bounded pool so uploads return
+ * as soon as the original is on disk and request threads never decode or scale images.
+ *
+ * When the queue is full new work is dropped, not run on the caller: the image is simply served
+ * in its original form, and the next request for a missing variant queues it again. Decoding uses
+ * source subsampling, so a 10MB photo is never inflated to full resolution in memory.
+ *
+ * Metrics: image.variants.queued / .active (gauges), .generated / .rejected / .failed (counters)
+ * and image.variants.duration (one image, all variants).
+ */
+@Component
+public class ImageVariantGenerator {
+
+    private final Logger logger = LoggerFactory.getLogger(ImageVariantGenerator.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Value("${image.variants.threads:2}")
+    private int threads;
+
+    @Value("${image.variants.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${image.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    private ThreadPoolExecutor executor;
+
+    // Originals queued or being processed, so repeated requests do not queue the same work twice
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Counter generated;
+    private Counter rejected;
+    private Counter failed;
+    private Timer duration;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("image.variants.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("image.variants.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        generated = meterRegistry.counter("image.variants.generated");
+        rejected = meterRegistry.counter("image.variants.rejected");
+        failed = meterRegistry.counter("image.variants.failed");
+        duration = meterRegistry.timer("image.variants.duration");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues generation of all variants of an original. Returns false when it was dropped because
+     * the queue is full (or it is already queued).
+     */
+    public boolean submit(Path original) {
+        if (!inFlight.add(original)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    duration.record(() -> generate(original));
+                } finally {
+                    inFlight.remove(original);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(original);
+            rejected.increment();
+            logger.warn("Image variant queue full, {} will be served unscaled for now", original.getFileName());
+            return false;
+        }
+    }
+
+    public Path variantPath(Path original, ImageVariant variant) {
+        return original.resolveSibling(variant.fileName(original.getFileName().toString()));
+    }
+
+    private void generate(Path original) {
+        try {
+            BufferedImage source = read(original);
+            for (ImageVariant variant : ImageVariant.values()) {
+                write(resize(source, variant), variantPath(original, variant));
+            }
+            generated.increment();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            logger.warn("Could not generate variants of {}: {}", original.getFileName(), ex.getMessage());
+        }
+    }
+
+    // Decodes at most about twice the largest variant, skipping source pixels while reading
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestEdge / (2 * ImageVariant.FULL.getSize()));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, ImageVariant variant) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int x = 0;
+        int y = 0;
+        if (variant.isSquare()) {
+            int side = Math.min(width, height);
+            x = (width - side) / 2;
+            y = (height - side) / 2;
+            width = side;
+            height = side;
+        }
+        double scale = Math.min(1.0, (double) variant.getSize() / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        // Halve in steps: one big bilinear jump skips most source pixels and aliases
+        BufferedImage current = source.getSubimage(x, y, width, height);
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    // Also flattens transparency onto white, since JPEG has no alpha
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Written beside the target and renamed, so readers never see a half-written file
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            hotImageCache.invalidate(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.kaamwala.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.helper.Helper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads an import file one row at a time, so files of any size are imported in constant memory.
+ *
+ * NDJSON: one UserDto JSON object per line, blank lines skipped. CSV: a header row of UserDto
+ * field names, RFC 4180 quoting (fields may contain commas, quotes and newlines), empty cells
+ * left unset. The CSV userSkills column lists skills as name-or-id[:LEVEL[:years[:rate]]]
+ * separated by '|', the first one being the primary skill, e.g.
+ * "Pipe Installation:EXPERT:8:400|Bathroom Fitting".
+ *
+ * A row that cannot be parsed comes back with an error instead of a user; reading continues.
+ */
+public abstract class ImportRowReader implements Closeable {
+
+    protected final BufferedReader reader;
+
+    protected final ObjectMapper objectMapper;
+
+    protected ImportRowReader(InputStream in, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.objectMapper = objectMapper;
+    }
+
+    public static ImportRowReader open(InputStream in, boolean csv, ObjectMapper objectMapper) {
+        return csv ? new Csv(in, objectMapper) : new Ndjson(in, objectMapper);
+    }
+
+    // Next row, or null at the end of the file
+    public abstract ImportRow next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    public static final class ImportRow {
+        private final long number;
+        private final UserDto user;
+        private final String error;
+
+        private ImportRow(long number, UserDto user, String error) {
+            this.number = number;
+            this.user = user;
+            this.error = error;
+        }
+
+        // 1-based; NDJSON counts lines, CSV counts records after the header
+        public long getNumber() {
+            return number;
+        }
+
+        public UserDto getUser() {
+            return user;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private static final class Ndjson extends ImportRowReader {
+        private long lineNumber;
+
+        private Ndjson(InputStream in, ObjectMapper objectMapper) {
+            super(in, objectMapper);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return new ImportRow(lineNumber, objectMapper.readValue(line, UserDto.class), null);
+            } catch (JsonProcessingException ex) {
+                return new ImportRow(lineNumber, null, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class Csv extends ImportRowReader {
+        private static final String SKILLS_COLUMN = "userSkills";
+
+        private List<String> header;
+        private long recordNumber;
+
+        private Csv(InputStream in, ObjectMapper objectMapper) {
+            super(in, objectMapper);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (header == null) {
+                header = record();
+                if (header == null) {
+                    return null;
+                }
+                // Spreadsheet exports often start with a byte order mark
+                header.replaceAll(name -> name.replace("\uFEFF", "").trim());
+            }
+            List<String> cells;
+            do {
+                cells = record();
+                if (cells == null) {
+                    return null;
+                }
+            } while (cells.size() == 1 && cells.get(0).isBlank());
+            long number = ++recordNumber;
+            if (cells.size() > header.size()) {
+                return new ImportRow(number, null, "Expected " + header.size() + " columns but found " + cells.size());
+            }
+
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                // Formula cells come back from /api/workers/export with a guard apostrophe
+                String value = Helper.unguardCsvFormula(cells.get(i).trim());
+                if (!value.isEmpty()) {
+                    fields.put(header.get(i), value);
+                }
+            }
+            try {
+                Object skills = fields.remove(SKILLS_COLUMN);
+                if (skills != null) {
+                    fields.put(SKILLS_COLUMN, skills(skills.toString()));
+                }
+                return new ImportRow(number, objectMapper.convertValue(fields, UserDto.class), null);
+            } catch (IllegalArgumentException ex) {
+                return new ImportRow(number, null, "Invalid value: " + rootMessage(ex));
+            }
+        }
+
+        private static List<Map<String, Object>> skills(String column) {
+            List<Map<String, Object>> skills = new ArrayList<>();
+            for (String entry : column.split("\\|")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                String[] parts = entry.split(":", -1);
+                Map<String, Object> skill = new LinkedHashMap<>();
+                // Resolved as id first, then as name, by the importer
+                skill.put("subCategoryName", parts[0].trim());
+                if (parts.length > 1 && !parts[1].isBlank()) {
+                    skill.put("proficiencyLevel", parts[1].trim().toUpperCase(Locale.ROOT));
+                }
+                putIfPresent(skill, "experienceYears", parts, 2);
+                putIfPresent(skill, "skillHourlyRate", parts, 3);
+                skill.put("isPrimarySkill", skills.isEmpty());
+                skills.add(skill);
+            }
+            return skills;
+        }
+
+        private static void putIfPresent(Map<String, Object> skill, String field, String[] parts, int index) {
+            if (parts.length > index && !parts[index].isBlank()) {
+                skill.put(field, parts[index].trim());
+            }
+        }
+
+        // One CSV record, or null at the end of the file
+        private List<String> record() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    cell.append((char) c);
+                }
+                c = reader.read();
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+
+        private static String rootMessage(Throwable ex) {
+            while (ex.getCause() != null) {
+                ex = ex.getCause();
+            }
+            String message = ex.getMessage();
+            // Jackson appends the JSON path of the failing field; the first line is enough
+            int newline = message == null ? -1 : message.indexOf('\n');
+            return newline < 0 ? String.valueOf(message) : message.substring(0, newline);
+        }
+    }
+}
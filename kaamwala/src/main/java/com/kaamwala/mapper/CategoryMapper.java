@@ -0,0 +1,33 @@
+package com.kaamwala.mapper;
+
+import com.kaamwala.dtos.CategoryDto;
+import com.kaamwala.dtos.SubCategoryDto;
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Category and SubCategory mappings, generated at compile time by MapStruct.
+ */
+@Mapper(componentModel = "spring")
+public interface CategoryMapper {
+
+    // Includes every subcategory (loads the lazy collection)
+    CategoryDto toDto(Category category);
+
+    // Without subcategories, for callers that load only the active ones themselves
+    @Mapping(target = "subCategories", ignore = true)
+    CategoryDto toSummaryDto(Category category);
+
+    @Mapping(target = "subCategories", ignore = true)
+    Category toEntity(CategoryDto categoryDto);
+
+    @Mapping(target = "categoryId", source = "category.categoryId")
+    @Mapping(target = "categoryName", source = "category.categoryName")
+    SubCategoryDto toDto(SubCategory subCategory);
+
+    // The parent category is set by the service
+    @Mapping(target = "category", ignore = true)
+    SubCategory toEntity(SubCategoryDto subCategoryDto);
+}
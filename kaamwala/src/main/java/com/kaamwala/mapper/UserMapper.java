@@ -0,0 +1,34 @@
+package com.kaamwala.mapper;
+
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.UserSkillDto;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * User and UserSkill mappings, generated at compile time by MapStruct (plain getter/setter
+ * calls, no reflection).
+ */
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserDto toDto(User user);
+
+    // Skills, roles and rating totals are never taken from the request body
+    @Mapping(target = "userSkills", ignore = true)
+    @Mapping(target = "roleMask", ignore = true)
+    @Mapping(target = "serviceAreaEntries", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    User toEntity(UserDto userDto);
+
+    @Mapping(target = "userId", source = "user.userId")
+    @Mapping(target = "subCategoryId", source = "subCategory.subCategoryId")
+    @Mapping(target = "subCategoryName", source = "subCategory.subCategoryName")
+    @Mapping(target = "categoryName", source = "subCategory.category.categoryName")
+    UserSkillDto toDto(UserSkill userSkill);
+}
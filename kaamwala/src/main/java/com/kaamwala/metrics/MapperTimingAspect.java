@@ -0,0 +1,54 @@
+package com.kaamwala.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times every call into a MapStruct mapper as mapper.invocations (tags: mapper, method). Calls a
+ * mapper makes to itself (UserMapper mapping skills inside toDto(User)) are part of the outer call.
+ */
+@Aspect
+@Component
+public class MapperTimingAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Timer lookup builds a meter id; mappers are called per element, so keep one per method
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    // toDto(User) and toDto(UserSkill) are timed separately
+    private static String signature(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+
+    @Around("execution(* com.kaamwala.mapper.*Mapper.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer timer = timers.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(), method ->
+                Timer.builder("mapper.invocations")
+                        .tag("mapper", method.getDeclaringClass().getSimpleName().replaceFirst("Impl$", ""))
+                        .tag("method", signature(method))
+                        .register(meterRegistry));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
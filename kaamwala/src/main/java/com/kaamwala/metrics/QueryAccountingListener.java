@@ -0,0 +1,211 @@
+package com.kaamwala.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Datasource-proxy listener: adds every statement execution, its JDBC time and every row read to
+ * the current request's {@link RequestQueryCounters}, and logs statements slower than the
+ * threshold with their bind parameters and the endpoint that ran them.
+ *
+ * Values bound to password, email and phone columns are logged as *** (passwords are stored as
+ * given). A placeholder belongs to the column listed at its position in an INSERT, otherwise to
+ * the last column named before it (col = ?, col IN (?, ?), col BETWEEN ? AND ?, SET col = ?).
+ */
+public class QueryAccountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryAccountingListener.class);
+
+    private static final String START_NANOS = "startNanos";
+
+    // Bind values are cut to this length in the log (hashes, image names, long text)
+    private static final int MAX_LOGGED_VALUE_LENGTH = 64;
+
+    // Batches log their first parameter sets only
+    private static final int MAX_LOGGED_PARAMETER_SETS = 3;
+
+    private static final Pattern SENSITIVE_COLUMN = Pattern.compile("password|email|phone");
+
+    private static final Pattern INSERT = Pattern.compile(
+            "\\s*insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\((.*)\\)\\s*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // Identifiers (possibly qualified or quoted), string literals, placeholders
+    private static final Pattern TOKEN = Pattern.compile("'(?:[^']|'')*'|\\?|[`\"\\w.]+");
+
+    // Words that may stand between a column and its placeholder
+    private static final Set<String> KEYWORDS = Set.of("and", "or", "not", "in", "like", "between", "is", "null",
+            "escape", "set", "where", "values");
+
+    private final long slowThresholdNanos;
+
+    public QueryAccountingListener(long slowThresholdMillis) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+        RequestQueryCounters counters = RequestQueryCounters.current();
+        if (counters != null) {
+            counters.statements++;
+            counters.jdbcNanos += elapsed;
+        }
+        if (elapsed >= slowThresholdNanos) {
+            logger.warn("Slow statement ({} ms) from {}: {}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    counters == null ? Thread.currentThread().getName() : counters.getEndpoint(),
+                    describe(queryInfoList));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    // Rows are counted as ResultSet.next() calls that returned true
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            RequestQueryCounters counters = RequestQueryCounters.current();
+            if (counters != null) {
+                counters.rows++;
+            }
+        }
+    }
+
+    private static String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(queryInfo -> {
+            List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+            if (parameterSets.isEmpty()) {
+                return queryInfo.getQuery();
+            }
+            Set<Integer> sensitive = sensitiveParameters(queryInfo.getQuery());
+            String parameters = parameterSets.stream()
+                    .limit(MAX_LOGGED_PARAMETER_SETS)
+                    .map(operations -> describeParameters(operations, sensitive))
+                    .collect(Collectors.joining(", "));
+            if (parameterSets.size() > MAX_LOGGED_PARAMETER_SETS) {
+                parameters += ", ... (" + parameterSets.size() + " sets)";
+            }
+            return queryInfo.getQuery() + " " + parameters;
+        }).collect(Collectors.joining("; "));
+    }
+
+    // [1=worker, 2=delhi, 3=***]
+    private static String describeParameters(List<ParameterSetOperation> operations, Set<Integer> sensitive) {
+        return operations.stream()
+                .filter(operation -> operation.getArgs().length >= 2)
+                .map(operation -> {
+                    Object key = operation.getArgs()[0];
+                    String value;
+                    if ("setNull".equals(operation.getMethod().getName())) {
+                        value = "null";
+                    } else if (key instanceof Integer index ? sensitive.contains(index) : isSensitive(String.valueOf(key))) {
+                        value = "***";
+                    } else {
+                        value = truncate(operation.getArgs()[1]);
+                    }
+                    return key + "=" + value;
+                })
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    // 1-based indexes of the placeholders bound to sensitive columns
+    static Set<Integer> sensitiveParameters(String sql) {
+        List<String> columns = placeholderColumns(sql);
+        Set<Integer> sensitive = new HashSet<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i) != null && isSensitive(columns.get(i))) {
+                sensitive.add(i + 1);
+            }
+        }
+        return sensitive;
+    }
+
+    // The column of every placeholder in order, null where none can be named
+    private static List<String> placeholderColumns(String sql) {
+        List<String> columns = new ArrayList<>();
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.matches()) {
+            String[] names = insert.group(1).split(",");
+            List<String> values = splitTopLevel(insert.group(2));
+            for (int i = 0; i < values.size(); i++) {
+                Matcher tokens = TOKEN.matcher(values.get(i));
+                while (tokens.find()) {
+                    if (tokens.group().equals("?")) {
+                        columns.add(i < names.length ? names[i] : null);
+                    }
+                }
+            }
+            return columns;
+        }
+        String column = null;
+        Matcher tokens = TOKEN.matcher(sql);
+        while (tokens.find()) {
+            String token = tokens.group();
+            if (token.equals("?")) {
+                columns.add(column);
+            } else if (!token.startsWith("'") && !KEYWORDS.contains(token.toLowerCase(Locale.ROOT))) {
+                column = token;
+            }
+        }
+        return columns;
+    }
+
+    // Splits on commas outside parentheses and string literals
+    private static List<String> splitTopLevel(String text) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')') {
+                depth--;
+            } else if (!quoted && depth == 0 && c == ',') {
+                parts.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(text.substring(start));
+        return parts;
+    }
+
+    private static boolean isSensitive(String column) {
+        return SENSITIVE_COLUMN.matcher(column.toLowerCase(Locale.ROOT)).find();
+    }
+
+    private static String truncate(Object value) {
+        String text = String.valueOf(value);
+        return text.length() <= MAX_LOGGED_VALUE_LENGTH ? text : text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "...";
+    }
+}
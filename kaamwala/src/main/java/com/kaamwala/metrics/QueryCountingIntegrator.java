@@ -0,0 +1,37 @@
+package com.kaamwala.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Adds listeners counting entity loads and collection initializations (lazy or batch fetched)
+ * for {@link RequestQueryCounters}.
+ */
+public class QueryCountingIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_LOAD, event -> {
+            RequestQueryCounters counters = RequestQueryCounters.current();
+            if (counters != null) {
+                counters.entityLoads++;
+            }
+        });
+        listeners.appendListeners(EventType.INIT_COLLECTION, event -> {
+            RequestQueryCounters counters = RequestQueryCounters.current();
+            if (counters != null) {
+                counters.collectionFetches++;
+            }
+        });
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.kaamwala.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts what each request costs in the database (see {@link RequestQueryCounters}) and records it
+ * as jdbc.request.* and hibernate.request.* meters tagged like http.server.requests (method, uri
+ * pattern). An N+1 regression on an endpoint shows up as a jump in its statements histogram.
+ *
+ * With query.stats.header.enabled=true (test and local runs, not production) the counts are also
+ * sent as X-Query-Statements, X-Query-Rows and X-Query-Time-Ms response headers. Headers must go
+ * out before the body, so they cover the work done up to the first byte of the body; that is the
+ * whole request except for streaming endpoints.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Query-Statements";
+    public static final String ROWS_HEADER = "X-Query-Rows";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${query.stats.header.enabled:false}")
+    private boolean headerEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryCounters previous = RequestQueryCounters.start(request.getMethod() + " " + request.getRequestURI());
+        HttpServletResponse target = headerEnabled ? new StatsHeaderResponse(response) : response;
+        try {
+            chain.doFilter(request, target);
+            if (target instanceof StatsHeaderResponse statsHeaderResponse) {
+                statsHeaderResponse.writeHeaders();
+            }
+        } finally {
+            RequestQueryCounters counters = RequestQueryCounters.stop(previous);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? (response.getStatus() == 404 ? "NOT_FOUND" : "UNKNOWN") : pattern.toString();
+            String method = request.getMethod();
+            summary("jdbc.request.statements", method, uri).record(counters.getStatements());
+            summary("jdbc.request.rows", method, uri).record(counters.getRows());
+            Timer.builder("jdbc.request.time")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(counters.getJdbcNanos(), TimeUnit.NANOSECONDS);
+            summary("hibernate.request.entity.loads", method, uri).record(counters.getEntityLoads());
+            summary("hibernate.request.collection.fetches", method, uri).record(counters.getCollectionFetches());
+        }
+    }
+
+    private DistributionSummary summary(String name, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    // Adds the X-Query-* headers just before the response is committed
+    private static class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private boolean written;
+
+        private StatsHeaderResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void writeHeaders() {
+            RequestQueryCounters counters = RequestQueryCounters.current();
+            if (written || counters == null || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, Long.toString(counters.getStatements()));
+            setHeader(ROWS_HEADER, Long.toString(counters.getRows()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.1f", counters.getJdbcNanos() / 1_000_000.0));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
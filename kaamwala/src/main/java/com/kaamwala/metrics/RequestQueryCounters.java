@@ -0,0 +1,72 @@
+package com.kaamwala.metrics;
+
+/**
+ * What one request has cost in the database so far: JDBC statements, rows read and time spent in
+ * JDBC (from the datasource proxy), and entity loads and collection fetches (from Hibernate).
+ * {@link RequestMetricsFilter} starts a set of counters per request on the request thread; work on
+ * other threads (scheduled jobs, image threads) is not counted.
+ */
+public final class RequestQueryCounters {
+
+    private static final ThreadLocal<RequestQueryCounters> CURRENT = new ThreadLocal<>();
+
+    // "GET /api/workers/search", for the slow-query log
+    private final String endpoint;
+
+    long statements;
+    long rows;
+    long jdbcNanos;
+    long entityLoads;
+    long collectionFetches;
+
+    private RequestQueryCounters(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    // Counters of the request running on this thread, or null
+    static RequestQueryCounters current() {
+        return CURRENT.get();
+    }
+
+    // Starts counting on this thread, returning whatever was being counted before (nested dispatches)
+    static RequestQueryCounters start(String endpoint) {
+        RequestQueryCounters previous = CURRENT.get();
+        CURRENT.set(new RequestQueryCounters(endpoint));
+        return previous;
+    }
+
+    // Stops counting on this thread and returns the counts
+    static RequestQueryCounters stop(RequestQueryCounters previous) {
+        RequestQueryCounters counters = CURRENT.get();
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+        return counters;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getCollectionFetches() {
+        return collectionFetches;
+    }
+}
@@ -0,0 +1,56 @@
+package com.kaamwala.migration;
+
+import com.kaamwala.helper.Helper;
+import com.kaamwala.helper.TimeOrderedId;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Copies the free-text user.service_areas column into the service_areas table created by V3.
+ * Java because the keys come from Helper.canonicalArea. Runs once, right after V3, under Flyway's
+ * migration lock (Spring Boot hands JavaMigration beans to Flyway).
+ */
+@Component
+public class V3_1__BackfillServiceAreas extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (PreparedStatement users = connection.prepareStatement(
+                     "SELECT user_id, service_areas FROM user WHERE service_areas IS NOT NULL AND service_areas <> ''");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO service_areas (service_area_id, user_id, area_key, area_name) VALUES (?, ?, ?, ?)")) {
+            users.setFetchSize(BATCH_SIZE);
+            int pending = 0;
+            try (ResultSet rows = users.executeQuery()) {
+                while (rows.next()) {
+                    String userId = rows.getString(1);
+                    for (Map.Entry<String, String> area : Helper.parseServiceAreas(rows.getString(2)).entrySet()) {
+                        String name = area.getValue();
+                        insert.setString(1, TimeOrderedId.next());
+                        insert.setString(2, userId);
+                        insert.setString(3, area.getKey());
+                        insert.setString(4, name.length() > 100 ? name.substring(0, 100) : name);
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+}
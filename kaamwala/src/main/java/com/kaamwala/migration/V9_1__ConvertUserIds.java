@@ -0,0 +1,77 @@
+package com.kaamwala.migration;
+
+import com.kaamwala.model.UuidBinaryType;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Fills the BINARY(16) user id columns added by V9 from the UUID text ones, for the user row and
+ * every row referencing it. Java because MySQL's UNHEX has no H2 equivalent; the bytes come from
+ * UuidBinaryType, as they do for new rows. Every user id has been a UUID string, so an id that
+ * is not one stops the migration before V10 drops the text columns.
+ */
+@Component
+public class V9_1__ConvertUserIds extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final List<String> UPDATES = List.of(
+            "UPDATE user SET user_key = ? WHERE user_id = ?",
+            "UPDATE user_skills SET user_key = ? WHERE user_id = ?",
+            "UPDATE service_areas SET user_key = ? WHERE user_id = ?",
+            "UPDATE reviews SET worker_key = ? WHERE worker_id = ?",
+            "UPDATE reviews SET reviewer_key = ? WHERE reviewer_id = ?");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        PreparedStatement[] updates = new PreparedStatement[UPDATES.size()];
+        try (PreparedStatement users = connection.prepareStatement("SELECT user_id FROM user")) {
+            for (int i = 0; i < updates.length; i++) {
+                updates[i] = connection.prepareStatement(UPDATES.get(i));
+            }
+            users.setFetchSize(BATCH_SIZE);
+            int pending = 0;
+            try (ResultSet rows = users.executeQuery()) {
+                while (rows.next()) {
+                    String userId = rows.getString(1);
+                    byte[] key = UuidBinaryType.toBytes(userId);
+                    if (key.length != 16) {
+                        throw new IllegalStateException("User id is not a UUID: " + userId);
+                    }
+                    for (PreparedStatement update : updates) {
+                        update.setBytes(1, key);
+                        update.setString(2, userId);
+                        update.addBatch();
+                    }
+                    if (++pending == BATCH_SIZE) {
+                        executeBatches(updates);
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                executeBatches(updates);
+            }
+        } finally {
+            for (PreparedStatement update : updates) {
+                if (update != null) {
+                    update.close();
+                }
+            }
+        }
+    }
+
+    private static void executeBatches(PreparedStatement[] updates) throws SQLException {
+        for (PreparedStatement update : updates) {
+            update.executeBatch();
+        }
+    }
+}
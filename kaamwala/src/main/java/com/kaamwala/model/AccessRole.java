@@ -0,0 +1,44 @@
+package com.kaamwala.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Security roles of a user, stored as bits of user.role_mask (replaces the user_roles join table).
+ * Bits are persisted: never reorder or reuse them, only add new ones.
+ */
+public enum AccessRole {
+
+    ADMIN("ROLE_ADMIN", 1),
+    NORMAL("ROLE_NORMAL", 1 << 1);
+
+    private final String roleName;
+    private final int mask;
+
+    AccessRole(String roleName, int mask) {
+        this.roleName = roleName;
+        this.mask = mask;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean isIn(int roleMask) {
+        return (roleMask & mask) != 0;
+    }
+
+    public static Set<AccessRole> fromMask(int roleMask) {
+        Set<AccessRole> roles = EnumSet.noneOf(AccessRole.class);
+        for (AccessRole role : values()) {
+            if (role.isIn(roleMask)) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
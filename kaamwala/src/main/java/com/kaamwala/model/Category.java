@@ -2,6 +2,8 @@ package com.kaamwala.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -14,6 +16,9 @@ import java.util.Set;
 @Builder
 @Entity
 @Table(name = "categories")
+// Reference data, changed a few times a year; a write evicts the cached entry
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "category")
 public class Category {
     
     @Id
@@ -41,6 +46,7 @@ public class Category {
     
     // One-to-Many relationship with SubCategory
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "category-subcategories")
     @Builder.Default
     private Set<SubCategory> subCategories = new HashSet<>();
     
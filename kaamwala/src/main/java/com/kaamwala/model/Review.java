@@ -0,0 +1,47 @@
+package com.kaamwala.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_review_worker_created", columnList = "worker_id, created_at")
+})
+public class Review {
+
+    @Id
+    @Column(name = "review_id")
+    private String reviewId;
+
+    // Worker being reviewed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "worker_id", nullable = false)
+    private User worker;
+
+    // Customer who wrote the review (cleared if that user is deleted)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reviewer_id")
+    private User reviewer;
+
+    // 1 to 5 stars
+    @Column(name = "rating", nullable = false)
+    private Integer rating;
+
+    @Column(name = "review_comment", length = 1000)
+    private String comment;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
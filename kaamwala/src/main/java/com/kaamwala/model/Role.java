@@ -1,8 +1,12 @@
 package com.kaamwala.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 @Getter
 @Setter
@@ -10,6 +14,10 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
+// Seeded at startup and never updated: served from the second-level cache
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 public class Role {
     @Id
     private String roleId;
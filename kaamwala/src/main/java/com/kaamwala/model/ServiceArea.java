@@ -0,0 +1,36 @@
+package com.kaamwala.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One row per (worker, service area). Normalized form of User.serviceAreas so that
+ * location filters are equality / prefix lookups on an indexed key instead of LIKE '%..%'.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "service_areas",
+        indexes = @Index(name = "idx_service_area_key_user", columnList = "area_key, user_id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_service_area_user_key", columnNames = {"user_id", "area_key"}))
+public class ServiceArea {
+
+    @Id
+    @Column(name = "service_area_id")
+    private String serviceAreaId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Canonical key, see Helper.canonicalArea ("New Delhi" -> "new delhi")
+    @Column(name = "area_key", length = 100, nullable = false)
+    private String areaKey;
+
+    // Area as the worker typed it
+    @Column(name = "area_name", length = 100)
+    private String areaName;
+}
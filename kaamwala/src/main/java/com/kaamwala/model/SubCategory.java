@@ -2,6 +2,8 @@ package com.kaamwala.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -12,6 +14,9 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "sub_categories")
+// Reference data, changed a few times a year; a write evicts the cached entry
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "subcategory")
 public class SubCategory {
     
     @Id
@@ -2,6 +2,7 @@ package com.kaamwala.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -13,10 +14,22 @@ import java.util.Set;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "user")
+// Everything UserDto shows for one user, loaded in a single query (see UserRepository.findProfileByUserId)
+@NamedEntityGraph(name = "User.profile",
+        attributeNodes = @NamedAttributeNode(value = "userSkills", subgraph = "skill"),
+        subgraphs = {
+                @NamedSubgraph(name = "skill", attributeNodes = @NamedAttributeNode(value = "subCategory", subgraph = "subCategory")),
+                @NamedSubgraph(name = "subCategory", attributeNodes = @NamedAttributeNode("category"))
+        })
+@Table(name = "user", indexes = {
+        @Index(name = "idx_user_location", columnList = "latitude, longitude"),
+        @Index(name = "idx_user_role_rating", columnList = "user_role, average_rating DESC, user_id"),
+        @Index(name = "idx_user_image_name", columnList = "user_image_name")
+})
 public class User {
     @Id
-    @Column(name = "user_id")
+    @Type(UuidBinaryType.class)
+    @Column(name = "user_id", columnDefinition = "binary(16)")
     private String userId;
 
     @Column(name = "user_name")
@@ -50,12 +63,41 @@ public class User {
     private Double hourlyRate;
 
     // One-to-Many relationship with UserSkill
+    // List pages load the skills of all their users in one batched query (hibernate.default_batch_fetch_size)
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Builder.Default
     private Set<UserSkill> userSkills = new HashSet<>();
 
     @Column(name = "service_areas", length = 500)
     private String serviceAreas;
 
+    // Normalized, indexed copy of serviceAreas (see Helper.syncServiceAreas)
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Builder.Default
+    private Set<ServiceArea> serviceAreaEntries = new HashSet<>();
+
+    // Worker base location and how far they travel for jobs
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "service_radius_km")
+    private Double serviceRadiusKm;
+
+    // Rating totals. Written only by RatingAggregator's batched flush, never by entity saves
+    @Column(name = "rating_count", updatable = false)
+    @Builder.Default
+    private Long ratingCount = 0L;
+
+    @Column(name = "rating_sum", updatable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "average_rating", updatable = false)
+    private Double averageRating;
+
     // Customer-specific fields
     @Column(name = "preferred_location", length = 200)
     private String preferredLocation;
@@ -63,6 +105,30 @@ public class User {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
-    private Set<Role> roles = new HashSet<>();
+    // Bumped on every change to the profile (also by RatingAggregator); drives the profile ETag
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // AccessRole bits, read with the row itself: role checks cost no query
+    @Column(name = "role_mask", nullable = false)
+    @Builder.Default
+    private int roleMask = AccessRole.NORMAL.getMask();
+
+    public boolean hasRole(AccessRole role) {
+        return role.isIn(roleMask);
+    }
+
+    public void grant(AccessRole role) {
+        roleMask |= role.getMask();
+    }
+
+    public void revoke(AccessRole role) {
+        roleMask &= ~role.getMask();
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
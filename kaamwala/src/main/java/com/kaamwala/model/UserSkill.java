@@ -1,5 +1,6 @@
 package com.kaamwala.model;
 
+import com.kaamwala.search.UserSkillIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "user_skills")
+@EntityListeners(UserSkillIndexListener.class)
 public class UserSkill {
     
     @Id
@@ -0,0 +1,122 @@
+package com.kaamwala.rating;
+
+import com.kaamwala.model.UuidBinaryType;
+import com.kaamwala.search.TopRatedIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the rating totals on the user row out of the review request: a review marks its worker,
+ * and every {@code rating.flush.interval-ms} one batched UPDATE recomputes the marked workers'
+ * rating_count, rating_sum and average_rating from their reviews, so a burst of reviews for a
+ * popular worker does not turn into a burst of row locks on their user row.
+ *
+ * Totals are recomputed rather than incremented, so a flush never double-counts and any instance
+ * may correct any worker. Marks still pending when a process dies are lost, and reconcile() on the
+ * next start re-marks every worker whose totals do not match their reviews. The review rows
+ * themselves are always written straight away.
+ */
+@Component
+public class RatingAggregator {
+
+    private static final String FLUSH_SQL = "UPDATE user u SET "
+            + "rating_count = (SELECT COUNT(*) FROM reviews r WHERE r.worker_id = u.user_id), "
+            + "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.worker_id = u.user_id), "
+            + "average_rating = (SELECT AVG(r.rating * 1.0) FROM reviews r WHERE r.worker_id = u.user_id), "
+            + "updated_at = ? "
+            + "WHERE u.user_id = ?";
+
+    // Workers whose totals disagree with their reviews; the totals columns come from idx_user_role_rating_totals
+    static final String DRIFTED_SQL = "SELECT u.user_id FROM user u "
+            + "LEFT JOIN (SELECT worker_id, COUNT(*) AS review_count, SUM(rating) AS review_sum "
+            + "FROM reviews GROUP BY worker_id) r ON r.worker_id = u.user_id "
+            + "WHERE u.user_role = 'worker' "
+            + "AND (COALESCE(u.rating_count, 0) <> COALESCE(r.review_count, 0) "
+            + "OR COALESCE(u.rating_sum, 0) <> COALESCE(r.review_sum, 0))";
+
+    private final Logger logger = LoggerFactory.getLogger(RatingAggregator.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TopRatedIndex topRatedIndex;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public void record(String workerId, int rating) {
+        pending.add(workerId);
+        topRatedIndex.addRating(workerId, rating);
+    }
+
+    // Before TopRatedIndex.rebuild (unordered, so last) reads the totals
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void reconcile() {
+        List<byte[]> drifted = jdbcTemplate.queryForList(DRIFTED_SQL, byte[].class);
+        if (drifted.isEmpty()) {
+            return;
+        }
+        logger.warn("Rating totals of {} workers do not match their reviews, recomputing", drifted.size());
+        drifted.forEach(userId -> pending.add(UuidBinaryType.toId(userId)));
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${rating.flush.interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            // A worker marked again while this flush runs stays marked for the next one
+            List<String> workerIds = new ArrayList<>();
+            for (String workerId : pending) {
+                if (pending.remove(workerId)) {
+                    workerIds.add(workerId);
+                }
+            }
+            if (workerIds.isEmpty()) {
+                return;
+            }
+            // Same row order on every instance, so concurrent flushes cannot deadlock
+            Collections.sort(workerIds);
+            // The rating is part of the profile, so its ETag has to change too
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batch = new ArrayList<>(workerIds.size());
+            for (String workerId : workerIds) {
+                batch.add(new Object[]{now, UuidBinaryType.toBytes(workerId)});
+            }
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException ex) {
+                // Mark them again so the next flush retries them
+                pending.addAll(workerIds);
+                logger.warn("Rating flush failed for {} workers, will retry", workerIds.size(), ex);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -1,22 +1,37 @@
 package com.kaamwala.repository;
 
 import com.kaamwala.model.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+// Reference-data lookups are cacheable: results are kept in the query cache until a write to
+// the table invalidates them, and the entities come from the second-level cache
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, String> {
     
     // Find category by name (case insensitive)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByCategoryNameIgnoreCase(String categoryName);
     
     // Find all active categories
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveTrue();
+
+    // Ids of all categories, active or not (category tree cache)
+    @Query("SELECT c.categoryId FROM Category c")
+    List<String> findAllCategoryIds();
+
+    // [row count, last updatedAt]: changes with every insert, update or delete (catalog change check)
+    @Query("SELECT COUNT(c), MAX(c.updatedAt) FROM Category c")
+    List<Object[]> findChangeStamp();
     
     // Find categories containing keyword in name or description
     @Query("SELECT c FROM Category c WHERE " +
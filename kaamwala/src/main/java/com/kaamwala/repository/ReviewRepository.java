@@ -0,0 +1,29 @@
+package com.kaamwala.repository;
+
+import com.kaamwala.model.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, String> {
+
+    // Reviews of a worker (newest first via pageable sort)
+    Page<Review> findByWorkerUserId(String workerId, Pageable pageable);
+
+    // Used when a user is deleted
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.worker.userId = :userId")
+    void deleteByWorkerId(@Param("userId") String userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Review r SET r.reviewer = null WHERE r.reviewer.userId = :userId")
+    void clearReviewer(@Param("userId") String userId);
+}
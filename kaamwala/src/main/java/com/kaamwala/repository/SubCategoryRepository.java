@@ -1,26 +1,42 @@
 package com.kaamwala.repository;
 
 import com.kaamwala.model.SubCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
+// Reference-data lookups are cacheable: results are kept in the query cache until a write to
+// the table invalidates them, and the entities come from the second-level cache
 @Repository
 public interface SubCategoryRepository extends JpaRepository<SubCategory, String> {
     
     // Find subcategories by category ID
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SubCategory> findByCategoryCategoryIdAndIsActiveTrue(String categoryId);
     
     // Find subcategory by name and category
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SubCategory> findBySubCategoryNameIgnoreCaseAndCategoryCategoryId(
         String subCategoryName, String categoryId);
     
     // Find all active subcategories
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<SubCategory> findByIsActiveTrue();
+
+    // Active subcategories with their category in one query (category tree cache)
+    @Query("SELECT sc FROM SubCategory sc JOIN FETCH sc.category WHERE sc.isActive = true ORDER BY sc.subCategoryName")
+    List<SubCategory> findActiveWithCategory();
+
+    // [row count, last updatedAt]: changes with every insert, update or delete (catalog change check)
+    @Query("SELECT COUNT(sc), MAX(sc.updatedAt) FROM SubCategory sc")
+    List<Object[]> findChangeStamp();
     
     // Find subcategories by keyword
     @Query("SELECT sc FROM SubCategory sc WHERE " +
@@ -1,17 +1,44 @@
 package com.kaamwala.repository;
+import com.kaamwala.helper.Helper;
 import com.kaamwala.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
 
     Optional<User> findByEmail(String email);
 
+    // Single-user reads: user, skills, subcategories and categories in one query
+    @EntityGraph("User.profile")
+    Optional<User> findProfileByUserId(String userId);
+
+    @EntityGraph("User.profile")
+    Optional<User> findProfileByEmail(String email);
+
+    // Users sharing a (content-addressed) image file
+    long countByImageName(String imageName);
+
+    // Image serving needs only the file name
+    @Query("SELECT u.imageName FROM User u WHERE u.userId = :userId")
+    Optional<String> findImageNameByUserId(@Param("userId") String userId);
+
+    // What the profile ETag is built from: user updatedAt, newest skill updatedAt, skill count
+    @Query("SELECT u.updatedAt, MAX(s.updatedAt), COUNT(s) FROM User u LEFT JOIN u.userSkills s " +
+           "WHERE u.userId = :userId GROUP BY u.userId, u.updatedAt")
+    List<Object[]> findProfileVersion(@Param("userId") String userId);
+
     List<User> findByNameContaining(String keyword);
 
     //NEW METHODS FOR WORKER SEARCH:
@@ -34,10 +61,10 @@ public interface UserRepository extends JpaRepository<User, String> {
            "WHERE u.role = 'worker' AND LOWER(sc.subCategoryName) = LOWER(:skillName)")
     List<User> findWorkersBySkill(@Param("skillName") String skillName, Pageable pageable);
 
-    // Find workers by service area/location
+    // Find workers by service area (areaKey = Helper.canonicalArea(location)), equality on the service_areas index
     @Query("SELECT u FROM User u WHERE u.role = 'worker' AND " +
-           "LOWER(u.serviceAreas) LIKE LOWER(CONCAT('%', :location, '%'))")
-    List<User> findWorkersByServiceArea(@Param("location") String location, Pageable pageable);
+           "EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey = :areaKey)")
+    List<User> findWorkersByServiceArea(@Param("areaKey") String areaKey, Pageable pageable);
 
     // Advanced search with multiple filters
     @Query("SELECT DISTINCT u FROM User u " +
@@ -47,25 +74,140 @@ public interface UserRepository extends JpaRepository<User, String> {
            "WHERE u.role = 'worker' " +
            "AND (:category IS NULL OR LOWER(c.categoryName) = LOWER(:category)) " +
            "AND (:skill IS NULL OR LOWER(sc.subCategoryName) = LOWER(:skill)) " +
-           "AND (:location IS NULL OR LOWER(u.serviceAreas) LIKE LOWER(CONCAT('%', :location, '%'))) " +
+           "AND (:areaKey IS NULL OR EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey = :areaKey)) " +
            "AND (:minRate IS NULL OR u.hourlyRate >= :minRate) " +
            "AND (:maxRate IS NULL OR u.hourlyRate <= :maxRate) " +
            "AND (:minExperience IS NULL OR u.experience >= :minExperience)")
     List<User> findWorkersWithFilters(
         @Param("category") String category,
         @Param("skill") String skill,
-        @Param("location") String location,
+        @Param("areaKey") String areaKey,
         @Param("minRate") Double minRate,
         @Param("maxRate") Double maxRate,
         @Param("minExperience") Integer minExperience,
         Pageable pageable
     );
 
+    // Number of workers findWorkersWithFilters matches over all pages
+    @Query("SELECT COUNT(DISTINCT u) FROM User u " +
+           "LEFT JOIN u.userSkills us " +
+           "LEFT JOIN us.subCategory sc " +
+           "LEFT JOIN sc.category c " +
+           "WHERE u.role = 'worker' " +
+           "AND (:category IS NULL OR LOWER(c.categoryName) = LOWER(:category)) " +
+           "AND (:skill IS NULL OR LOWER(sc.subCategoryName) = LOWER(:skill)) " +
+           "AND (:areaKey IS NULL OR EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey = :areaKey)) " +
+           "AND (:minRate IS NULL OR u.hourlyRate >= :minRate) " +
+           "AND (:maxRate IS NULL OR u.hourlyRate <= :maxRate) " +
+           "AND (:minExperience IS NULL OR u.experience >= :minExperience)")
+    long countWorkersWithFilters(
+        @Param("category") String category,
+        @Param("skill") String skill,
+        @Param("areaKey") String areaKey,
+        @Param("minRate") Double minRate,
+        @Param("maxRate") Double maxRate,
+        @Param("minExperience") Integer minExperience
+    );
+
+    // Facet counting: [userId, hourlyRate, experience, categoryName, subCategoryName] for every skill of
+    // every matching worker (one row with null names for a worker without skills), in userId order.
+    // Filters are EXISTS subqueries so a worker's other categories and skills are still returned.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.userId, u.hourlyRate, u.experience, c.categoryName, sc.subCategoryName FROM User u " +
+           "LEFT JOIN u.userSkills us " +
+           "LEFT JOIN us.subCategory sc " +
+           "LEFT JOIN sc.category c " +
+           "WHERE u.role = 'worker' " +
+           "AND (:category IS NULL OR EXISTS (SELECT fs FROM UserSkill fs WHERE fs.user = u " +
+           "     AND LOWER(fs.subCategory.category.categoryName) = LOWER(:category))) " +
+           "AND (:skill IS NULL OR EXISTS (SELECT fs FROM UserSkill fs WHERE fs.user = u " +
+           "     AND LOWER(fs.subCategory.subCategoryName) = LOWER(:skill))) " +
+           "AND (:areaKey IS NULL OR EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey = :areaKey)) " +
+           "AND (:minRate IS NULL OR u.hourlyRate >= :minRate) " +
+           "AND (:maxRate IS NULL OR u.hourlyRate <= :maxRate) " +
+           "AND (:minExperience IS NULL OR u.experience >= :minExperience) " +
+           "ORDER BY u.userId")
+    Stream<Object[]> streamWorkerFacetRows(
+        @Param("category") String category,
+        @Param("skill") String skill,
+        @Param("areaKey") String areaKey,
+        @Param("minRate") Double minRate,
+        @Param("maxRate") Double maxRate,
+        @Param("minExperience") Integer minExperience
+    );
+
+    // Same filters as findWorkersWithFilters, every match in userId order, read through a forward-only
+    // cursor 500 rows at a time (export). Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u WHERE u.role = 'worker' " +
+           "AND (:category IS NULL OR EXISTS (SELECT us FROM UserSkill us WHERE us.user = u " +
+           "     AND LOWER(us.subCategory.category.categoryName) = LOWER(:category))) " +
+           "AND (:skill IS NULL OR EXISTS (SELECT us FROM UserSkill us WHERE us.user = u " +
+           "     AND LOWER(us.subCategory.subCategoryName) = LOWER(:skill))) " +
+           "AND (:areaKey IS NULL OR EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey = :areaKey)) " +
+           "AND (:minRate IS NULL OR u.hourlyRate >= :minRate) " +
+           "AND (:maxRate IS NULL OR u.hourlyRate <= :maxRate) " +
+           "AND (:minExperience IS NULL OR u.experience >= :minExperience) " +
+           "ORDER BY u.userId")
+    Stream<User> streamWorkersWithFilters(
+        @Param("category") String category,
+        @Param("skill") String skill,
+        @Param("areaKey") String areaKey,
+        @Param("minRate") Double minRate,
+        @Param("maxRate") Double maxRate,
+        @Param("minExperience") Integer minExperience
+    );
+
+    // Workers with their skills, subcategories and categories in one query (search index loading)
+    @Query("SELECT DISTINCT u FROM User u " +
+           "LEFT JOIN FETCH u.userSkills us " +
+           "LEFT JOIN FETCH us.subCategory sc " +
+           "LEFT JOIN FETCH sc.category " +
+           "WHERE u.role = 'worker'")
+    List<User> findAllWorkersForIndex();
+
+    // [worker count, last updatedAt]: changes with every worker insert, update, delete or role change
+    @Query("SELECT COUNT(u), MAX(u.updatedAt) FROM User u WHERE u.role = 'worker'")
+    List<Object[]> findWorkerChangeStamp();
+
+    @Query("SELECT u FROM User u " +
+           "LEFT JOIN FETCH u.userSkills us " +
+           "LEFT JOIN FETCH us.subCategory sc " +
+           "LEFT JOIN FETCH sc.category " +
+           "WHERE u.userId = :userId")
+    Optional<User> findUserForIndex(@Param("userId") String userId);
+
+    // findAllWorkersForIndex limited to the given users (workers added in bulk)
+    @Query("SELECT DISTINCT u FROM User u " +
+           "LEFT JOIN FETCH u.userSkills us " +
+           "LEFT JOIN FETCH us.subCategory sc " +
+           "LEFT JOIN FETCH sc.category " +
+           "WHERE u.role = 'worker' AND u.userId IN :userIds")
+    List<User> findWorkersForIndex(@Param("userIds") Collection<String> userIds);
+
+    boolean existsByUserIdAndRole(String userId, String role);
+
+    // [userId, ratingSum, ratingCount] of every rated worker (top-rated index loading)
+    @Query("SELECT u.userId, u.ratingSum, u.ratingCount FROM User u WHERE u.role = 'worker' AND u.ratingCount > 0")
+    List<Object[]> findWorkerRatingTotals();
+
     // Legacy methods (keeping for backward compatibility)
+    // Loads every match at once; full exports use streamWorkersWithFilters
     List<User> findByRole(String role);
     
-    @Query("SELECT u FROM User u WHERE u.role = 'worker' AND u.serviceAreas LIKE %:location%")
-    List<User> findWorkersByLocation(@Param("location") String location);
+    // Prefix match on the canonical area key ("new del" -> "new delhi"), still an index range scan.
+    // Wildcards in the prefix are escaped, so "%" or "_" only match themselves
+    default List<User> findWorkersByLocation(String areaKeyPrefix) {
+        return findWorkersByAreaKeyLike(Helper.escapeLike(areaKeyPrefix) + "%");
+    }
+
+    // '!' rather than a backslash, which MySQL also reads as an escape inside string literals
+    @Query("SELECT u FROM User u WHERE u.role = 'worker' AND " +
+           "EXISTS (SELECT sa FROM ServiceArea sa WHERE sa.user = u AND sa.areaKey LIKE :areaKeyPattern ESCAPE '!')")
+    List<User> findWorkersByAreaKeyLike(@Param("areaKeyPattern") String areaKeyPattern);
 
     @Query("SELECT u FROM User u WHERE u.role = 'worker' AND u.hourlyRate <= :maxRate")
     List<User> findWorkersByMaxRate(@Param("maxRate") Double maxRate);
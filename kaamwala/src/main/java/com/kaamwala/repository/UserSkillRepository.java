@@ -31,6 +31,22 @@ public interface UserSkillRepository extends JpaRepository<UserSkill, String> {
     // Check if user already has this skill
     boolean existsByUserUserIdAndSubCategorySubCategoryId(String userId, String subCategoryId);
     
+    // [row count, last updatedAt]: skill writes do not touch the user row (worker index change check)
+    @Query("SELECT COUNT(us), MAX(us.updatedAt) FROM UserSkill us")
+    List<Object[]> findChangeStamp();
+
+    // [userId, subCategoryName, categoryName] for every skill of every rated worker
+    @Query("SELECT u.userId, sc.subCategoryName, c.categoryName FROM UserSkill us " +
+           "JOIN us.user u JOIN us.subCategory sc JOIN sc.category c " +
+           "WHERE u.role = 'worker' AND u.ratingCount > 0")
+    List<Object[]> findSkillNamesOfRatedWorkers();
+
+    // [userId, subCategoryName, categoryName] for one user
+    @Query("SELECT us.user.userId, sc.subCategoryName, c.categoryName FROM UserSkill us " +
+           "JOIN us.subCategory sc JOIN sc.category c " +
+           "WHERE us.user.userId = :userId")
+    List<Object[]> findSkillNamesByUserId(@Param("userId") String userId);
+
     // Delete user skill
     void deleteByUserUserIdAndSubCategorySubCategoryId(String userId, String subCategoryId);
 }
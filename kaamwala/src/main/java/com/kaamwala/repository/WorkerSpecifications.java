@@ -0,0 +1,142 @@
+package com.kaamwala.repository;
+
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.ServiceArea;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+/**
+ * Specification versions of the worker filters in UserRepository.findWorkersWithFilters.
+ * Skill and category filters use EXISTS subqueries instead of JOIN + DISTINCT so they can be
+ * combined with keyset (seek) pagination.
+ */
+public final class WorkerSpecifications {
+
+    private WorkerSpecifications() {
+    }
+
+    public static Specification<User> matching(WorkerSearchCriteria criteria) {
+        Specification<User> spec = isWorker();
+        if (criteria.getCategory() != null) {
+            spec = spec.and(inCategory(criteria.getCategory()));
+        }
+        if (criteria.getSkill() != null) {
+            spec = spec.and(hasSkill(criteria.getSkill()));
+        }
+        if (criteria.getLocation() != null) {
+            spec = spec.and(servesArea(criteria.getLocation()));
+        }
+        if (criteria.getMinRate() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("hourlyRate"), criteria.getMinRate()));
+        }
+        if (criteria.getMaxRate() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("hourlyRate"), criteria.getMaxRate()));
+        }
+        if (criteria.getMinExperience() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("experience"), criteria.getMinExperience()));
+        }
+        return spec;
+    }
+
+    public static Specification<User> isWorker() {
+        return (root, query, cb) -> cb.equal(root.get("role"), "worker");
+    }
+
+    // Workers with at least one review (average_rating is null until then)
+    public static Specification<User> isRated() {
+        return (root, query, cb) -> cb.isNotNull(root.get("averageRating"));
+    }
+
+    /**
+     * Keyset page order and position: workers without a value for the sort property come last in
+     * either direction, ties are broken by ascending userId. {@code after} holds the sort value (null
+     * for a worker without one) and userId of the last row returned; empty for the first page.
+     * Comparing with a null key would be UNKNOWN and end the listing, so null rows get their own branch.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<User> seek(Sort.Order order, Map<String, ?> after) {
+        String property = order.getProperty();
+        return (root, query, cb) -> {
+            Expression<Comparable> value = root.get(property);
+            Expression<String> userId = root.get("userId");
+            query.orderBy(cb.asc(cb.selectCase().when(cb.isNull(value), 1).otherwise(0)),
+                    order.isDescending() ? cb.desc(value) : cb.asc(value),
+                    cb.asc(userId));
+            if (after.isEmpty()) {
+                return null;
+            }
+            Comparable lastValue = (Comparable) after.get(property);
+            String lastUserId = (String) after.get("userId");
+            if (lastValue == null) {
+                return cb.and(cb.isNull(value), cb.greaterThan(userId, lastUserId));
+            }
+            return cb.or(
+                    order.isDescending() ? cb.lessThan(value, lastValue) : cb.greaterThan(value, lastValue),
+                    cb.and(cb.equal(value, lastValue), cb.greaterThan(userId, lastUserId)),
+                    cb.isNull(value));
+        };
+    }
+
+    public static Specification<User> inCategory(String categoryName) {
+        return (root, query, cb) -> {
+            Subquery<String> skills = query.subquery(String.class);
+            var userSkill = skills.from(UserSkill.class);
+            skills.select(userSkill.get("userSkillId"))
+                    .where(cb.equal(userSkill.get("user"), root),
+                            cb.equal(cb.lower(userSkill.get("subCategory").get("category").get("categoryName")),
+                                    categoryName.toLowerCase()));
+            return cb.exists(skills);
+        };
+    }
+
+    public static Specification<User> hasSkill(String skillName) {
+        return (root, query, cb) -> {
+            Subquery<String> skills = query.subquery(String.class);
+            var userSkill = skills.from(UserSkill.class);
+            skills.select(userSkill.get("userSkillId"))
+                    .where(cb.equal(userSkill.get("user"), root),
+                            cb.equal(cb.lower(userSkill.get("subCategory").get("subCategoryName")),
+                                    skillName.toLowerCase()));
+            return cb.exists(skills);
+        };
+    }
+
+    // Longitudes past +/-180 wrap around the antimeridian; a box 360 degrees wide drops the longitude filter
+    public static Specification<User> withinBoundingBox(double minLat, double maxLat, double minLng, double maxLng) {
+        return (root, query, cb) -> {
+            Predicate latitude = cb.between(root.get("latitude"), minLat, maxLat);
+            if (maxLng - minLng >= 360) {
+                return latitude;
+            }
+            Predicate longitude;
+            if (minLng < -180) {
+                longitude = cb.or(cb.ge(root.get("longitude"), minLng + 360), cb.le(root.get("longitude"), maxLng));
+            } else if (maxLng > 180) {
+                longitude = cb.or(cb.ge(root.get("longitude"), minLng), cb.le(root.get("longitude"), maxLng - 360));
+            } else {
+                longitude = cb.between(root.get("longitude"), minLng, maxLng);
+            }
+            return cb.and(latitude, longitude);
+        };
+    }
+
+    public static Specification<User> servesArea(String location) {
+        String areaKey = Helper.canonicalArea(location);
+        return (root, query, cb) -> {
+            Subquery<String> areas = query.subquery(String.class);
+            var serviceArea = areas.from(ServiceArea.class);
+            areas.select(serviceArea.get("serviceAreaId"))
+                    .where(cb.equal(serviceArea.get("user"), root),
+                            cb.equal(serviceArea.get("areaKey"), areaKey));
+            return cb.exists(areas);
+        };
+    }
+}
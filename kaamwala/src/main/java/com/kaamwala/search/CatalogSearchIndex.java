@@ -0,0 +1,295 @@
+package com.kaamwala.search;
+
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.repository.CategoryRepository;
+import com.kaamwala.repository.SubCategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Ranked, typo-tolerant keyword search over the active categories and subcategories.
+ *
+ * Words are lowercased, accent-stripped and reduced to a crude stem ("plumber", "plumbing" ->
+ * "plumb"). Candidates come from a trigram index over the stems; each query word then scores
+ * against the best word of each field: exact stem 1.0, prefix (type-ahead) up to 0.8, stem or
+ * word within one or two edits 0.6 or 0.4. Names count more than descriptions, and a name that starts with
+ * the whole query gets a boost. So "plmber" finds Plumbing and "elec" ranks Electrical first.
+ *
+ * The catalog is small and changes rarely: every write through CategoryServiceImp rebuilds
+ * the whole index and swaps it in, so searches never lock.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final double NAME_WEIGHT = 2.0;
+    private static final double PARENT_WEIGHT = 1.0;
+    private static final double DESCRIPTION_WEIGHT = 0.5;
+    private static final double NAME_PREFIX_BOOST = 1.0;
+
+    private static final String[] SUFFIXES = {"ians", "ian", "ings", "ing", "ers", "er", "ry", "al", "es", "s"};
+
+    private final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    private volatile Snapshot categories = Snapshot.EMPTY;
+
+    private volatile Snapshot subCategories = Snapshot.EMPTY;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Document> categoryDocs = new ArrayList<>();
+        for (Category category : categoryRepository.findByIsActiveTrue()) {
+            categoryDocs.add(new Document(category.getCategoryId(), category.getCategoryName(),
+                    null, category.getDescription()));
+        }
+        List<Document> subCategoryDocs = new ArrayList<>();
+        for (SubCategory subCategory : subCategoryRepository.findByIsActiveTrue()) {
+            subCategoryDocs.add(new Document(subCategory.getSubCategoryId(), subCategory.getSubCategoryName(),
+                    subCategory.getCategory().getCategoryName(), subCategory.getDescription()));
+        }
+        categories = new Snapshot(categoryDocs);
+        subCategories = new Snapshot(subCategoryDocs);
+        logger.info("Catalog search index built with {} categories and {} subcategories",
+                categoryDocs.size(), subCategoryDocs.size());
+    }
+
+    // Ids of matching active categories, best match first
+    public List<String> searchCategories(String keyword) {
+        return categories.search(keyword);
+    }
+
+    // Ids of matching active subcategories, best match first (the parent category name also matches)
+    public List<String> searchSubCategories(String keyword) {
+        return subCategories.search(keyword);
+    }
+
+    // ============= TEXT HANDLING =============
+
+    private static List<String> words(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String ascii = Normalizer.normalize(text, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        List<String> words = new ArrayList<>();
+        for (String word : ascii.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static String stem(String word) {
+        for (String suffix : SUFFIXES) {
+            if (word.length() - suffix.length() >= 4 && word.endsWith(suffix)) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        return word;
+    }
+
+    // "plumb" -> $pl, plu, lum, umb, mb$ (plus "$p" so one-letter queries still find something)
+    private static Set<String> grams(String stem) {
+        Set<String> grams = new HashSet<>();
+        String padded = "$" + stem + "$";
+        grams.add(padded.substring(0, 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // How well one query word matches one document word, 0 = no match
+    private static double wordScore(Term query, Term word) {
+        if (query.stem.equals(word.stem)) {
+            return 1.0;
+        }
+        // Type-ahead: compare against the full word so "plumbin" still finds "plumbing"
+        if (word.word.startsWith(query.word)) {
+            return 0.5 + 0.3 * query.word.length() / word.word.length();
+        }
+        int maxEdits = query.stem.length() >= 8 ? 2 : query.stem.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0) {
+            return 0;
+        }
+        // Stems, and whole words for typos in a suffix that keep the query from stemming ("cleanign")
+        int distance = Math.min(boundedDistance(query.stem, word.stem, maxEdits),
+                boundedDistance(query.word, word.word, maxEdits));
+        if (distance > maxEdits) {
+            return 0;
+        }
+        return distance == 1 ? 0.6 : 0.4;
+    }
+
+    private static int boundedDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        return editDistance(a, b, maxEdits);
+    }
+
+    // Optimal string alignment distance (adjacent swaps count as one edit); maxEdits + 1 once exceeded
+    private static int editDistance(String a, String b, int maxEdits) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static List<Term> terms(String text) {
+        return words(text).stream().distinct().map(Term::new).toList();
+    }
+
+    // ============= INDEX =============
+
+    // A normalized word and its stem
+    private static class Term {
+        private final String word;
+        private final String stem;
+
+        private Term(String word) {
+            this.word = word;
+            this.stem = stem(word);
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = CatalogSearchIndex.grams(word);
+            grams.addAll(CatalogSearchIndex.grams(stem));
+            return grams;
+        }
+    }
+
+    private static class Document {
+        private final String id;
+        private final String name;
+        private final String normalizedName;
+        private final List<Term> nameTerms;
+        private final List<Term> parentTerms;
+        private final List<Term> descriptionTerms;
+
+        private Document(String id, String name, String parentName, String description) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = String.join(" ", words(name));
+            this.nameTerms = terms(name);
+            this.parentTerms = terms(parentName);
+            this.descriptionTerms = terms(description);
+        }
+    }
+
+    private static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyList());
+
+        private final List<Document> documents;
+        private final Map<String, int[]> postings;
+
+        private Snapshot(List<Document> documents) {
+            this.documents = List.copyOf(documents);
+            Map<String, Set<Integer>> building = new HashMap<>();
+            for (int doc = 0; doc < this.documents.size(); doc++) {
+                Document document = this.documents.get(doc);
+                for (List<Term> field : List.of(document.nameTerms, document.parentTerms, document.descriptionTerms)) {
+                    for (Term term : field) {
+                        for (String gram : term.grams()) {
+                            building.computeIfAbsent(gram, g -> new TreeSet<>()).add(doc);
+                        }
+                    }
+                }
+            }
+            Map<String, int[]> postings = new HashMap<>();
+            building.forEach((gram, docs) -> postings.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+            this.postings = postings;
+        }
+
+        private List<String> search(String keyword) {
+            List<Term> queryTerms = terms(keyword);
+            if (queryTerms.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            BitSet candidates = new BitSet(documents.size());
+            for (Term term : queryTerms) {
+                for (String gram : term.grams()) {
+                    for (int doc : postings.getOrDefault(gram, new int[0])) {
+                        candidates.set(doc);
+                    }
+                }
+            }
+
+            String normalizedQuery = String.join(" ", words(keyword));
+            List<Map.Entry<Document, Double>> hits = new ArrayList<>();
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                Document document = documents.get(doc);
+                double score = 0;
+                int matchedWords = 0;
+                for (Term term : queryTerms) {
+                    double best = Math.max(NAME_WEIGHT * best(term, document.nameTerms),
+                            Math.max(PARENT_WEIGHT * best(term, document.parentTerms),
+                                    DESCRIPTION_WEIGHT * best(term, document.descriptionTerms)));
+                    if (best > 0) {
+                        matchedWords++;
+                        score += best;
+                    }
+                }
+                // Most of the query has to match somewhere
+                if (matchedWords == 0 || matchedWords * 2 < queryTerms.size()) {
+                    continue;
+                }
+                if (document.normalizedName.startsWith(normalizedQuery)) {
+                    score += NAME_PREFIX_BOOST;
+                }
+                hits.add(Map.entry(document, score / queryTerms.size()));
+            }
+
+            hits.sort(Map.Entry.<Document, Double>comparingByValue().reversed()
+                    .thenComparing(hit -> hit.getKey().name, String.CASE_INSENSITIVE_ORDER));
+            return hits.stream().map(hit -> hit.getKey().id).toList();
+        }
+
+        private static double best(Term query, List<Term> field) {
+            double best = 0;
+            for (Term term : field) {
+                best = Math.max(best, wordScore(query, term));
+            }
+            return best;
+        }
+    }
+}
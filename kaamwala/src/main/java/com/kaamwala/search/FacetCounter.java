@@ -0,0 +1,118 @@
+package com.kaamwala.search;
+
+import com.kaamwala.dtos.FacetCount;
+
+import java.util.*;
+
+/**
+ * Counts facet values over a set of matching workers, one {@link #add} per worker.
+ *
+ * Category and skill facets count workers per name (a worker with two plumbing skills counts once
+ * for Plumbing). Hourly rate and experience are counted into fixed buckets given by their lower
+ * edges, e.g. 0,200,500 gives "0-200", "200-500" and "500+"; every bucket is returned, empty ones
+ * included, so the UI can render a stable list. Values below the first edge and missing values
+ * are not bucketed.
+ */
+public class FacetCounter {
+
+    public static final String CATEGORY = "category";
+    public static final String SKILL = "skill";
+    public static final String HOURLY_RATE = "hourlyRate";
+    public static final String EXPERIENCE = "experience";
+
+    private final double[] rateEdges;
+    private final double[] experienceEdges;
+    private final long[] rateCounts;
+    private final long[] experienceCounts;
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<String, Long> skills = new HashMap<>();
+    private long total;
+
+    public FacetCounter(double[] rateEdges, double[] experienceEdges) {
+        this.rateEdges = rateEdges;
+        this.experienceEdges = experienceEdges;
+        this.rateCounts = new long[rateEdges.length];
+        this.experienceCounts = new long[experienceEdges.length];
+    }
+
+    // Parses a comma separated list of ascending bucket edges ("0,200,500")
+    public static double[] parseEdges(String edges) {
+        double[] parsed = Arrays.stream(edges.split(","))
+                .map(String::trim)
+                .filter(edge -> !edge.isEmpty())
+                .mapToDouble(Double::parseDouble)
+                .toArray();
+        for (int i = 1; i < parsed.length; i++) {
+            if (parsed[i] <= parsed[i - 1]) {
+                throw new IllegalArgumentException("Facet bucket edges must be ascending: " + edges);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Counts one matching worker. categories and skills hold display names, each name once.
+     */
+    public void add(Double hourlyRate, Integer experience, Collection<String> categories, Collection<String> skills) {
+        total++;
+        if (hourlyRate != null) {
+            count(rateCounts, rateEdges, hourlyRate);
+        }
+        if (experience != null) {
+            count(experienceCounts, experienceEdges, experience);
+        }
+        categories.forEach(name -> this.categories.merge(name, 1L, Long::sum));
+        skills.forEach(name -> this.skills.merge(name, 1L, Long::sum));
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, List<FacetCount>> getFacets() {
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        facets.put(CATEGORY, byCount(categories));
+        facets.put(SKILL, byCount(skills));
+        facets.put(HOURLY_RATE, buckets(rateEdges, rateCounts));
+        facets.put(EXPERIENCE, buckets(experienceEdges, experienceCounts));
+        return facets;
+    }
+
+    private static void count(long[] counts, double[] edges, double value) {
+        // Index of the last edge <= value
+        int index = Arrays.binarySearch(edges, value);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index >= 0) {
+            counts[index]++;
+        }
+    }
+
+    private static List<FacetCount> byCount(Map<String, Long> counts) {
+        List<FacetCount> facet = new ArrayList<>(counts.size());
+        counts.forEach((name, count) -> facet.add(FacetCount.builder().value(name).count(count).build()));
+        facet.sort(Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getValue, String.CASE_INSENSITIVE_ORDER));
+        return facet;
+    }
+
+    private static List<FacetCount> buckets(double[] edges, long[] counts) {
+        List<FacetCount> facet = new ArrayList<>(edges.length);
+        for (int i = 0; i < edges.length; i++) {
+            boolean last = i == edges.length - 1;
+            String label = last ? format(edges[i]) + "+" : format(edges[i]) + "-" + format(edges[i + 1]);
+            facet.add(FacetCount.builder()
+                    .value(label)
+                    .count(counts[i])
+                    .from(edges[i])
+                    .to(last ? null : edges[i + 1])
+                    .build());
+        }
+        return facet;
+    }
+
+    private static String format(double edge) {
+        return edge == Math.rint(edge) ? Long.toString((long) edge) : Double.toString(edge);
+    }
+}
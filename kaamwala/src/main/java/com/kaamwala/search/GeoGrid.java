@@ -0,0 +1,140 @@
+package com.kaamwala.search;
+
+import java.util.*;
+
+/**
+ * Fixed-size lat/lng grid used as a spatial index.
+ *
+ * Each point is bucketed into a cell of {@code cellDegrees} x {@code cellDegrees}; a radius
+ * query only visits the cells overlapping the bounding box of the circle and then filters
+ * by great-circle distance. Not thread-safe, callers synchronize.
+ */
+public class GeoGrid {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    // Same sphere as distanceKm(): a larger figure would make bounding boxes miss points at the radius
+    public static final double KM_PER_DEGREE_LAT = Math.toRadians(EARTH_RADIUS_KM);
+
+    private final double cellDegrees;
+    private final Map<Long, Set<String>> cells = new HashMap<>();
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    void add(String id, double latitude, double longitude) {
+        cells.computeIfAbsent(cellOf(latitude, longitude), k -> new HashSet<>()).add(id);
+    }
+
+    void remove(String id, double latitude, double longitude) {
+        long cell = cellOf(latitude, longitude);
+        Set<String> ids = cells.get(cell);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Ids in the cells overlapping the bounding box of the circle. Callers still need to
+     * check the exact distance.
+     */
+    List<String> candidates(double latitude, double longitude, double radiusKm) {
+        List<String> result = new ArrayList<>();
+        for (Set<String> ids : cellsAround(latitude, longitude, radiusKm)) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    // Number of ids candidates() would return, without copying them
+    int candidateCount(double latitude, double longitude, double radiusKm) {
+        int count = 0;
+        for (Set<String> ids : cellsAround(latitude, longitude, radiusKm)) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    private List<Set<String>> cellsAround(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double lngDelta = longitudeDelta(latitude, radiusKm);
+
+        int minRow = row(Math.max(-90, latitude - latDelta));
+        int maxRow = row(Math.min(90, latitude + latDelta));
+
+        List<Set<String>> result = new ArrayList<>();
+        double west = longitude - lngDelta;
+        double east = longitude + lngDelta;
+        if (lngDelta >= 180) {
+            addCells(result, minRow, maxRow, col(-180), col(180));
+        } else if (west < -180) {
+            // The box crosses the antimeridian: its western part wraps to the eastern edge
+            addCells(result, minRow, maxRow, col(west + 360), col(180));
+            addCells(result, minRow, maxRow, col(-180), col(east));
+        } else if (east > 180) {
+            addCells(result, minRow, maxRow, col(west), col(180));
+            addCells(result, minRow, maxRow, col(-180), col(east - 360));
+        } else {
+            addCells(result, minRow, maxRow, col(west), col(east));
+        }
+        return result;
+    }
+
+    private void addCells(List<Set<String>> result, int minRow, int maxRow, int minCol, int maxCol) {
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                Set<String> ids = cells.get(key(r, c));
+                if (ids != null) {
+                    result.add(ids);
+                }
+            }
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    /**
+     * Half-width in degrees of longitude of the circle's bounding box. The circle is widest
+     * poleward of its centre, so this is wider than radiusKm at the centre's latitude; 180 when
+     * the circle reaches a pole and so covers every longitude.
+     */
+    public static double longitudeDelta(double latitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double lat = Math.toRadians(Math.abs(latitude));
+        if (lat + angle >= Math.PI / 2) {
+            return 180;
+        }
+        return Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(lat)));
+    }
+
+    // Haversine distance between two points in kilometres
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,341 @@
+package com.kaamwala.search;
+
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.UserSkillRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded top-K of rated workers overall, per category and per subcategory, kept in memory
+ * and updated on every rating so /api/workers/top-rated never sorts the user table.
+ *
+ * Workers are ranked by a damped average, (sum + priorMean * priorWeight) / (count + priorWeight),
+ * so a single 5-star review does not outrank hundreds of 4.8s. Every rated worker's totals are
+ * kept; when a member of a full top-K drops (or leaves), that list is marked stale and recomputed
+ * from the key's members on the next read.
+ */
+@Component
+public class TopRatedIndex {
+
+    private static final String ALL = "*";
+
+    private final Logger logger = LoggerFactory.getLogger(TopRatedIndex.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSkillRepository userSkillRepository;
+
+    @Value("${rating.top-k.size:100}")
+    private int capacity;
+
+    @Value("${rating.top-k.prior-mean:3.5}")
+    private double priorMean;
+
+    @Value("${rating.top-k.prior-weight:5}")
+    private double priorWeight;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, RatedWorker> workers = new HashMap<>();
+    private final Map<String, Set<String>> membersByKey = new HashMap<>();
+    private final Map<String, TopK> topByKey = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Object[]> totals = userRepository.findWorkerRatingTotals();
+        List<Object[]> skills = userSkillRepository.findSkillNamesOfRatedWorkers();
+
+        lock.writeLock().lock();
+        try {
+            workers.clear();
+            membersByKey.clear();
+            topByKey.clear();
+            for (Object[] row : totals) {
+                RatedWorker worker = new RatedWorker((String) row[0]);
+                worker.sum = (Long) row[1];
+                worker.count = (Long) row[2];
+                worker.keys.add(ALL);
+                workers.put(worker.userId, worker);
+            }
+            for (Object[] row : skills) {
+                RatedWorker worker = workers.get((String) row[0]);
+                if (worker != null) {
+                    worker.keys.add(skillKey((String) row[1]));
+                    worker.keys.add(categoryKey((String) row[2]));
+                }
+            }
+            for (RatedWorker worker : workers.values()) {
+                worker.score = score(worker);
+                for (String key : worker.keys) {
+                    membersByKey.computeIfAbsent(key, k -> new HashSet<>()).add(worker.userId);
+                    topByKey.computeIfAbsent(key, k -> new TopK()).offer(worker);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Top-rated index built with {} rated workers", totals.size());
+    }
+
+    /**
+     * Applies one new rating. The first rating of a worker loads their skills to find the lists
+     * they belong to, in the caller's transaction if there is one: a second connection per review
+     * could exhaust the pool with every request waiting for one.
+     */
+    public void addRating(String userId, int rating) {
+        lock.readLock().lock();
+        boolean known;
+        try {
+            known = workers.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<String> keys = known ? null : loadKeys(userId);
+
+        lock.writeLock().lock();
+        try {
+            RatedWorker worker = workers.get(userId);
+            if (worker == null) {
+                worker = new RatedWorker(userId);
+                worker.keys.addAll(keys != null ? keys : loadKeys(userId));
+                workers.put(userId, worker);
+                for (String key : worker.keys) {
+                    membersByKey.computeIfAbsent(key, k -> new HashSet<>()).add(userId);
+                }
+            }
+            double oldScore = worker.score;
+            detach(worker);
+            worker.sum += rating;
+            worker.count++;
+            worker.score = score(worker);
+            attach(worker, worker.score < oldScore);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Skills of a worker changed: move them to the right category/subcategory lists. Called after
+    // commit, still holding that transaction's connection, so the skill query reuses it
+    public void refreshKeys(String userId) {
+        lock.readLock().lock();
+        try {
+            if (!workers.containsKey(userId)) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<String> keys = loadKeys(userId);
+
+        lock.writeLock().lock();
+        try {
+            RatedWorker worker = workers.get(userId);
+            if (worker == null) {
+                return;
+            }
+            detach(worker);
+            // Lists the worker leaves have a free slot: their next-best member moves up on the next read
+            for (String key : worker.keys) {
+                if (!keys.contains(key)) {
+                    unlink(key, userId);
+                    markStale(key);
+                }
+            }
+            worker.keys.clear();
+            worker.keys.addAll(keys);
+            for (String key : worker.keys) {
+                membersByKey.computeIfAbsent(key, k -> new HashSet<>()).add(userId);
+            }
+            attach(worker, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        lock.writeLock().lock();
+        try {
+            RatedWorker worker = workers.remove(userId);
+            if (worker != null) {
+                detach(worker);
+                for (String key : worker.keys) {
+                    unlink(key, userId);
+                    markStale(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * User ids of the requested page of the top list for a skill, a category, or overall.
+     * Only the first {@code rating.top-k.size} workers of each list are available.
+     */
+    public List<String> top(String category, String skill, int page, int size) {
+        String key = skill != null ? skillKey(skill) : category != null ? categoryKey(category) : ALL;
+
+        lock.readLock().lock();
+        try {
+            TopK top = topByKey.get(key);
+            if (top == null) {
+                return Collections.emptyList();
+            }
+            if (!top.stale) {
+                return top.page(page, size);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            TopK top = topByKey.get(key);
+            if (top == null) {
+                return Collections.emptyList();
+            }
+            if (top.stale) {
+                top.refill(membersByKey.getOrDefault(key, Collections.emptySet()));
+            }
+            return top.page(page, size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============= MAINTENANCE (caller holds the write lock) =============
+
+    // Must run before changing a worker's score: the TreeSets locate members by score
+    private void detach(RatedWorker worker) {
+        for (String key : worker.keys) {
+            TopK top = topByKey.get(key);
+            if (top != null) {
+                worker.memberOf.put(key, top.entries.remove(worker));
+            }
+        }
+    }
+
+    private void attach(RatedWorker worker, boolean scoreDropped) {
+        for (String key : worker.keys) {
+            TopK top = topByKey.computeIfAbsent(key, k -> new TopK());
+            boolean wasMember = Boolean.TRUE.equals(worker.memberOf.remove(key));
+            top.offer(worker);
+            // A member that dropped may now rank below a worker that is not in the list
+            if (wasMember && scoreDropped) {
+                top.stale = true;
+            }
+        }
+        worker.memberOf.clear();
+    }
+
+    private void unlink(String key, String userId) {
+        Set<String> members = membersByKey.get(key);
+        if (members != null) {
+            members.remove(userId);
+            if (members.isEmpty()) {
+                membersByKey.remove(key);
+                topByKey.remove(key);
+            }
+        }
+    }
+
+    private void markStale(String key) {
+        TopK top = topByKey.get(key);
+        if (top != null) {
+            top.stale = true;
+        }
+    }
+
+    private Set<String> loadKeys(String userId) {
+        Set<String> keys = new HashSet<>();
+        keys.add(ALL);
+        for (Object[] row : userSkillRepository.findSkillNamesByUserId(userId)) {
+            keys.add(skillKey((String) row[1]));
+            keys.add(categoryKey((String) row[2]));
+        }
+        return keys;
+    }
+
+    private double score(RatedWorker worker) {
+        return (worker.sum + priorMean * priorWeight) / (worker.count + priorWeight);
+    }
+
+    private static String categoryKey(String categoryName) {
+        return "c:" + categoryName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String skillKey(String subCategoryName) {
+        return "s:" + subCategoryName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Comparator<RatedWorker> RANKING = Comparator
+            .comparingDouble((RatedWorker w) -> w.score).reversed()
+            .thenComparing(Comparator.comparingLong((RatedWorker w) -> w.count).reversed())
+            .thenComparing(w -> w.userId);
+
+    private class TopK {
+        private final TreeSet<RatedWorker> entries = new TreeSet<>(RANKING);
+        private boolean stale;
+
+        private void offer(RatedWorker worker) {
+            if (entries.size() < capacity) {
+                entries.add(worker);
+            } else if (RANKING.compare(worker, entries.last()) < 0) {
+                entries.pollLast();
+                entries.add(worker);
+            }
+        }
+
+        private void refill(Set<String> members) {
+            entries.clear();
+            for (String userId : members) {
+                RatedWorker worker = workers.get(userId);
+                if (worker != null) {
+                    offer(worker);
+                }
+            }
+            stale = false;
+        }
+
+        private List<String> page(int page, int size) {
+            List<String> result = new ArrayList<>(size);
+            int skip = page * size;
+            for (RatedWorker worker : entries) {
+                if (skip-- > 0) {
+                    continue;
+                }
+                if (result.size() == size) {
+                    break;
+                }
+                result.add(worker.userId);
+            }
+            return result;
+        }
+    }
+
+    private static class RatedWorker {
+        private final String userId;
+        private long sum;
+        private long count;
+        private double score;
+        private final Set<String> keys = new HashSet<>();
+        // Scratch space between detach() and attach(): key -> was in that top-K
+        private final Map<String, Boolean> memberOf = new HashMap<>();
+
+        private RatedWorker(String userId) {
+            this.userId = userId;
+        }
+    }
+}
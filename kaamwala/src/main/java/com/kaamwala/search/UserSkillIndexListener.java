@@ -0,0 +1,57 @@
+package com.kaamwala.search;
+
+import com.kaamwala.model.UserSkill;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the worker search index and the top-rated lists current when skills are written through
+ * UserSkillRepository. The owning worker is re-indexed once the surrounding transaction has committed.
+ */
+public class UserSkillIndexListener {
+
+    private final ObjectProvider<WorkerSearchIndex> workerSearchIndex;
+
+    private final ObjectProvider<TopRatedIndex> topRatedIndex;
+
+    public UserSkillIndexListener(ObjectProvider<WorkerSearchIndex> workerSearchIndex,
+                                  ObjectProvider<TopRatedIndex> topRatedIndex) {
+        this.workerSearchIndex = workerSearchIndex;
+        this.topRatedIndex = topRatedIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onSkillChanged(UserSkill userSkill) {
+        if (userSkill.getUser() == null) {
+            return;
+        }
+        String userId = userSkill.getUser().getUserId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(userId);
+                }
+            });
+        } else {
+            refresh(userId);
+        }
+    }
+
+    private void refresh(String userId) {
+        WorkerSearchIndex index = workerSearchIndex.getIfAvailable();
+        if (index != null && index.isEnabled()) {
+            index.reindex(userId);
+        }
+        TopRatedIndex topRated = topRatedIndex.getIfAvailable();
+        if (topRated != null) {
+            topRated.refreshKeys(userId);
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.kaamwala.search;
+
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.UserSkillRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over workers.
+ *
+ * Posting lists are keyed by category name, subcategory name and canonical service-area key;
+ * hourly rate and experience are kept in sorted maps so range filters can be answered
+ * without touching MySQL. A search intersects the smallest posting list with the others.
+ * Worker coordinates are bucketed in a {@link GeoGrid} for radius searches.
+ *
+ * The index is only built and maintained when {@code worker.search.index.enabled=true}.
+ *
+ * Local writes reindex single workers. Writes made by another instance are found by
+ * {@link #isStale()}, which compares the worker count and last updatedAt of workers and skills
+ * with the ones the index was last rebuilt from.
+ */
+@Component
+public class WorkerSearchIndex {
+
+    private final Logger logger = LoggerFactory.getLogger(WorkerSearchIndex.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSkillRepository userSkillRepository;
+
+    @Value("${worker.search.index.enabled:false}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, WorkerEntry> entries = new HashMap<>();
+    private final Map<String, Set<String>> byCategory = new HashMap<>();
+    private final Map<String, Set<String>> bySkill = new HashMap<>();
+    private final Map<String, Set<String>> byArea = new HashMap<>();
+    private final NavigableMap<Double, Set<String>> byRate = new TreeMap<>();
+    private final NavigableMap<Integer, Set<String>> byExperience = new TreeMap<>();
+    // Display name of each category / skill key, for facet counts
+    private final Map<String, String> labels = new HashMap<>();
+    private final GeoGrid geoGrid;
+
+    // Change stamp read before the last rebuild; null until the first one
+    private volatile String changeStamp;
+
+    public WorkerSearchIndex(@Value("${worker.search.geo.cell-degrees:0.05}") double cellDegrees) {
+        this.geoGrid = new GeoGrid(cellDegrees);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        // Read first: a write that lands while the workers load makes the index stale, never current
+        String stamp = changeStamp();
+        List<User> workers = userRepository.findAllWorkersForIndex();
+        load(workers);
+        changeStamp = stamp;
+        logger.info("Worker search index built with {} workers", workers.size());
+    }
+
+    /**
+     * True when workers or skills changed after the last rebuild. Local writes also count: they
+     * are already in the index, but cannot be told apart from writes made elsewhere.
+     */
+    @Transactional(readOnly = true)
+    public boolean isStale() {
+        String current = changeStamp;
+        return enabled && current != null && !current.equals(changeStamp());
+    }
+
+    private String changeStamp() {
+        return Arrays.deepToString(userRepository.findWorkerChangeStamp().toArray())
+                + Arrays.deepToString(userSkillRepository.findChangeStamp().toArray());
+    }
+
+    /**
+     * Replaces the index contents with the given workers (skills, subcategories and categories
+     * must already be loaded).
+     */
+    public void load(List<User> workers) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            byCategory.clear();
+            bySkill.clear();
+            byArea.clear();
+            byRate.clear();
+            byExperience.clear();
+            labels.clear();
+            geoGrid.clear();
+            workers.forEach(worker -> add(toEntry(worker)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads a single user (with skills) and replaces its index entry.
+     * Runs in its own transaction so it can also be called after another transaction commits.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void reindex(String userId) {
+        if (!enabled) {
+            return;
+        }
+        Optional<User> user = userRepository.findUserForIndex(userId);
+        lock.writeLock().lock();
+        try {
+            removeEntry(userId);
+            user.filter(u -> "worker".equals(u.getRole()))
+                    .ifPresent(u -> add(toEntry(u)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * As {@link #reindex(String)} for many users at once, loaded with a single query
+     * (workers written in bulk, outside JPA).
+     */
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void reindexAll(Collection<String> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return;
+        }
+        List<User> workers = userRepository.findWorkersForIndex(userIds);
+        lock.writeLock().lock();
+        try {
+            userIds.forEach(this::removeEntry);
+            workers.forEach(worker -> add(toEntry(worker)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the requested page of matching workers (in sort order) plus the total hit count.
+     */
+    public WorkerHits search(WorkerSearchCriteria criteria, Sort sort, int page, int size) {
+        return search(criteria, sort, page, size, null);
+    }
+
+    /**
+     * As {@link #search(WorkerSearchCriteria, Sort, int, int)}, also counting every matching worker
+     * into facets (when not null) in the same pass.
+     */
+    public WorkerHits search(WorkerSearchCriteria criteria, Sort sort, int page, int size, FacetCounter facets) {
+        Comparator<WorkerEntry> comparator = comparatorFor(sort);
+        lock.readLock().lock();
+        try {
+            List<WorkerEntry> matches = match(criteria);
+            if (facets != null) {
+                for (WorkerEntry entry : matches) {
+                    facets.add(entry.hourlyRate, entry.experience, labelsOf(entry.categories), labelsOf(entry.skills));
+                }
+            }
+            matches.sort(comparator);
+
+            int from = (int) Math.min((long) page * size, matches.size());
+            int to = Math.min(from + size, matches.size());
+            List<String> userIds = new ArrayList<>(to - from);
+            for (WorkerEntry entry : matches.subList(from, to)) {
+                userIds.add(entry.userId);
+            }
+            return new WorkerHits(userIds, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Workers within {@code radiusKm} of the point (and whose own service radius reaches it),
+     * optionally restricted to a skill, nearest first.
+     */
+    public List<NearbyHit> nearby(double latitude, double longitude, double radiusKm, String skill, int limit) {
+        lock.readLock().lock();
+        try {
+            // Walk whichever is smaller: the skill's posting list or the grid cells around the point
+            Collection<String> candidates;
+            Set<String> skillPosting = skill == null ? null : bySkill.getOrDefault(key(skill), Collections.emptySet());
+            if (skillPosting != null && skillPosting.size() < geoGrid.candidateCount(latitude, longitude, radiusKm)) {
+                candidates = skillPosting;
+            } else {
+                candidates = geoGrid.candidates(latitude, longitude, radiusKm);
+            }
+
+            List<NearbyHit> hits = new ArrayList<>();
+            for (String userId : candidates) {
+                WorkerEntry entry = entries.get(userId);
+                if (entry == null || entry.latitude == null || entry.longitude == null) {
+                    continue;
+                }
+                if (skillPosting != null && !skillPosting.contains(userId)) {
+                    continue;
+                }
+                double distance = GeoGrid.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+                if (distance <= radiusKm && (entry.serviceRadiusKm == null || distance <= entry.serviceRadiusKm)) {
+                    hits.add(new NearbyHit(userId, distance));
+                }
+            }
+            hits.sort(Comparator.comparingDouble(NearbyHit::getDistanceKm).thenComparing(NearbyHit::getUserId));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============= QUERY =============
+
+    private List<WorkerEntry> match(WorkerSearchCriteria criteria) {
+        List<Set<String>> postings = new ArrayList<>();
+        if (criteria.getCategory() != null) {
+            postings.add(byCategory.getOrDefault(key(criteria.getCategory()), Collections.emptySet()));
+        }
+        if (criteria.getSkill() != null) {
+            postings.add(bySkill.getOrDefault(key(criteria.getSkill()), Collections.emptySet()));
+        }
+        if (criteria.getLocation() != null) {
+            postings.add(byArea.getOrDefault(Helper.canonicalArea(criteria.getLocation()), Collections.emptySet()));
+        }
+
+        Collection<String> candidates;
+        if (!postings.isEmpty()) {
+            postings.sort(Comparator.comparingInt(Set::size));
+            candidates = postings.get(0);
+        } else if (criteria.getMinRate() != null || criteria.getMaxRate() != null) {
+            candidates = rateRange(criteria.getMinRate(), criteria.getMaxRate());
+        } else if (criteria.getMinExperience() != null) {
+            candidates = union(byExperience.tailMap(criteria.getMinExperience(), true).values());
+        } else {
+            candidates = entries.keySet();
+        }
+
+        List<WorkerEntry> matches = new ArrayList<>();
+        for (String userId : candidates) {
+            if (!containedInAll(userId, postings)) {
+                continue;
+            }
+            WorkerEntry entry = entries.get(userId);
+            if (entry != null && inRanges(entry, criteria)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    private List<String> labelsOf(Set<String> keys) {
+        List<String> names = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            names.add(labels.getOrDefault(key, key));
+        }
+        return names;
+    }
+
+    private Collection<String> rateRange(Double minRate, Double maxRate) {
+        NavigableMap<Double, Set<String>> range = byRate;
+        if (minRate != null && maxRate != null) {
+            if (minRate > maxRate) {
+                return Collections.emptyList();
+            }
+            range = byRate.subMap(minRate, true, maxRate, true);
+        } else if (minRate != null) {
+            range = byRate.tailMap(minRate, true);
+        } else if (maxRate != null) {
+            range = byRate.headMap(maxRate, true);
+        }
+        return union(range.values());
+    }
+
+    private static Collection<String> union(Collection<Set<String>> sets) {
+        List<String> result = new ArrayList<>();
+        sets.forEach(result::addAll);
+        return result;
+    }
+
+    private static boolean containedInAll(String userId, List<Set<String>> postings) {
+        // postings.get(0) is the candidate source itself
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(userId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean inRanges(WorkerEntry entry, WorkerSearchCriteria criteria) {
+        if (criteria.getMinRate() != null && (entry.hourlyRate == null || entry.hourlyRate < criteria.getMinRate())) {
+            return false;
+        }
+        if (criteria.getMaxRate() != null && (entry.hourlyRate == null || entry.hourlyRate > criteria.getMaxRate())) {
+            return false;
+        }
+        return criteria.getMinExperience() == null
+                || (entry.experience != null && entry.experience >= criteria.getMinExperience());
+    }
+
+    private static Comparator<WorkerEntry> comparatorFor(Sort sort) {
+        Comparator<WorkerEntry> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<WorkerEntry> next = switch (order.getProperty()) {
+                case "name" -> Comparator.comparing((WorkerEntry e) -> e.name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                case "experience" -> Comparator.comparing((WorkerEntry e) -> e.experience, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "hourlyRate" -> Comparator.comparing((WorkerEntry e) -> e.hourlyRate, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "createdAt" -> Comparator.comparing((WorkerEntry e) -> e.createdAt, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "userId" -> Comparator.comparing((WorkerEntry e) -> e.userId);
+                default -> throw new BadApiRequest("Sorting by '" + order.getProperty() + "' is not supported");
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<WorkerEntry> byId = Comparator.comparing(e -> e.userId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // ============= MAINTENANCE (caller holds the write lock) =============
+
+    private WorkerEntry toEntry(User user) {
+        WorkerEntry entry = new WorkerEntry(user.getUserId(), user.getName(), user.getHourlyRate(),
+                user.getExperience(), user.getCreatedAt());
+        entry.latitude = user.getLatitude();
+        entry.longitude = user.getLongitude();
+        entry.serviceRadiusKm = user.getServiceRadiusKm();
+        for (UserSkill userSkill : user.getUserSkills()) {
+            if (userSkill.getSubCategory() == null) {
+                continue;
+            }
+            entry.skills.add(label(userSkill.getSubCategory().getSubCategoryName()));
+            if (userSkill.getSubCategory().getCategory() != null) {
+                entry.categories.add(label(userSkill.getSubCategory().getCategory().getCategoryName()));
+            }
+        }
+        entry.areas.addAll(Helper.parseServiceAreas(user.getServiceAreas()).keySet());
+        return entry;
+    }
+
+    // Key of a category / skill name, remembering the name for facets
+    private String label(String name) {
+        String key = key(name);
+        labels.put(key, name);
+        return key;
+    }
+
+    private void add(WorkerEntry entry) {
+        entries.put(entry.userId, entry);
+        entry.categories.forEach(category -> post(byCategory, category, entry.userId));
+        entry.skills.forEach(skill -> post(bySkill, skill, entry.userId));
+        entry.areas.forEach(area -> post(byArea, area, entry.userId));
+        if (entry.hourlyRate != null) {
+            post(byRate, entry.hourlyRate, entry.userId);
+        }
+        if (entry.experience != null) {
+            post(byExperience, entry.experience, entry.userId);
+        }
+        if (entry.latitude != null && entry.longitude != null) {
+            geoGrid.add(entry.userId, entry.latitude, entry.longitude);
+        }
+    }
+
+    private void removeEntry(String userId) {
+        WorkerEntry entry = entries.remove(userId);
+        if (entry == null) {
+            return;
+        }
+        entry.categories.forEach(category -> unpost(byCategory, category, userId));
+        entry.skills.forEach(skill -> unpost(bySkill, skill, userId));
+        entry.areas.forEach(area -> unpost(byArea, area, userId));
+        if (entry.hourlyRate != null) {
+            unpost(byRate, entry.hourlyRate, userId);
+        }
+        if (entry.experience != null) {
+            unpost(byExperience, entry.experience, userId);
+        }
+        if (entry.latitude != null && entry.longitude != null) {
+            geoGrid.remove(userId, entry.latitude, entry.longitude);
+        }
+    }
+
+    private static <K> void post(Map<K, Set<String>> postings, K key, String userId) {
+        postings.computeIfAbsent(key, k -> new HashSet<>()).add(userId);
+    }
+
+    private static <K> void unpost(Map<K, Set<String>> postings, K key, String userId) {
+        Set<String> users = postings.get(key);
+        if (users != null) {
+            users.remove(userId);
+            if (users.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class WorkerEntry {
+        private final String userId;
+        private final String name;
+        private final Double hourlyRate;
+        private final Integer experience;
+        private final LocalDateTime createdAt;
+        private final Set<String> categories = new HashSet<>();
+        private final Set<String> skills = new HashSet<>();
+        private final Set<String> areas = new HashSet<>();
+        private Double latitude;
+        private Double longitude;
+        private Double serviceRadiusKm;
+
+        private WorkerEntry(String userId, String name, Double hourlyRate, Integer experience, LocalDateTime createdAt) {
+            this.userId = userId;
+            this.name = name;
+            this.hourlyRate = hourlyRate;
+            this.experience = experience;
+            this.createdAt = createdAt;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class WorkerHits {
+        private final List<String> userIds;
+        private final int total;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class NearbyHit {
+        private final String userId;
+        private final double distanceKm;
+    }
+}
@@ -38,4 +38,7 @@ public interface CategoryService {
     
     // Get all active subcategories
     List<SubCategoryDto> getAllActiveSubCategories();
+
+    // ETag of the active catalog (active categories and subcategories endpoints), no database access
+    String getCatalogETag();
 }
@@ -2,13 +2,22 @@ package com.kaamwala.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 public interface FileService {
     public String uploadImage(MultipartFile file ,String path) throws IOException;
 
-    InputStream getResource(String path , String name ) throws FileNotFoundException;
+    // Deletes the file (then calls onDeleted with it) when references reports no users of it;
+    // shared (content-addressed) files stored or reused in the last few minutes are checked again later
+    void deleteIfUnused(String path, String name, LongSupplier references, Consumer<Path> onDeleted);
+
+    // Existing file under path; names that escape the folder or do not exist are not found
+    Path resolve(String path, String name);
+
+    // Where name would be under path, without touching the disk; names that escape the folder are not found
+    Path locate(String path, String name);
 
 }
@@ -0,0 +1,21 @@
+package com.kaamwala.service;
+
+import com.kaamwala.image.ImageVariant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+public interface ImageService {
+
+    // Writes a user's profile image (zero-copy where the container supports it), honoring Range and If-None-Match.
+    // A version matching the content hash marks the response immutable. A null variant means the original.
+    void serveUserImage(String userId, ImageVariant variant, String version,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+    // Queues thumb/card/full generation for a stored upload; returns immediately
+    void generateVariants(String imageName);
+
+    // The image is no longer used by a user: deletes it and its variants once no other user has it
+    void releaseImage(String imageName);
+}
@@ -0,0 +1,13 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.PageableResponse;
+import com.kaamwala.dtos.ReviewDto;
+
+public interface ReviewService {
+
+    // Add a review for a worker
+    ReviewDto createReview(String workerId, ReviewDto reviewDto);
+
+    // Reviews of a worker, newest first
+    PageableResponse<ReviewDto> getReviews(String workerId, int pageNumber, int pageSize);
+}
@@ -20,6 +20,9 @@ public interface UserService {
 
     UserDto getUserById(String userId);
 
+    // ETag of what getUserById returns, from one small query
+    String getUserETag(String userId);
+
     // Get All user With pagination
 
     PageableResponse<UserDto> getAllUser(int pageNumber, int pageSize, String sortBy, String sortDir);
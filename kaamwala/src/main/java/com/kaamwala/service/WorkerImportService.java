@@ -0,0 +1,14 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.ImportEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface WorkerImportService {
+
+    // Imports users from CSV or NDJSON in batches, reporting each rejected row and each committed
+    // chunk to events as it happens; returns the final totals
+    ImportEvent importWorkers(InputStream in, boolean csv, Consumer<ImportEvent> events) throws IOException;
+}
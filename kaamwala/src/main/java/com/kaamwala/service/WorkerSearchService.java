@@ -0,0 +1,42 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.CursorPageResponse;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.dtos.WorkerSearchResponse;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface WorkerSearchService {
+
+    // All workers with pagination
+    List<UserDto> getAllWorkers(int page, int size, String sortBy);
+
+    // Workers by category / skill / location
+    List<UserDto> getWorkersByCategory(String categoryName, int page, int size);
+    List<UserDto> getWorkersBySkill(String skillName, int page, int size);
+    List<UserDto> getWorkersByLocation(String location, int page, int size);
+
+    // Advanced search with multiple filters
+    List<UserDto> searchWorkers(WorkerSearchCriteria criteria, int page, int size, String sortBy);
+
+    // Same search with the total hit count and, when facets is true, facet counts over all matches
+    WorkerSearchResponse searchWorkers(WorkerSearchCriteria criteria, int page, int size, String sortBy, boolean facets);
+
+    // Best rated workers overall, or within a category or skill
+    List<UserDto> getTopRatedWorkers(String category, String skill, int page, int size);
+
+    List<UserDto> getRecentWorkers(int page, int size);
+
+    // Workers within radiusKm of a point, nearest first
+    List<UserDto> getNearbyWorkers(double latitude, double longitude, double radiusKm, String skill, int size);
+
+    // Keyset (seek) pagination: cursor is the nextCursor of the previous page, empty for the first page
+    CursorPageResponse<UserDto> seekWorkers(WorkerSearchCriteria criteria, Sort.Order order, String cursor, int size);
+
+    // Every worker matching the criteria, written to out as CSV or NDJSON while it is read
+    void exportWorkers(WorkerSearchCriteria criteria, boolean csv, OutputStream out) throws IOException;
+}
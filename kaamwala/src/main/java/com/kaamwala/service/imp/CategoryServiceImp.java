@@ -1,25 +1,34 @@
 package com.kaamwala.service.imp;
 
+import com.kaamwala.cache.CategoryTreeCache;
 import com.kaamwala.dtos.CategoryDto;
 import com.kaamwala.dtos.PageableResponse;
 import com.kaamwala.dtos.SubCategoryDto;
 import com.kaamwala.exception.ResourceNotFoundException;
 import com.kaamwala.helper.Helper;
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.mapper.CategoryMapper;
 import com.kaamwala.model.Category;
 import com.kaamwala.model.SubCategory;
 import com.kaamwala.repository.CategoryRepository;
 import com.kaamwala.repository.SubCategoryRepository;
+import com.kaamwala.search.CatalogSearchIndex;
 import com.kaamwala.service.CategoryService;
-import org.modelmapper.ModelMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,7 +41,16 @@ public class CategoryServiceImp implements CategoryService {
     private SubCategoryRepository subCategoryRepository;
     
     @Autowired
-    private ModelMapper mapper;
+    private CategoryMapper mapper;
+
+    @Autowired
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     
     @Override
     public CategoryDto createCategory(CategoryDto categoryDto) {
@@ -42,17 +60,18 @@ public class CategoryServiceImp implements CategoryService {
         }
         
         // Generate unique ID
-        String categoryId = UUID.randomUUID().toString();
+        String categoryId = TimeOrderedId.next();
         categoryDto.setCategoryId(categoryId);
         
         // Convert DTO to Entity
-        Category category = mapper.map(categoryDto, Category.class);
+        Category category = mapper.toEntity(categoryDto);
         
         // Save category
         Category savedCategory = categoryRepository.save(category);
+        onCatalogChanged();
         
         // Convert back to DTO
-        return mapper.map(savedCategory, CategoryDto.class);
+        return mapper.toDto(savedCategory);
     }
     
     @Override
@@ -75,8 +94,9 @@ public class CategoryServiceImp implements CategoryService {
         
         // Save updated category
         Category updatedCategory = categoryRepository.save(category);
+        onCatalogChanged();
         
-        return mapper.map(updatedCategory, CategoryDto.class);
+        return mapper.toDto(updatedCategory);
     }
     
     @Override
@@ -92,6 +112,7 @@ public class CategoryServiceImp implements CategoryService {
         List<SubCategory> subCategories = subCategoryRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId);
         subCategories.forEach(subCategory -> subCategory.setIsActive(false));
         subCategoryRepository.saveAll(subCategories);
+        onCatalogChanged();
     }
     
     @Override
@@ -99,12 +120,12 @@ public class CategoryServiceImp implements CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "Category Id", categoryId));
         
-        CategoryDto categoryDto = mapper.map(category, CategoryDto.class);
+        CategoryDto categoryDto = mapper.toSummaryDto(category);
         
         // Load subcategories
         List<SubCategory> subCategories = subCategoryRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId);
         categoryDto.setSubCategories(subCategories.stream()
-                .map(subCategory -> mapper.map(subCategory, SubCategoryDto.class))
+                .map(mapper::toDto)
                 .collect(Collectors.toSet()));
         
         return categoryDto;
@@ -115,7 +136,7 @@ public class CategoryServiceImp implements CategoryService {
         Category category = categoryRepository.findByCategoryNameIgnoreCase(categoryName)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "Category Name", categoryName));
         
-        return mapper.map(category, CategoryDto.class);
+        return mapper.toDto(category);
     }
     
     @Override
@@ -125,31 +146,23 @@ public class CategoryServiceImp implements CategoryService {
         
         Page<Category> page = categoryRepository.findAll(pageable);
         
-        PageableResponse<CategoryDto> response = Helper.getPageableResponse(page, CategoryDto.class);
+        PageableResponse<CategoryDto> response = Helper.getPageableResponse(page, mapper::toDto);
         return response;
     }
     
     @Override
     public List<CategoryDto> getAllActiveCategories() {
-        List<Category> categories = categoryRepository.findByIsActiveTrue();
-        return categories.stream()
-                .map(category -> {
-                    CategoryDto dto = mapper.map(category, CategoryDto.class);
-                    // Load subcategories for each category
-                    List<SubCategory> subCategories = subCategoryRepository.findByCategoryCategoryIdAndIsActiveTrue(category.getCategoryId());
-                    dto.setSubCategories(subCategories.stream()
-                            .map(subCategory -> mapper.map(subCategory, SubCategoryDto.class))
-                            .collect(Collectors.toSet()));
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        // Served from the cached tree, no database access
+        return categoryTreeCache.get().getCategories();
     }
     
     @Override
     public List<CategoryDto> searchCategories(String keyword) {
-        List<Category> categories = categoryRepository.findByKeywordAndActive(keyword);
+        // Ranked by CatalogSearchIndex; only the matching rows are read
+        List<String> ids = catalogSearchIndex.searchCategories(keyword);
+        List<Category> categories = inOrder(ids, categoryRepository.findAllById(ids), Category::getCategoryId);
         return categories.stream()
-                .map(category -> mapper.map(category, CategoryDto.class))
+                .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
     
@@ -169,22 +182,19 @@ public class CategoryServiceImp implements CategoryService {
         }
         
         // Generate unique ID
-        String subCategoryId = UUID.randomUUID().toString();
+        String subCategoryId = TimeOrderedId.next();
         subCategoryDto.setSubCategoryId(subCategoryId);
         
         // Convert DTO to Entity
-        SubCategory subCategory = mapper.map(subCategoryDto, SubCategory.class);
+        SubCategory subCategory = mapper.toEntity(subCategoryDto);
         subCategory.setCategory(category);
         
         // Save subcategory
         SubCategory savedSubCategory = subCategoryRepository.save(subCategory);
+        onCatalogChanged();
         
         // Convert back to DTO
-        SubCategoryDto result = mapper.map(savedSubCategory, SubCategoryDto.class);
-        result.setCategoryId(categoryId);
-        result.setCategoryName(category.getCategoryName());
-        
-        return result;
+        return mapper.toDto(savedSubCategory);
     }
     
     @Override
@@ -199,12 +209,9 @@ public class CategoryServiceImp implements CategoryService {
         
         // Save updated subcategory
         SubCategory updatedSubCategory = subCategoryRepository.save(subCategory);
+        onCatalogChanged();
         
-        SubCategoryDto result = mapper.map(updatedSubCategory, SubCategoryDto.class);
-        result.setCategoryId(updatedSubCategory.getCategory().getCategoryId());
-        result.setCategoryName(updatedSubCategory.getCategory().getCategoryName());
-        
-        return result;
+        return mapper.toDto(updatedSubCategory);
     }
     
     @Override
@@ -215,6 +222,7 @@ public class CategoryServiceImp implements CategoryService {
         // Soft delete - mark as inactive
         subCategory.setIsActive(false);
         subCategoryRepository.save(subCategory);
+        onCatalogChanged();
     }
     
     @Override
@@ -222,53 +230,67 @@ public class CategoryServiceImp implements CategoryService {
         SubCategory subCategory = subCategoryRepository.findById(subCategoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("SubCategory", "SubCategory Id", subCategoryId));
         
-        SubCategoryDto result = mapper.map(subCategory, SubCategoryDto.class);
-        result.setCategoryId(subCategory.getCategory().getCategoryId());
-        result.setCategoryName(subCategory.getCategory().getCategoryName());
-        
-        return result;
+        return mapper.toDto(subCategory);
     }
     
     @Override
     public List<SubCategoryDto> getSubCategoriesByCategory(String categoryId) {
+        CategoryTreeCache.Snapshot tree = categoryTreeCache.get();
         // Verify category exists
-        categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "Category Id", categoryId));
-        
-        List<SubCategory> subCategories = subCategoryRepository.findByCategoryCategoryIdAndIsActiveTrue(categoryId);
-        return subCategories.stream()
-                .map(subCategory -> {
-                    SubCategoryDto dto = mapper.map(subCategory, SubCategoryDto.class);
-                    dto.setCategoryId(categoryId);
-                    dto.setCategoryName(subCategory.getCategory().getCategoryName());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        if (!tree.containsCategory(categoryId)) {
+            throw new ResourceNotFoundException("Category", "Category Id", categoryId);
+        }
+        return tree.getSubCategories(categoryId);
     }
     
     @Override
     public List<SubCategoryDto> searchSubCategories(String keyword) {
-        List<SubCategory> subCategories = subCategoryRepository.findByKeywordAndActive(keyword);
+        List<String> ids = catalogSearchIndex.searchSubCategories(keyword);
+        List<SubCategory> subCategories = inOrder(ids, subCategoryRepository.findAllById(ids), SubCategory::getSubCategoryId);
         return subCategories.stream()
-                .map(subCategory -> {
-                    SubCategoryDto dto = mapper.map(subCategory, SubCategoryDto.class);
-                    dto.setCategoryId(subCategory.getCategory().getCategoryId());
-                    dto.setCategoryName(subCategory.getCategory().getCategoryName());
-                    return dto;
-                })
+                .map(mapper::toDto)
                 .collect(Collectors.toList());
     }
     
     @Override
     public List<SubCategoryDto> getAllActiveSubCategories() {
-        List<SubCategory> subCategories = subCategoryRepository.findByIsActiveTrue();
-        return subCategories.stream()
-                .map(subCategory -> {
-                    SubCategoryDto dto = mapper.map(subCategory, SubCategoryDto.class);
-                    dto.setCategoryId(subCategory.getCategory().getCategoryId());
-                    dto.setCategoryName(subCategory.getCategory().getCategoryName());
-                    return dto;
-                })
+        return categoryTreeCache.get().getSubCategories();
+    }
+
+    @Override
+    public String getCatalogETag() {
+        return categoryTreeCache.get().getETag();
+    }
+
+    // Every write swaps in a fresh tree and search index
+    private void onCatalogChanged() {
+        categoryTreeCache.rebuild();
+        catalogSearchIndex.rebuild();
+    }
+
+    /**
+     * Picks up catalog writes made on another instance. This instance's second-level cache still
+     * holds the old rows, so the category regions and cached finder results go first.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh.interval-ms:60000}")
+    public void refreshIfChangedElsewhere() {
+        if (!categoryTreeCache.isStale()) {
+            return;
+        }
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Category.class);
+        cache.evictEntityData(SubCategory.class);
+        cache.evictCollectionData(Category.class.getName() + ".subCategories");
+        cache.evictDefaultQueryRegion();
+        onCatalogChanged();
+    }
+
+    // findAllById does not keep the order of the ids, so re-apply the ranking
+    private static <T> List<T> inOrder(List<String> ids, List<T> rows, Function<T, String> idOf) {
+        Map<String, T> byId = rows.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 }
@@ -1,40 +1,105 @@
 package com.kaamwala.service.imp;
 
 import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.exception.ResourceNotFoundException;
 import com.kaamwala.service.FileService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads either flat as UUID.ext ("flat" mode, the original layout) or content-addressed
+ * ("content" mode, the default): the SHA-256 of the bytes, computed while the upload streams to
+ * disk, names the file and its first two byte pairs pick the folder, e.g. 3f/a2/3fa2...e9.jpg.
+ * Identical photos are stored once, and no folder grows past a few thousand entries.
+ *
+ * A content-addressed file can be shared, so it is deleted only once nothing references it any
+ * more (see deleteIfUnused). Files stored in either mode are always readable. The per-hash locks
+ * are local to this JVM; instances sharing one image folder rely on the reuse grace period alone.
+ */
 @Service
 public class FileServiceImp implements FileService {
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z]+");
+
     Logger logger= LoggerFactory.getLogger(FileServiceImp.class);
+
+    @Value("${image.store.mode:content}")
+    private String storeMode;
+
+    // A deduplicated upload is not assigned to its user yet; keep a shared file at least this long
+    @Value("${image.store.reuse-grace:10m}")
+    private Duration reuseGrace;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    // Stripes keyed by content hash: storing a duplicate and deleting the last copy never interleave
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+
+    {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
     @Override
     public String uploadImage(MultipartFile file, String path) throws IOException {
         String originalFilename = file.getOriginalFilename();
         logger.info("File name :{}" , originalFilename);
-        String fileName= UUID.randomUUID().toString();
 
+        if (originalFilename == null || originalFilename.lastIndexOf(".") < 0) {
+            throw new BadApiRequest("File name has no extension !!");
+        }
         String extension =originalFilename.substring(originalFilename.lastIndexOf("."));
-        String fileNameWithExtension =fileName + extension;
-
-        String fullPathWithFIleName=path+fileNameWithExtension;
 
         if(extension.equalsIgnoreCase(".png")||extension.equalsIgnoreCase(".jpg")||extension.equalsIgnoreCase(".jpeg")){
-            File folder = new File(path) ;
-            if(!folder.exists()){
+            Path folder = Paths.get(path);
+            // create the folder
+            Files.createDirectories(folder);
 
-                // create the folder
-                folder.mkdirs();
+            // Written to a temp file and synced before being renamed into place: once this returns the
+            // upload survives a crash, and nobody ever reads a half-written image
+            Path temp = Files.createTempFile(folder, ".upload-", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                if ("flat".equalsIgnoreCase(storeMode)) {
+                    String fileNameWithExtension = UUID.randomUUID() + extension;
+                    Files.move(temp, folder.resolve(fileNameWithExtension), StandardCopyOption.ATOMIC_MOVE);
+                    syncDirectory(folder);
+                    return fileNameWithExtension;
+                }
+                return storeByContent(folder, temp, HexFormat.of().formatHex(digest.digest()), extension);
+            } finally {
+                Files.deleteIfExists(temp);
             }
-            Files.copy(file.getInputStream(), Paths.get(fullPathWithFIleName));
-            return fileNameWithExtension;
         }else {
             throw new BadApiRequest("File With this "+extension+ "not allowed !!");
 
@@ -44,10 +109,101 @@ public class FileServiceImp implements FileService {
 
     }
 
+    private String storeByContent(Path folder, Path temp, String hash, String extension) throws IOException {
+        String ext = extension.equalsIgnoreCase(".jpeg") ? ".jpg" : extension.toLowerCase(Locale.ROOT);
+        String name = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+        Path target = folder.resolve(name);
+        Files.createDirectories(target.getParent());
+
+        ReentrantLock lock = stripe(hash);
+        lock.lock();
+        try {
+            if (Files.isRegularFile(target)) {
+                // Already stored: keep the existing copy, and mark it as just reused
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                logger.info("Upload deduplicated to {}", name);
+                return name;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(target.getParent());
+            return name;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteIfUnused(String path, String name, LongSupplier references, Consumer<Path> onDeleted) {
+        Path file;
+        try {
+            file = resolve(path, name);
+        } catch (ResourceNotFoundException ex) {
+            return;
+        }
+        boolean shared = CONTENT_ADDRESSED.matcher(name).matches();
+        ReentrantLock lock = shared ? stripe(file.getFileName().toString()) : null;
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            if (references.getAsLong() > 0) {
+                return;
+            }
+            Instant reusableUntil = Files.getLastModifiedTime(file).toInstant().plus(reuseGrace);
+            if (shared && reusableUntil.isAfter(Instant.now())) {
+                // Someone may have just uploaded the same photo; look again once the grace period is over
+                taskScheduler.schedule(() -> deleteIfUnused(path, name, references, onDeleted), reusableUntil);
+                return;
+            }
+            if (Files.deleteIfExists(file)) {
+                onDeleted.accept(file);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not delete {}: {}", name, ex.getMessage());
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Makes the rename itself durable; not supported on every platform, where it is skipped
+    private void syncDirectory(Path folder) {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            logger.debug("Directory sync not supported for {}", folder);
+        }
+    }
+
+    @Override
+    public Path resolve(String path, String name) {
+        Path file = locate(path, name);
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("File not found: " + name);
+        }
+        return file;
+    }
+
     @Override
-    public InputStream getResource(String path, String name) throws FileNotFoundException {
-        String fullPath=path+File.separator+name;
-        InputStream inputStream= new FileInputStream(fullPath);
-        return inputStream;
+    public Path locate(String path, String name) {
+        Path folder = Paths.get(path).toAbsolutePath().normalize();
+        Path file = folder.resolve(name).normalize();
+        if (!file.startsWith(folder)) {
+            throw new ResourceNotFoundException("File not found: " + name);
+        }
+        return file;
+    }
+
+    private ReentrantLock stripe(String hash) {
+        return stripes[Math.floorMod(hash.substring(0, Math.min(8, hash.length())).hashCode(), stripes.length)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
@@ -0,0 +1,325 @@
+package com.kaamwala.service.imp;
+
+import com.kaamwala.cache.HotImageCache;
+import com.kaamwala.exception.ResourceNotFoundException;
+import com.kaamwala.image.ImageVariant;
+import com.kaamwala.image.ImageVariantGenerator;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.service.FileService;
+import com.kaamwala.service.ImageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves profile images without copying them through the heap.
+ *
+ * On Tomcat, files of 48KB and more are handed to the connector as sendfile requests; the kernel
+ * copies file pages straight to the socket once the handler returns. Elsewhere (or for small
+ * files) FileChannel.transferTo writes into the response channel. The image name comes from a
+ * single-column query, and content type (from magic bytes) and SHA-256 hash are computed once
+ * per file and cached until its size or modification time changes. ?variant=thumb|card|full
+ * serves the scaled JPEGs built by ImageVariantGenerator.
+ *
+ * Popular small images are kept in HotImageCache and written from direct memory: a hit costs
+ * the image name query and no file system call, not even a stat.
+ */
+@Service
+public class ImageServiceImp implements ImageService {
+
+    // Below this, a plain copy is cheaper than handing the file to the connector
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // ?v=<hash> URLs never change content, so clients may keep them for a year without revalidating
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    private static final int MAX_DESCRIBED_IMAGES = 10_000;
+
+    // 3fa2...e9.jpg as stored by FileServiceImp in content mode; group 1 is the ETag part
+    private static final Pattern CONTENT_HASH_NAME = Pattern.compile("([0-9a-f]{32})[0-9a-f]{32}\\.[a-z]+");
+
+    private final Logger logger = LoggerFactory.getLogger(ImageServiceImp.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private ImageVariantGenerator variantGenerator;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Value("${user.profile.image.path}")
+    private String imagePath;
+
+    // file -> hash and content type, least recently served dropped first
+    private final Map<Path, ImageInfo> described = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, ImageInfo> eldest) {
+                    return size() > MAX_DESCRIBED_IMAGES;
+                }
+            });
+
+    @Override
+    public void generateVariants(String imageName) {
+        Path original = fileService.resolve(imagePath, imageName);
+        // A deduplicated upload already has its variants
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (!Files.isRegularFile(variantGenerator.variantPath(original, variant))) {
+                variantGenerator.submit(original);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void releaseImage(String imageName) {
+        if (imageName == null || imageName.isBlank()) {
+            return;
+        }
+        fileService.deleteIfUnused(imagePath, imageName, () -> userRepository.countByImageName(imageName), original -> {
+            described.remove(original);
+            hotImageCache.invalidate(original);
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path scaled = variantGenerator.variantPath(original, variant);
+                described.remove(scaled);
+                hotImageCache.invalidate(scaled);
+                try {
+                    Files.deleteIfExists(scaled);
+                } catch (IOException ex) {
+                    logger.warn("Could not delete {}: {}", scaled.getFileName(), ex.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void serveUserImage(String userId, ImageVariant variant, String version,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String imageName = userRepository.findImageNameByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("No image for user id: " + userId));
+        Path original = fileService.locate(imagePath, imageName);
+        Path file = variant == null ? original : variantGenerator.variantPath(original, variant);
+        HotImageCache.Entry hot = hotImageCache.get(file);
+        if (hot == null && variant != null && !Files.isRegularFile(file)) {
+            // Not generated yet (or dropped under load): queue it and send the original meanwhile
+            file = fileService.resolve(imagePath, imageName);
+            variantGenerator.submit(file);
+            hot = hotImageCache.get(file);
+        }
+
+        String hash;
+        String contentType;
+        long size;
+        if (hot != null) {
+            hash = hot.getHash();
+            contentType = hot.getContentType();
+            size = hot.size();
+        } else {
+            if (file == original) {
+                file = fileService.resolve(imagePath, imageName);
+            }
+            ImageInfo image = describe(file);
+            hash = image.hash;
+            contentType = image.contentType;
+            size = image.size;
+        }
+
+        String eTag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, hash.equals(version) ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+        if (new ServletWebRequest(request, response).checkNotModified(eTag)) {
+            return;
+        }
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start = 0;
+        long end = size - 1;
+        HttpRange range = requestedRange(request, eTag);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+            } catch (IllegalArgumentException ex) {
+                start = size;
+            }
+            if (start >= size || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (hot == null) {
+            // Null unless small enough and popular enough to earn a place
+            hot = hotImageCache.load(file, size, hash, contentType);
+        }
+        if (hot != null) {
+            ByteBuffer body = hot.bytes();
+            body.limit((int) end + 1).position((int) start);
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            while (body.hasRemaining()) {
+                out.write(body);
+            }
+            return;
+        }
+        if (length >= SENDFILE_THRESHOLD && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The connector streams the file after we return; nothing may be written here
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // One satisfiable-looking range, or null to send the whole file (no/malformed/multiple ranges, stale If-Range)
+    private static HttpRange requestedRange(HttpServletRequest request, String eTag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private ImageInfo describe(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        ImageInfo cached = described.get(file);
+        if (cached != null && cached.size == size && cached.modified == modified) {
+            return cached;
+        }
+
+        // Content-addressed uploads are named by their SHA-256: only the type needs the file
+        Matcher named = CONTENT_HASH_NAME.matcher(file.getFileName().toString());
+        MessageDigest digest = named.matches() ? null : sha256();
+        byte[] head = new byte[12];
+        int headLength = 0;
+        byte[] buffer = new byte[digest == null ? head.length : 64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (headLength < head.length) {
+                    int copied = Math.min(read, head.length - headLength);
+                    System.arraycopy(buffer, 0, head, headLength, copied);
+                    headLength += copied;
+                }
+                if (digest == null) {
+                    if (headLength == head.length) {
+                        break;
+                    }
+                    continue;
+                }
+                digest.update(buffer, 0, read);
+            }
+        }
+        String hash = digest == null ? named.group(1) : HexFormat.of().formatHex(digest.digest(), 0, 16);
+        ImageInfo image = new ImageInfo(size, modified, hash, contentType(head, headLength));
+        described.put(file, image);
+        return image;
+    }
+
+    // Trust the bytes, not the extension the file was uploaded with
+    private static String contentType(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        }
+        if (length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == 0x0D && head[5] == 0x0A && head[6] == 0x1A && head[7] == 0x0A) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (length >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class ImageInfo {
+        private final long size;
+        private final long modified;
+        private final String hash;
+        private final String contentType;
+
+        private ImageInfo(long size, long modified, String hash, String contentType) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.contentType = contentType;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.kaamwala.service.imp;
+
+import com.kaamwala.dtos.PageableResponse;
+import com.kaamwala.dtos.ReviewDto;
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.exception.ResourceNotFoundException;
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.model.Review;
+import com.kaamwala.rating.RatingAggregator;
+import com.kaamwala.repository.ReviewRepository;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.service.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.stream.Collectors;
+
+@Service
+public class ReviewServiceImp implements ReviewService {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingAggregator ratingAggregator;
+
+    @Override
+    public ReviewDto createReview(String workerId, ReviewDto reviewDto) {
+        if (!userRepository.existsByUserIdAndRole(workerId, "worker")) {
+            throw new ResourceNotFoundException("Worker not found with id: " + workerId);
+        }
+        String reviewerId = reviewDto.getReviewerId();
+        if (reviewerId != null) {
+            if (reviewerId.equals(workerId)) {
+                throw new BadApiRequest("Workers cannot review themselves");
+            }
+            if (!userRepository.existsById(reviewerId)) {
+                throw new ResourceNotFoundException("Reviewer not found with id: " + reviewerId);
+            }
+        }
+
+        Review review = Review.builder()
+                .reviewId(TimeOrderedId.next())
+                .worker(userRepository.getReferenceById(workerId))
+                .reviewer(reviewerId == null ? null : userRepository.getReferenceById(reviewerId))
+                .rating(reviewDto.getRating())
+                .comment(reviewDto.getComment())
+                .build();
+        Review saved = reviewRepository.save(review);
+
+        // The worker's average is updated by the next batched flush
+        ratingAggregator.record(workerId, saved.getRating());
+        return toDto(saved, workerId, reviewerId);
+    }
+
+    @Override
+    public PageableResponse<ReviewDto> getReviews(String workerId, int pageNumber, int pageSize) {
+        PageRequest pageable = PageRequest.of(pageNumber, pageSize, Sort.by("createdAt").descending());
+        Page<Review> page = reviewRepository.findByWorkerUserId(workerId, pageable);
+
+        PageableResponse<ReviewDto> response = new PageableResponse<>();
+        response.setContent(page.getContent().stream()
+                .map(review -> toDto(review, workerId,
+                        review.getReviewer() == null ? null : review.getReviewer().getUserId()))
+                .collect(Collectors.toList()));
+        response.setPageNumber(page.getNumber());
+        response.setPageSize(page.getSize());
+        response.setTotalElement(page.getTotalElements());
+        response.setTotalPages(page.getTotalPages());
+        response.setLastPage(page.isLast());
+        return response;
+    }
+
+    // Ids are passed in so the lazy worker/reviewer proxies are never initialized
+    private ReviewDto toDto(Review review, String workerId, String reviewerId) {
+        return ReviewDto.builder()
+                .reviewId(review.getReviewId())
+                .workerId(workerId)
+                .reviewerId(reviewerId)
+                .rating(review.getRating())
+                .comment(review.getComment())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+}
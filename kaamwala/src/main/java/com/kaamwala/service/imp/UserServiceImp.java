@@ -1,15 +1,20 @@
 package com.kaamwala.service.imp;
 
+import com.kaamwala.cache.CategoryTreeCache;
 import com.kaamwala.dtos.PageableResponse;
 import com.kaamwala.dtos.UserDto;
 import com.kaamwala.exception.ResourceNotFoundException;
 import com.kaamwala.helper.Helper;
-import com.kaamwala.model.Role;
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.mapper.UserMapper;
+import com.kaamwala.model.AccessRole;
 import com.kaamwala.model.User;
-import com.kaamwala.repository.RoleRepository;
+import com.kaamwala.repository.ReviewRepository;
 import com.kaamwala.repository.UserRepository;
+import com.kaamwala.search.TopRatedIndex;
+import com.kaamwala.search.WorkerSearchIndex;
+import com.kaamwala.service.ImageService;
 import com.kaamwala.service.UserService;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,15 +25,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,20 +36,26 @@ public class UserServiceImp implements UserService {
     @Autowired
     UserRepository userRepository;
     @Autowired
-    ModelMapper mapper;
+    UserMapper mapper;
     @Autowired
-    RoleRepository roleRepository;
+    WorkerSearchIndex workerSearchIndex;
+    @Autowired
+    TopRatedIndex topRatedIndex;
+    @Autowired
+    ReviewRepository reviewRepository;
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+    @Autowired
+    ImageService imageService;
 
     @Value("${user.profile.image.path}")
     private String imagePath;
-    @Value("${normal.role.id}")
-    private String normalRoleId;
 
     Logger logger = LoggerFactory.getLogger(UserServiceImp.class);
 
     @Override
     public UserDto createUser(UserDto userDto) {
-        String userId = UUID.randomUUID().toString();
+        String userId = TimeOrderedId.next();
         userDto.setUserId(userId);
         userDto.setPassword(userDto.getPassword());
 
@@ -66,22 +72,33 @@ public class UserServiceImp implements UserService {
             if (userDto.getPreferredLocation() == null) userDto.setPreferredLocation("");
         }
 
-        User user = mapper.map(userDto, User.class);
+        User user = mapper.toEntity(userDto);
 
-        //  ORIGINAL ROLE LOGIC - UNCHANGED
-        Role role = roleRepository.findById(normalRoleId).get();
-        user.getRoles().add(role);
+        user.grant(AccessRole.NORMAL);
         user.setCreatedAt(LocalDateTime.now());
+        Helper.syncServiceAreas(user);
 
         User savedUser = userRepository.save(user);
-        return mapper.map(savedUser, UserDto.class);
+        workerSearchIndex.reindex(savedUser.getUserId());
+        return mapper.toDto(savedUser);
     }
 
     @Override
     public UserDto getUserById(String userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findProfileByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User id not found"));
-        return mapper.map(user, UserDto.class);
+        return mapper.toDto(user);
+    }
+
+    @Override
+    public String getUserETag(String userId) {
+        List<Object[]> version = userRepository.findProfileVersion(userId);
+        if (version.isEmpty()) {
+            throw new ResourceNotFoundException("User id not found");
+        }
+        Object[] row = version.get(0);
+        // Skill DTOs carry subcategory and category names, so catalog edits change the profile too
+        return Helper.eTag(userId, row[0], row[1], row[2], categoryTreeCache.get().getETag());
     }
 
     @Override
@@ -90,22 +107,22 @@ public class UserServiceImp implements UserService {
                 (Sort.by(sortBy).descending()) : (Sort.by(sortBy).ascending());
         Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, sort);
         Page<User> page = userRepository.findAll(pageable);
-        PageableResponse<UserDto> pageableResponse = Helper.getPageableResponse(page, UserDto.class);
+        PageableResponse<UserDto> pageableResponse = Helper.getPageableResponse(page, mapper::toDto);
         return pageableResponse;
     }
 
     @Override
     public UserDto getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+        User user = userRepository.findProfileByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User Email not found"));
-        return mapper.map(user, UserDto.class);
+        return mapper.toDto(user);
     }
 
     @Override
     public List<UserDto> getUSerByKeyword(String keyword) {
         List<User> users = userRepository.findByNameContaining(keyword);
         List<UserDto> collect = users.stream()
-                .map(user -> mapper.map(user, UserDto.class))
+                .map(user -> mapper.toDto(user))
                 .collect(Collectors.toList());
         return collect;
     }
@@ -119,6 +136,7 @@ public class UserServiceImp implements UserService {
     public UserDto updateUser(UserDto userDto, String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User Id Not Found!!"));
+        String previousImageName = user.getImageName();
 
         // UPDATED: Handle all new fields
         user.setName(userDto.getName());
@@ -135,10 +153,18 @@ public class UserServiceImp implements UserService {
         // Note: UserSkills are handled separately through UserSkill management APIs
         // user.setUserSkills(userDto.getUserSkills()); // This would require proper UserSkill entity mapping
         user.setServiceAreas(userDto.getServiceAreas());
+        Helper.syncServiceAreas(user);
+        user.setLatitude(userDto.getLatitude());
+        user.setLongitude(userDto.getLongitude());
+        user.setServiceRadiusKm(userDto.getServiceRadiusKm());
         user.setPreferredLocation(userDto.getPreferredLocation());
 
         User updatedUser = userRepository.save(user);
-        return mapper.map(updatedUser, UserDto.class);
+        workerSearchIndex.reindex(userId);
+        if (previousImageName != null && !previousImageName.equals(updatedUser.getImageName())) {
+            imageService.releaseImage(previousImageName);
+        }
+        return mapper.toDto(updatedUser);
     }
 
     @Override
@@ -146,26 +172,24 @@ public class UserServiceImp implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User id not found!!"));
 
-        // Delete image if exists
-        if (user.getImageName() != null) {
-            try {
-                Path path = Paths.get(user.getImageName());
-                Files.deleteIfExists(path);
-            } catch (IOException ex) {
-                logger.info("User image not found in folder!!");
-                ex.printStackTrace();
-            }
-        }
+        // Reviews about the user go with them; reviews they wrote stay, without an author
+        reviewRepository.deleteByWorkerId(userId);
+        reviewRepository.clearReviewer(userId);
 
         // Delete user
         userRepository.delete(user);
+        workerSearchIndex.remove(userId);
+        topRatedIndex.remove(userId);
+
+        // Delete image if no other user shares it
+        imageService.releaseImage(user.getImageName());
     }
 
     //  NEW: Add method to get users by role
     public List<UserDto> getUsersByRole(String role) {
         List<User> users = userRepository.findByRole(role);
         return users.stream()
-                .map(user -> mapper.map(user, UserDto.class))
+                .map(user -> mapper.toDto(user))
                 .collect(Collectors.toList());
     }
 
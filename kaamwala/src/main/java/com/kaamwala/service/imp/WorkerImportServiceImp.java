@@ -0,0 +1,309 @@
+package com.kaamwala.service.imp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaamwala.cache.CategoryTreeCache;
+import com.kaamwala.dtos.ImportEvent;
+import com.kaamwala.dtos.SubCategoryDto;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.UserSkillDto;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.importer.ImportRowReader;
+import com.kaamwala.model.AccessRole;
+import com.kaamwala.model.UserSkill;
+import com.kaamwala.model.UuidBinaryType;
+import com.kaamwala.search.WorkerSearchIndex;
+import com.kaamwala.service.WorkerImportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import behind /users/import, for partner files of hundreds of thousands of workers.
+ *
+ * Rows are parsed and validated one at a time (the UserDto constraints, which request bodies are
+ * not checked against, then the defaults of /users/create) and written in chunks of
+ * import.chunk-size: one transaction and one JDBC batch per table per
+ * chunk, so with rewriteBatchedStatements MySQL receives a few multi-row INSERTs per chunk instead
+ * of a round trip per row. Emails already registered, or repeated in the file, are rejected
+ * before the insert with one IN (...) query per chunk. If a chunk still fails (say an email
+ * registered concurrently), its rows are retried one by one, so only the offending rows are
+ * reported. Only the current chunk is held in memory.
+ *
+ * The rows bypass JPA, so entity listeners do not run: the workers of each committed chunk are
+ * added to the worker search index with one query, instead of one reindex per worker.
+ */
+@Service
+public class WorkerImportServiceImp implements WorkerImportService {
+
+    private static final String INSERT_USER = "INSERT INTO user (user_id, user_name, user_email, user_password, "
+            + "gender, about, phone_number, user_role, experience_years, hourly_rate, service_areas, latitude, "
+            + "longitude, service_radius_km, rating_count, rating_sum, role_mask, preferred_location, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, " + AccessRole.NORMAL.getMask() + ", ?, ?, ?)";
+
+    private static final String INSERT_AREA = "INSERT INTO service_areas (service_area_id, user_id, area_key, area_name) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_SKILL = "INSERT INTO user_skills (user_skill_id, user_id, sub_category_id, "
+            + "proficiency_level, experience_years, skill_hourly_rate, is_primary_skill, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Logger logger = LoggerFactory.getLogger(WorkerImportServiceImp.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private WorkerSearchIndex workerSearchIndex;
+
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public ImportEvent importWorkers(InputStream in, boolean csv, Consumer<ImportEvent> events) throws IOException {
+        Map<String, String> skillIds = skillIds();
+        Totals totals = new Totals();
+        List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        try (ImportRowReader reader = ImportRowReader.open(in, csv, objectMapper)) {
+            ImportRowReader.ImportRow row;
+            while ((row = reader.next()) != null) {
+                totals.rowsRead++;
+                String email = row.getUser() == null ? null : row.getUser().getEmail();
+                String error = row.getError() != null ? row.getError() : prepare(row.getUser(), skillIds);
+                if (error != null) {
+                    reject(events, totals, row.getNumber(), email, error);
+                    continue;
+                }
+                chunk.add(new PendingUser(row.getNumber(), row.getUser()));
+                if (chunk.size() >= chunkSize) {
+                    write(chunk, events, totals);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, events, totals);
+        }
+        logger.info("Imported {} of {} rows ({} rejected)", totals.imported, totals.rowsRead, totals.failed);
+        return totals.event(ImportEvent.DONE);
+    }
+
+    // Lower-case subcategory id and name -> id, of the active catalog
+    private Map<String, String> skillIds() {
+        Map<String, String> ids = new HashMap<>();
+        for (SubCategoryDto subCategory : categoryTreeCache.get().getSubCategories()) {
+            ids.putIfAbsent(subCategory.getSubCategoryName().toLowerCase(Locale.ROOT), subCategory.getSubCategoryId());
+        }
+        for (SubCategoryDto subCategory : categoryTreeCache.get().getSubCategories()) {
+            ids.put(subCategory.getSubCategoryId().toLowerCase(Locale.ROOT), subCategory.getSubCategoryId());
+        }
+        return ids;
+    }
+
+    // Validates and completes the row the way UserServiceImp.createUser would; null when it can be imported
+    private String prepare(UserDto user, Map<String, String> skillIds) {
+        if (user.getRole() == null || user.getRole().isBlank()) {
+            user.setRole("worker");
+        }
+        String invalid = violations(validator.validate(user));
+        if (invalid != null) {
+            return invalid;
+        }
+        user.setUserId(TimeOrderedId.next());
+        if ("worker".equals(user.getRole())) {
+            if (user.getExperience() == null) user.setExperience(0);
+            if (user.getHourlyRate() == null) user.setHourlyRate(100.0);
+            if (user.getServiceAreas() == null) user.setServiceAreas("");
+        }
+        if ("customer".equals(user.getRole()) && user.getPreferredLocation() == null) {
+            user.setPreferredLocation("");
+        }
+
+        Set<String> seen = new HashSet<>();
+        for (UserSkillDto skill : user.getUserSkills() == null ? Set.<UserSkillDto>of() : user.getUserSkills()) {
+            String given = skill.getSubCategoryId() != null ? skill.getSubCategoryId() : skill.getSubCategoryName();
+            String subCategoryId = given == null ? null : skillIds.get(given.trim().toLowerCase(Locale.ROOT));
+            if (subCategoryId == null) {
+                return "Unknown skill: " + given;
+            }
+            if (!seen.add(subCategoryId)) {
+                return "Skill listed twice: " + given;
+            }
+            skill.setUserId(user.getUserId());
+            skill.setSubCategoryId(subCategoryId);
+            if (skill.getExperienceYears() == null) skill.setExperienceYears(user.getExperience());
+            if (skill.getSkillHourlyRate() == null) skill.setSkillHourlyRate(user.getHourlyRate());
+            if (skill.getIsPrimarySkill() == null) skill.setIsPrimarySkill(false);
+            if (skill.getProficiencyLevel() == null) skill.setProficiencyLevel(proficiency(skill.getExperienceYears()));
+            invalid = violations(validator.validate(skill));
+            if (invalid != null) {
+                return given + ": " + invalid;
+            }
+        }
+        return null;
+    }
+
+    private static String violations(Set<? extends ConstraintViolation<?>> violations) {
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Bands as documented on UserSkill.ProficiencyLevel
+    private static UserSkill.ProficiencyLevel proficiency(Integer years) {
+        int experience = years == null ? 0 : years;
+        if (experience >= 10) return UserSkill.ProficiencyLevel.EXPERT;
+        if (experience >= 5) return UserSkill.ProficiencyLevel.ADVANCED;
+        if (experience >= 2) return UserSkill.ProficiencyLevel.INTERMEDIATE;
+        return UserSkill.ProficiencyLevel.BEGINNER;
+    }
+
+    private void write(List<PendingUser> chunk, Consumer<ImportEvent> events, Totals totals) {
+        Set<String> taken = existingEmails(chunk);
+        List<PendingUser> fresh = new ArrayList<>(chunk.size());
+        Set<String> inChunk = new HashSet<>();
+        for (PendingUser pending : chunk) {
+            String email = pending.user.getEmail();
+            if (taken.contains(email.toLowerCase(Locale.ROOT)) || !inChunk.add(email.toLowerCase(Locale.ROOT))) {
+                reject(events, totals, pending.row, email, "Email already registered");
+            } else {
+                fresh.add(pending);
+            }
+        }
+        List<String> inserted = new ArrayList<>(fresh.size());
+        try {
+            if (!fresh.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> insert(fresh));
+                fresh.forEach(pending -> inserted.add(pending.user.getUserId()));
+            }
+        } catch (DataAccessException ex) {
+            // Find the rows that broke the batch; the others still go in
+            for (PendingUser pending : fresh) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(pending)));
+                    inserted.add(pending.user.getUserId());
+                } catch (DataAccessException rowEx) {
+                    reject(events, totals, pending.row, pending.user.getEmail(),
+                            NestedExceptionUtils.getMostSpecificCause(rowEx).getMessage());
+                }
+            }
+        }
+        totals.imported += inserted.size();
+        workerSearchIndex.reindexAll(inserted);
+        events.accept(totals.event(ImportEvent.PROGRESS));
+    }
+
+    // Lower-cased emails of the chunk that are already registered, including earlier chunks of this file
+    private Set<String> existingEmails(List<PendingUser> chunk) {
+        List<String> emails = chunk.stream().map(pending -> pending.user.getEmail()).toList();
+        return namedParameterJdbcTemplate.queryForList("SELECT user_email FROM user WHERE user_email IN (:emails)",
+                        Map.of("emails", emails), String.class)
+                .stream()
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+    }
+
+    private void insert(List<PendingUser> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> areaRows = new ArrayList<>();
+        List<Object[]> skillRows = new ArrayList<>();
+        for (PendingUser pending : users) {
+            UserDto user = pending.user;
+            byte[] userKey = UuidBinaryType.toBytes(user.getUserId());
+            userRows.add(new Object[]{userKey, user.getName(), user.getEmail(), user.getPassword(),
+                    user.getGender(), user.getAbout(), user.getPhone(), user.getRole(), user.getExperience(),
+                    user.getHourlyRate(), user.getServiceAreas(), user.getLatitude(), user.getLongitude(),
+                    user.getServiceRadiusKm(), user.getPreferredLocation(), now, now});
+            // Same normalization as Helper.syncServiceAreas
+            Helper.parseServiceAreas(user.getServiceAreas()).forEach((key, name) ->
+                    areaRows.add(new Object[]{TimeOrderedId.next(), userKey, key,
+                            name.length() > 100 ? name.substring(0, 100) : name}));
+            if (user.getUserSkills() != null) {
+                for (UserSkillDto skill : user.getUserSkills()) {
+                    skillRows.add(new Object[]{TimeOrderedId.next(), userKey, skill.getSubCategoryId(),
+                            skill.getProficiencyLevel().name(), skill.getExperienceYears(), skill.getSkillHourlyRate(),
+                            skill.getIsPrimarySkill(), now, now});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+        if (!areaRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_AREA, areaRows);
+        }
+        if (!skillRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SKILL, skillRows);
+        }
+    }
+
+    private static void reject(Consumer<ImportEvent> events, Totals totals, long row, String email, String message) {
+        totals.failed++;
+        events.accept(ImportEvent.builder()
+                .type(ImportEvent.ERROR)
+                .row(row)
+                .email(email)
+                .message(message)
+                .build());
+    }
+
+    private static final class PendingUser {
+        private final long row;
+        private final UserDto user;
+
+        private PendingUser(long row, UserDto user) {
+            this.row = row;
+            this.user = user;
+        }
+    }
+
+    private static final class Totals {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        private ImportEvent event(String type) {
+            return ImportEvent.builder()
+                    .type(type)
+                    .rowsRead(rowsRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .build();
+        }
+    }
+}
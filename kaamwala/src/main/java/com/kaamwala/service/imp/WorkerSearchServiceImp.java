@@ -0,0 +1,446 @@
+package com.kaamwala.service.imp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kaamwala.dtos.CursorPageResponse;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.UserSkillDto;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.dtos.WorkerSearchResponse;
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.helper.WorkerCursor;
+import com.kaamwala.mapper.UserMapper;
+import com.kaamwala.model.User;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.WorkerSpecifications;
+import com.kaamwala.search.FacetCounter;
+import com.kaamwala.search.GeoGrid;
+import com.kaamwala.search.TopRatedIndex;
+import com.kaamwala.search.WorkerSearchIndex;
+import com.kaamwala.service.WorkerSearchService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Worker search. Filtered lookups are answered by the in-memory {@link WorkerSearchIndex}
+ * when {@code worker.search.index.enabled=true}, otherwise by the UserRepository queries.
+ */
+@Service
+public class WorkerSearchServiceImp implements WorkerSearchService {
+
+    private static final double MAX_NEARBY_RADIUS_KM = 100;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("name", "experience", "hourlyRate", "createdAt", "averageRating");
+
+    // Workers mapped per block: matches hibernate.default_batch_fetch_size, so the skills of a whole
+    // block are loaded by one query, and the persistence context never holds more than one block
+    private static final int EXPORT_BLOCK_SIZE = 100;
+
+    private static final String CSV_HEADER = "userId,name,email,gender,about,phone,role,experience,hourlyRate,serviceAreas,"
+            + "latitude,longitude,serviceRadiusKm,averageRating,ratingCount,preferredLocation,createdAt,userSkills";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WorkerSearchIndex workerSearchIndex;
+
+    @Autowired
+    private TopRatedIndex topRatedIndex;
+
+    @Autowired
+    private UserMapper mapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final double[] rateBucketEdges;
+
+    private final double[] experienceBucketEdges;
+
+    public WorkerSearchServiceImp(@Value("${worker.search.facets.rate-buckets}") String rateBuckets,
+                                  @Value("${worker.search.facets.experience-buckets}") String experienceBuckets) {
+        this.rateBucketEdges = FacetCounter.parseEdges(rateBuckets);
+        this.experienceBucketEdges = FacetCounter.parseEdges(experienceBuckets);
+    }
+
+    @Override
+    public List<UserDto> getAllWorkers(int page, int size, String sortBy) {
+        checkPage(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+        return toDtos(userRepository.findByRole("worker", pageable));
+    }
+
+    @Override
+    public List<UserDto> getWorkersByCategory(String categoryName, int page, int size) {
+        checkPage(page, size);
+        if (workerSearchIndex.isEnabled()) {
+            return searchIndex(WorkerSearchCriteria.builder().category(categoryName).build(), page, size, Sort.by("name"));
+        }
+        Pageable pageable = PageRequest.of(page, size, withTieBreak("name"));
+        return toDtos(userRepository.findWorkersByCategory(categoryName, pageable));
+    }
+
+    @Override
+    public List<UserDto> getWorkersBySkill(String skillName, int page, int size) {
+        checkPage(page, size);
+        if (workerSearchIndex.isEnabled()) {
+            return searchIndex(WorkerSearchCriteria.builder().skill(skillName).build(), page, size, Sort.by("name"));
+        }
+        Pageable pageable = PageRequest.of(page, size, withTieBreak("name"));
+        return toDtos(userRepository.findWorkersBySkill(skillName, pageable));
+    }
+
+    @Override
+    public List<UserDto> getWorkersByLocation(String location, int page, int size) {
+        checkPage(page, size);
+        if (workerSearchIndex.isEnabled()) {
+            return searchIndex(WorkerSearchCriteria.builder().location(location).build(), page, size, Sort.by("name"));
+        }
+        Pageable pageable = PageRequest.of(page, size, withTieBreak("name"));
+        return toDtos(userRepository.findWorkersByServiceArea(Helper.canonicalArea(location), pageable));
+    }
+
+    @Override
+    public List<UserDto> searchWorkers(WorkerSearchCriteria criteria, int page, int size, String sortBy) {
+        checkPage(page, size);
+        if (workerSearchIndex.isEnabled()) {
+            return searchIndex(criteria, page, size, Sort.by(sortBy));
+        }
+        Pageable pageable = PageRequest.of(page, size, withTieBreak(sortBy));
+        return toDtos(userRepository.findWorkersWithFilters(
+                criteria.getCategory(), criteria.getSkill(),
+                criteria.getLocation() == null ? null : Helper.canonicalArea(criteria.getLocation()),
+                criteria.getMinRate(), criteria.getMaxRate(), criteria.getMinExperience(), pageable));
+    }
+
+    /**
+     * The page, the total and the facets come from one pass over the matching set: the index match
+     * list, or (without the index) one streamed projection query plus the page query. Without
+     * facets the database total is a COUNT query.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public WorkerSearchResponse searchWorkers(WorkerSearchCriteria criteria, int page, int size, String sortBy, boolean facets) {
+        checkPage(page, size);
+        FacetCounter counter = facets ? new FacetCounter(rateBucketEdges, experienceBucketEdges) : null;
+        List<UserDto> content;
+        long totalHits;
+        if (workerSearchIndex.isEnabled()) {
+            WorkerSearchIndex.WorkerHits hits = workerSearchIndex.search(criteria, Sort.by(sortBy), page, size, counter);
+            content = toDtos(loadInOrder(hits.getUserIds()));
+            totalHits = hits.getTotal();
+        } else {
+            String areaKey = criteria.getLocation() == null ? null : Helper.canonicalArea(criteria.getLocation());
+            content = searchWorkers(criteria, page, size, sortBy);
+            if (counter != null) {
+                countFacets(criteria, areaKey, counter);
+                totalHits = counter.getTotal();
+            } else {
+                totalHits = userRepository.countWorkersWithFilters(criteria.getCategory(), criteria.getSkill(), areaKey,
+                        criteria.getMinRate(), criteria.getMaxRate(), criteria.getMinExperience());
+            }
+        }
+        return WorkerSearchResponse.builder()
+                .content(content)
+                .pageNumber(page)
+                .pageSize(size)
+                .totalHits(totalHits)
+                .facets(counter == null ? null : counter.getFacets())
+                .build();
+    }
+
+    // Rows arrive grouped by worker (userId order); each worker is counted when its last row is seen
+    private void countFacets(WorkerSearchCriteria criteria, String areaKey, FacetCounter counter) {
+        try (Stream<Object[]> rows = userRepository.streamWorkerFacetRows(criteria.getCategory(), criteria.getSkill(),
+                areaKey, criteria.getMinRate(), criteria.getMaxRate(), criteria.getMinExperience())) {
+            String currentUserId = null;
+            Object[] current = null;
+            Set<String> categories = new TreeSet<>();
+            Set<String> skills = new TreeSet<>();
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                if (!row[0].equals(currentUserId)) {
+                    if (current != null) {
+                        counter.add((Double) current[1], (Integer) current[2], categories, skills);
+                    }
+                    currentUserId = (String) row[0];
+                    current = row;
+                    categories.clear();
+                    skills.clear();
+                }
+                if (row[3] != null) {
+                    categories.add((String) row[3]);
+                }
+                if (row[4] != null) {
+                    skills.add((String) row[4]);
+                }
+            }
+            if (current != null) {
+                counter.add((Double) current[1], (Integer) current[2], categories, skills);
+            }
+        }
+    }
+
+    @Override
+    public List<UserDto> getTopRatedWorkers(String category, String skill, int page, int size) {
+        checkPage(page, size);
+        // Ranked in memory; only the ids of the requested page are loaded
+        return toDtos(loadInOrder(topRatedIndex.top(category, skill, page, size)));
+    }
+
+    @Override
+    public List<UserDto> getRecentWorkers(int page, int size) {
+        checkPage(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return toDtos(userRepository.findByRole("worker", pageable));
+    }
+
+    @Override
+    public CursorPageResponse<UserDto> seekWorkers(WorkerSearchCriteria criteria, Sort.Order order, String cursor, int size) {
+        checkSize(size);
+        if (!CURSOR_SORT_PROPERTIES.contains(order.getProperty())) {
+            throw new BadApiRequest("Sorting by '" + order.getProperty() + "' is not supported with cursors");
+        }
+        KeysetScrollPosition position = WorkerCursor.decode(cursor, order);
+
+        // Unrated workers have no averageRating to seek from
+        Specification<User> spec = WorkerSpecifications.matching(criteria);
+        if ("averageRating".equals(order.getProperty())) {
+            spec = spec.and(WorkerSpecifications.isRated());
+        }
+
+        // Keyset (sort property, userId) with workers lacking the property last; one extra row tells
+        // whether there is a next page
+        List<User> rows = userRepository.findBy(spec.and(WorkerSpecifications.seek(order, position.getKeys())),
+                query -> query.limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<User> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? WorkerCursor.encode(order, keysetAfter(content.get(size - 1), order)) : null;
+        return CursorPageResponse.<UserDto>builder()
+                .content(toDtos(content))
+                .nextCursor(nextCursor)
+                .pageSize(size)
+                .lastPage(nextCursor == null)
+                .build();
+    }
+
+    /**
+     * Reads the workers through a database cursor (fetch size 500; on MySQL this needs
+     * useCursorFetch=true, otherwise the driver buffers the whole result) and writes each block
+     * as soon as it is mapped, then clears the persistence context, so heap use does not grow with
+     * the number of workers. CSV columns are UserDto field names and userSkills uses the
+     * /users/import format; passwords are never exported.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportWorkers(WorkerSearchCriteria criteria, boolean csv, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        List<User> block = new ArrayList<>(EXPORT_BLOCK_SIZE);
+        try (Stream<User> workers = userRepository.streamWorkersWithFilters(
+                criteria.getCategory(), criteria.getSkill(),
+                criteria.getLocation() == null ? null : Helper.canonicalArea(criteria.getLocation()),
+                criteria.getMinRate(), criteria.getMaxRate(), criteria.getMinExperience())) {
+            Iterator<User> iterator = workers.iterator();
+            while (iterator.hasNext()) {
+                block.add(iterator.next());
+                if (block.size() == EXPORT_BLOCK_SIZE || !iterator.hasNext()) {
+                    for (User worker : block) {
+                        writeWorker(writer, mapper.toDto(worker), csv);
+                    }
+                    block.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeWorker(Writer writer, UserDto worker, boolean csv) throws IOException {
+        worker.setPassword(null);
+        if (!csv) {
+            writer.write(objectMapper.writeValueAsString(worker));
+            writer.write('\n');
+            return;
+        }
+        String skills = worker.getUserSkills() == null ? "" : worker.getUserSkills().stream()
+                .sorted(Comparator.comparing((UserSkillDto skill) -> !Boolean.TRUE.equals(skill.getIsPrimarySkill()))
+                        .thenComparing(UserSkillDto::getSubCategoryName))
+                .map(skill -> skill.getSubCategoryName() + ":" + skill.getProficiencyLevel() + ":"
+                        + Objects.toString(skill.getExperienceYears(), "") + ":" + Objects.toString(skill.getSkillHourlyRate(), ""))
+                .collect(Collectors.joining("|"));
+        Object[] cells = {worker.getUserId(), worker.getName(), worker.getEmail(), worker.getGender(), worker.getAbout(), worker.getPhone(),
+                worker.getRole(), worker.getExperience(), worker.getHourlyRate(), worker.getServiceAreas(),
+                worker.getLatitude(), worker.getLongitude(), worker.getServiceRadiusKm(), worker.getAverageRating(),
+                worker.getRatingCount(), worker.getPreferredLocation(), worker.getCreatedAt(), skills};
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvCell(cells[i]));
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180: quoted when it contains a separator, quote or line break. Text that could run as a
+    // formula is guarded; numbers are not, so negative coordinates stay numbers
+    private static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof String ? Helper.guardCsvFormula((String) value) : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public List<UserDto> getNearbyWorkers(double latitude, double longitude, double radiusKm, String skill, int size) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadApiRequest("Invalid coordinates");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new BadApiRequest("radiusKm must be between 0 and " + MAX_NEARBY_RADIUS_KM);
+        }
+        checkSize(size);
+
+        if (workerSearchIndex.isEnabled()) {
+            List<String> userIds = workerSearchIndex.nearby(latitude, longitude, radiusKm, skill, size).stream()
+                    .map(WorkerSearchIndex.NearbyHit::getUserId)
+                    .collect(Collectors.toList());
+            return toDtos(loadInOrder(userIds));
+        }
+
+        // Without the index: bounding-box query for ids and positions only, exact distance, order and
+        // limit in memory, then only the winners are loaded as entities
+        double latDelta = radiusKm / GeoGrid.KM_PER_DEGREE_LAT;
+        double lngDelta = GeoGrid.longitudeDelta(latitude, radiusKm);
+        Specification<User> spec = WorkerSpecifications.matching(WorkerSearchCriteria.builder().skill(skill).build())
+                .and(WorkerSpecifications.withinBoundingBox(latitude - latDelta, latitude + latDelta,
+                        longitude - lngDelta, longitude + lngDelta));
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(root.get("userId"), root.get("latitude"), root.get("longitude"), root.get("serviceRadiusKm"))
+                .where(spec.toPredicate(root, query, cb));
+        List<String> userIds = entityManager.createQuery(query).getResultStream()
+                .map(row -> {
+                    double distance = GeoGrid.distanceKm(latitude, longitude,
+                            row.get(1, Double.class), row.get(2, Double.class));
+                    Double serviceRadiusKm = row.get(3, Double.class);
+                    return distance <= radiusKm && (serviceRadiusKm == null || distance <= serviceRadiusKm)
+                            ? new WorkerSearchIndex.NearbyHit(row.get(0, String.class), distance) : null;
+                })
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(WorkerSearchIndex.NearbyHit::getDistanceKm)
+                        .thenComparing(WorkerSearchIndex.NearbyHit::getUserId))
+                .limit(size)
+                .map(WorkerSearchIndex.NearbyHit::getUserId)
+                .collect(Collectors.toList());
+        return toDtos(loadInOrder(userIds));
+    }
+
+    /**
+     * Picks up worker and skill writes made on another instance, which never reach this
+     * instance's index otherwise. Each instance still reindexes its own writes immediately.
+     */
+    @Scheduled(fixedDelayString = "${worker.search.refresh.interval-ms:60000}")
+    public void refreshIndexIfChangedElsewhere() {
+        // isStale() is transactional: skip it, and its connection, when there is no index
+        if (workerSearchIndex.isEnabled() && workerSearchIndex.isStale()) {
+            workerSearchIndex.rebuild();
+        }
+    }
+
+    // Checked before either path: the index slices its match list with page * size
+    private static void checkPage(int page, int size) {
+        if (page < 0) {
+            throw new BadApiRequest("page must not be negative");
+        }
+        checkSize(size);
+        if ((long) page * size > Integer.MAX_VALUE) {
+            throw new BadApiRequest("page is out of range");
+        }
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadApiRequest("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    // userId breaks ties as it does in the index, so equal sort values page the same way on both paths
+    private static Sort withTieBreak(String sortBy) {
+        return Sort.by(sortBy).and(Sort.by("userId"));
+    }
+
+    private static KeysetScrollPosition keysetAfter(User last, Sort.Order order) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(order.getProperty(), new BeanWrapperImpl(last).getPropertyValue(order.getProperty()));
+        keys.put("userId", last.getUserId());
+        return ScrollPosition.forward(keys);
+    }
+
+    private List<UserDto> searchIndex(WorkerSearchCriteria criteria, int page, int size, Sort sort) {
+        WorkerSearchIndex.WorkerHits hits = workerSearchIndex.search(criteria, sort, page, size);
+        return toDtos(loadInOrder(hits.getUserIds()));
+    }
+
+    // findAllById does not keep the order of the ids, so re-apply the index order
+    private List<User> loadInOrder(List<String> userIds) {
+        Map<String, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        return userIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<UserDto> toDtos(List<User> workers) {
+        return workers.stream()
+                .map(mapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+-- Swaps the BINARY(16) user ids filled by V9_1 in for the text ones. Foreign keys and indexes on the
+-- old columns are dropped first and recreated with the same names and column order on the new ones.
+alter table user_skills drop foreign key FKrpl0b19tyo13ryrhtxvqfn231;
+alter table service_areas drop foreign key FKd0ryso52kdd3ibhb16ao6oks6;
+alter table reviews drop foreign key FKffgcihxpbrcpcq58t9sev9i4;
+alter table reviews drop foreign key FKntkiu4sb878d2bvi289dqfbq5;
+
+drop index idx_user_skill_user_sub on user_skills;
+drop index idx_user_skill_sub_user on user_skills;
+alter table service_areas drop index uk_service_area_user_key;
+drop index idx_service_area_key_user on service_areas;
+drop index idx_review_worker_created on reviews;
+drop index idx_user_role_name on user;
+drop index idx_user_role_experience on user;
+drop index idx_user_role_hourly_rate on user;
+drop index idx_user_role_created on user;
+drop index idx_user_role_rating on user;
+drop index idx_user_role_id on user;
+
+alter table user_skills drop column user_id;
+alter table user_skills rename column user_key to user_id;
+alter table user_skills modify user_id binary(16) not null;
+alter table service_areas drop column user_id;
+alter table service_areas rename column user_key to user_id;
+alter table service_areas modify user_id binary(16) not null;
+alter table reviews drop column worker_id;
+alter table reviews rename column worker_key to worker_id;
+alter table reviews modify worker_id binary(16) not null;
+alter table reviews drop column reviewer_id;
+alter table reviews rename column reviewer_key to reviewer_id;
+
+alter table user drop primary key;
+alter table user drop column user_id;
+alter table user rename column user_key to user_id;
+alter table user modify user_id binary(16) not null;
+alter table user add primary key (user_id);
+
+create index idx_user_role_name
+    on user (user_role, user_name, user_id);
+
+create index idx_user_role_experience
+    on user (user_role, experience_years, user_id);
+
+create index idx_user_role_hourly_rate
+    on user (user_role, hourly_rate, user_id);
+
+create index idx_user_role_created
+    on user (user_role, created_at desc, user_id);
+
+create index idx_user_role_rating
+    on user (user_role, average_rating desc, user_id);
+
+create index idx_user_role_id
+    on user (user_role, user_id);
+
+create index idx_user_skill_user_sub
+    on user_skills (user_id, sub_category_id);
+
+create index idx_user_skill_sub_user
+    on user_skills (sub_category_id, user_id);
+
+create index idx_service_area_key_user
+    on service_areas (area_key, user_id);
+
+alter table service_areas
+   add constraint uk_service_area_user_key unique (user_id, area_key);
+
+create index idx_review_worker_created
+    on reviews (worker_id, created_at);
+
+alter table user_skills
+   add constraint FKrpl0b19tyo13ryrhtxvqfn231
+   foreign key (user_id)
+   references user (user_id);
+
+alter table service_areas
+   add constraint FKd0ryso52kdd3ibhb16ao6oks6
+   foreign key (user_id)
+   references user (user_id);
+
+alter table reviews
+   add constraint FKffgcihxpbrcpcq58t9sev9i4
+   foreign key (reviewer_id)
+   references user (user_id);
+
+alter table reviews
+   add constraint FKntkiu4sb878d2bvi289dqfbq5
+   foreign key (worker_id)
+   references user (user_id);
@@ -0,0 +1,99 @@
+-- Schema of the application before Flyway, as ddl-auto=update created it. Existing databases
+-- already have it: they are baselined at this version (spring.flyway.baseline-on-migrate) and get
+-- V2 onwards. Names match what update generated.
+
+create table categories (
+    category_id varchar(255) not null,
+    category_name varchar(255) not null,
+    created_at datetime(6),
+    category_description varchar(500),
+    category_icon varchar(255),
+    is_active bit,
+    updated_at datetime(6),
+    primary key (category_id)
+) engine=InnoDB;
+
+create table role (
+    role_id varchar(255) not null,
+    role_name varchar(255),
+    primary key (role_id)
+) engine=InnoDB;
+
+create table sub_categories (
+    sub_category_id varchar(255) not null,
+    created_at datetime(6),
+    sub_category_description varchar(300),
+    is_active bit,
+    sub_category_name varchar(255) not null,
+    updated_at datetime(6),
+    category_id varchar(255) not null,
+    primary key (sub_category_id)
+) engine=InnoDB;
+
+create table user (
+    user_id varchar(255) not null,
+    about varchar(1000),
+    created_at datetime(6),
+    user_email varchar(255),
+    experience_years integer,
+    gender varchar(255),
+    hourly_rate float(53),
+    user_image_name varchar(255),
+    user_name varchar(255),
+    user_password varchar(15),
+    phone_number varchar(15),
+    preferred_location varchar(200),
+    user_role varchar(255),
+    service_areas varchar(500),
+    primary key (user_id)
+) engine=InnoDB;
+
+create table user_roles (
+    user_user_id varchar(255) not null,
+    roles_role_id varchar(255) not null,
+    primary key (user_user_id, roles_role_id)
+) engine=InnoDB;
+
+create table user_skills (
+    user_skill_id varchar(255) not null,
+    created_at datetime(6),
+    experience_years integer,
+    is_primary_skill bit,
+    proficiency_level enum ('ADVANCED','BEGINNER','EXPERT','INTERMEDIATE'),
+    skill_hourly_rate float(53),
+    updated_at datetime(6),
+    sub_category_id varchar(255) not null,
+    user_id varchar(255) not null,
+    primary key (user_skill_id)
+) engine=InnoDB;
+
+alter table categories
+   add constraint UK41g4n0emuvcm3qyf1f6cn43c0 unique (category_name);
+
+alter table user
+   add constraint UKj09k2v8lxofv2vecxu2hde9so unique (user_email);
+
+alter table sub_categories
+   add constraint FKjwy7imy3rf6r99x48ydq45otw
+   foreign key (category_id)
+   references categories (category_id);
+
+alter table user_roles
+   add constraint FKhxmmg8j4h4qpwbvf39cnujlkf
+   foreign key (roles_role_id)
+   references role (role_id);
+
+alter table user_roles
+   add constraint FKkv46dn3qakjvsk7ra33nd5sns
+   foreign key (user_user_id)
+   references user (user_id);
+
+alter table user_skills
+   add constraint FKq7a0yb8pbt0p2tyn0ms47pnth
+   foreign key (sub_category_id)
+   references sub_categories (sub_category_id);
+
+alter table user_skills
+   add constraint FKrpl0b19tyo13ryrhtxvqfn231
+   foreign key (user_id)
+   references user (user_id);
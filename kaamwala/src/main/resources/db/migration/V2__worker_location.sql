@@ -0,0 +1,7 @@
+-- Worker position and travel radius for /api/workers/search/nearby
+alter table user add column latitude float(53);
+alter table user add column longitude float(53);
+alter table user add column service_radius_km float(53);
+
+create index idx_user_location
+    on user (latitude, longitude);
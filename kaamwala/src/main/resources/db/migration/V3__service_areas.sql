@@ -0,0 +1,20 @@
+-- One row per (worker, service area): user.service_areas text as indexed keys.
+-- Filled from the existing text by V3_1__BackfillServiceAreas.
+create table service_areas (
+    service_area_id varchar(255) not null,
+    area_key varchar(100) not null,
+    area_name varchar(100),
+    user_id varchar(255) not null,
+    primary key (service_area_id)
+) engine=InnoDB;
+
+create index idx_service_area_key_user
+    on service_areas (area_key, user_id);
+
+alter table service_areas
+   add constraint uk_service_area_user_key unique (user_id, area_key);
+
+alter table service_areas
+   add constraint FKd0ryso52kdd3ibhb16ao6oks6
+   foreign key (user_id)
+   references user (user_id);
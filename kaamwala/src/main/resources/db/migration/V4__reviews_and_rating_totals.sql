@@ -0,0 +1,31 @@
+-- Worker reviews, and the rating totals RatingAggregator keeps on the user row
+alter table user add column rating_count bigint;
+alter table user add column rating_sum bigint;
+alter table user add column average_rating float(53);
+update user set rating_count = 0, rating_sum = 0;
+
+create index idx_user_role_rating
+    on user (user_role, average_rating);
+
+create table reviews (
+    review_id varchar(255) not null,
+    review_comment varchar(1000),
+    created_at datetime(6),
+    rating integer not null,
+    reviewer_id varchar(255),
+    worker_id varchar(255) not null,
+    primary key (review_id)
+) engine=InnoDB;
+
+create index idx_review_worker_created
+    on reviews (worker_id, created_at);
+
+alter table reviews
+   add constraint FKffgcihxpbrcpcq58t9sev9i4
+   foreign key (reviewer_id)
+   references user (user_id);
+
+alter table reviews
+   add constraint FKntkiu4sb878d2bvi289dqfbq5
+   foreign key (worker_id)
+   references user (user_id);
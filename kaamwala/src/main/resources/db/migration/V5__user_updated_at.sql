@@ -0,0 +1,2 @@
+-- Profile change time, part of the profile ETag
+alter table user add column updated_at datetime(6);
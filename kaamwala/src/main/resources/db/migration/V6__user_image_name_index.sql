@@ -0,0 +1,3 @@
+-- Content-addressed uploads: a file is deleted only when no other user references it
+create index idx_user_image_name
+    on user (user_image_name);
@@ -0,0 +1,15 @@
+-- Security roles move from the user_roles join table into bits of user.role_mask
+-- (AccessRole: ROLE_ADMIN = 1, ROLE_NORMAL = 2), then the join table goes.
+alter table user add column role_mask integer not null default 0;
+
+update user set role_mask = role_mask + 1
+where user_id in (select ur.user_user_id from user_roles ur
+                  join role r on r.role_id = ur.roles_role_id
+                  where r.role_name = 'ROLE_ADMIN');
+
+update user set role_mask = role_mask + 2
+where user_id in (select ur.user_user_id from user_roles ur
+                  join role r on r.role_id = ur.roles_role_id
+                  where r.role_name = 'ROLE_NORMAL');
+
+drop table user_roles;
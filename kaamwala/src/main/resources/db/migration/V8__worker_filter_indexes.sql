@@ -0,0 +1,41 @@
+-- Indexes for the worker queries in UserRepository and the WorkerSearchController sorts.
+-- Every worker query filters on user_role = 'worker', so user_role leads. user_id (the primary key)
+-- ends each sort index: it is the keyset tie-breaker Spring Data appends (ascending) to cursor sorts.
+-- WorkerQueryPlanTest checks with EXPLAIN that each query uses the index written for it.
+
+-- ?sortBy=name (the default), the category/skill/location endpoints
+create index idx_user_role_name
+    on user (user_role, user_name, user_id);
+
+-- ?sortBy=experience (both directions), minExperience filters
+create index idx_user_role_experience
+    on user (user_role, experience_years, user_id);
+
+-- ?sortBy=hourlyRate, minRate/maxRate filters, findWorkersByMaxRate
+create index idx_user_role_hourly_rate
+    on user (user_role, hourly_rate, user_id);
+
+-- /recent (createdAt DESC). Cursor pages sort createdAt DESC, userId ASC: the DESC column lets
+-- MySQL read that mixed order straight from the index
+create index idx_user_role_created
+    on user (user_role, created_at desc, user_id);
+
+-- /top-rated cursor pages (averageRating DESC, userId ASC), same reason
+alter table user drop index idx_user_role_rating;
+create index idx_user_role_rating
+    on user (user_role, average_rating desc, user_id);
+
+-- export and facet counting walk workers in user_id order
+create index idx_user_role_id
+    on user (user_role, user_id);
+
+-- findWorkerRatingTotals reads only these columns: answered from the index (covering)
+create index idx_user_role_rating_totals
+    on user (user_role, rating_count, rating_sum);
+
+-- category/skill EXISTS subqueries and joins: a worker's skills by subcategory, from either side
+create index idx_user_skill_user_sub
+    on user_skills (user_id, sub_category_id);
+
+create index idx_user_skill_sub_user
+    on user_skills (sub_category_id, user_id);
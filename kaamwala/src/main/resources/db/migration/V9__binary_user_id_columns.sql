@@ -0,0 +1,7 @@
+-- User ids move from varchar(255) UUID text to BINARY(16) (model.UuidBinaryType). The binary
+-- copies are added next to the text columns here, filled by V9_1__ConvertUserIds and swapped in by V10.
+alter table user add column user_key binary(16);
+alter table user_skills add column user_key binary(16);
+alter table service_areas add column user_key binary(16);
+alter table reviews add column worker_key binary(16);
+alter table reviews add column reviewer_key binary(16);
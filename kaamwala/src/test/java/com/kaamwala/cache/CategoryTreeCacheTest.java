@@ -0,0 +1,61 @@
+package com.kaamwala.cache;
+
+import com.kaamwala.mapper.CategoryMapper;
+import com.kaamwala.repository.CategoryRepository;
+import com.kaamwala.repository.SubCategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeCacheTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubCategoryRepository subCategoryRepository;
+
+    @Mock
+    private CategoryMapper mapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @InjectMocks
+    private CategoryTreeCache cache;
+
+    // get() builds the first tree itself, without going through the Spring proxy
+    @Test
+    void firstGetLoadsTheTreeInOneReadOnlyTransaction() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+
+        CategoryTreeCache.Snapshot tree = cache.get();
+
+        assertThat(tree.getVersion()).isEqualTo(1);
+        assertThat(tree.getCategories()).isEmpty();
+        InOrder order = inOrder(transactionManager, categoryRepository, subCategoryRepository);
+        order.verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        order.verify(categoryRepository).findChangeStamp();
+        order.verify(subCategoryRepository).findActiveWithCategory();
+        order.verify(categoryRepository).findByIsActiveTrue();
+        order.verify(transactionManager).commit(transactionStatus);
+
+        assertThat(cache.get()).isSameAs(tree);
+        verifyNoMoreInteractions(transactionManager);
+    }
+}
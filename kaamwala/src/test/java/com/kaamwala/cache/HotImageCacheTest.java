@@ -0,0 +1,244 @@
+package com.kaamwala.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Room for three 1000-byte images. Popularity is raised by calling get, as every image request does
+ * before anything is loaded.
+ */
+class HotImageCacheTest {
+
+    private static final long MAX_BYTES = 3000;
+    private static final long MAX_ENTRY_BYTES = 2000;
+
+    @TempDir
+    Path folder;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HotImageCache cache = new HotImageCache();
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxBytes", MAX_BYTES);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", MAX_ENTRY_BYTES);
+        cache.init();
+    }
+
+    @Test
+    void loadedImageIsServedFromMemory() throws Exception {
+        Path a = image("a", 1000);
+
+        assertThat(cache.get(a)).isNull();
+        HotImageCache.Entry loaded = cache.load(a, 1000, "hash-a", "image/png");
+        HotImageCache.Entry hit = cache.get(a);
+
+        assertThat(hit).isSameAs(loaded);
+        assertThat(hit.getHash()).isEqualTo("hash-a");
+        assertThat(hit.getContentType()).isEqualTo("image/png");
+        assertThat(bytesOf(hit)).isEqualTo(Files.readAllBytes(a));
+        assertThat(counter("image.cache.hits")).isEqualTo(1);
+        assertThat(counter("image.cache.misses")).isEqualTo(1);
+        assertThat(gauge("image.cache.bytes")).isEqualTo(1000);
+        assertThat(gauge("image.cache.entries")).isEqualTo(1);
+        assertThat(gauge("image.cache.hit.ratio")).isEqualTo(0.5);
+    }
+
+    @Test
+    void oversizedAndEmptyFilesAreNeverCached() throws Exception {
+        Path large = image("large", 2001);
+        Path empty = image("empty", 0);
+
+        assertThat(cache.load(large, 2001, "hash", "image/jpeg")).isNull();
+        assertThat(cache.load(empty, 0, "hash", "image/jpeg")).isNull();
+        assertThat(gauge("image.cache.entries")).isZero();
+        assertThat(counter("image.cache.rejections")).isZero();
+    }
+
+    @Test
+    void entriesAreAdmittedFreelyWhileThereIsRoom() throws Exception {
+        for (String name : new String[]{"a", "b", "c"}) {
+            assertThat(cache.load(image(name, 1000), 1000, name, "image/png")).isNotNull();
+        }
+
+        assertThat(gauge("image.cache.bytes")).isEqualTo(MAX_BYTES);
+        assertThat(counter("image.cache.evictions")).isZero();
+    }
+
+    @Test
+    void lessPopularNewcomerIsRejected() throws Exception {
+        Path a = popular("a", 3);
+        Path b = popular("b", 3);
+        Path c = popular("c", 3);
+        Path d = image("d", 1000);
+
+        cache.get(d);
+        assertThat(cache.load(d, 1000, "d", "image/png")).isNull();
+
+        assertThat(counter("image.cache.rejections")).isEqualTo(1);
+        assertThat(counter("image.cache.evictions")).isZero();
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(b)).isNotNull();
+        assertThat(cache.get(c)).isNotNull();
+        assertThat(cache.get(d)).isNull();
+    }
+
+    @Test
+    void morePopularNewcomerEvictsTheLeastRecentlyUsed() throws Exception {
+        Path a = popular("a", 2);
+        Path b = popular("b", 2);
+        Path c = popular("c", 2);
+        // a is used again, so b is now the least recently used
+        cache.get(a);
+        Path d = image("d", 1000);
+        for (int i = 0; i < 5; i++) {
+            cache.get(d);
+        }
+
+        assertThat(cache.load(d, 1000, "d", "image/png")).isNotNull();
+
+        assertThat(counter("image.cache.evictions")).isEqualTo(1);
+        assertThat(gauge("image.cache.bytes")).isEqualTo(MAX_BYTES);
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(c)).isNotNull();
+        assertThat(cache.get(d)).isNotNull();
+    }
+
+    // A newcomer needing the room of two entries has to beat both, or nothing is evicted
+    @Test
+    void everyVictimMustBeLessPopular() throws Exception {
+        Path a = popular("a", 2);
+        Path b = popular("b", 8);
+        popular("c", 2);
+        cache.get(a);
+        Path large = image("large", 1500);
+        for (int i = 0; i < 5; i++) {
+            cache.get(large);
+        }
+
+        // b (the least recently used) is more popular than the newcomer
+        assertThat(cache.load(large, 1500, "large", "image/jpeg")).isNull();
+        assertThat(gauge("image.cache.entries")).isEqualTo(3);
+        assertThat(counter("image.cache.evictions")).isZero();
+
+        for (int i = 0; i < 5; i++) {
+            cache.get(large);
+        }
+        assertThat(cache.load(large, 1500, "large", "image/jpeg")).isNotNull();
+        // b and c made room; a, used after them, stays
+        assertThat(counter("image.cache.evictions")).isEqualTo(2);
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(gauge("image.cache.bytes")).isEqualTo(2500);
+    }
+
+    // One pass over many rarely viewed profiles leaves the avatars everybody sees in place
+    @Test
+    void scanDoesNotFlushPopularImages() throws Exception {
+        Path a = popular("a", 5);
+        Path b = popular("b", 5);
+        Path c = popular("c", 5);
+
+        for (int i = 0; i < 200; i++) {
+            Path once = image("scan-" + i, 1000);
+            cache.get(once);
+            assertThat(cache.load(once, 1000, "scan", "image/png")).isNull();
+        }
+
+        assertThat(counter("image.cache.rejections")).isEqualTo(200);
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(b)).isNotNull();
+        assertThat(cache.get(c)).isNotNull();
+    }
+
+    @Test
+    void invalidatedEntryIsGoneAndFreesItsRoom() throws Exception {
+        Path a = popular("a", 3);
+        popular("b", 3);
+        popular("c", 3);
+
+        cache.invalidate(a);
+        cache.invalidate(image("never-cached", 10));
+
+        assertThat(cache.get(a)).isNull();
+        assertThat(gauge("image.cache.bytes")).isEqualTo(2000);
+        assertThat(gauge("image.cache.entries")).isEqualTo(2);
+        // The freed room takes a newcomer without any popularity contest
+        Path d = image("d", 1000);
+        assertThat(cache.load(d, 1000, "d", "image/png")).isNotNull();
+        assertThat(counter("image.cache.evictions")).isZero();
+    }
+
+    @Test
+    void reloadingReplacesTheEntry() throws Exception {
+        Path a = image("a", 1000);
+        cache.load(a, 1000, "old", "image/png");
+
+        Files.write(a, new byte[500]);
+        HotImageCache.Entry reloaded = cache.load(a, 500, "new", "image/png");
+
+        assertThat(cache.get(a)).isSameAs(reloaded);
+        assertThat(gauge("image.cache.bytes")).isEqualTo(500);
+    }
+
+    // Concurrent requests slice the same entry without seeing each other's position and limit
+    @Test
+    void everyCallerGetsItsOwnView() throws Exception {
+        Path a = image("a", 1000);
+        HotImageCache.Entry entry = cache.load(a, 1000, "a", "image/png");
+
+        ByteBuffer first = entry.bytes();
+        first.position(600).limit(700);
+        ByteBuffer second = entry.bytes();
+
+        assertThat(second.position()).isZero();
+        assertThat(second.remaining()).isEqualTo(1000);
+        assertThat(second.isReadOnly()).isTrue();
+        assertThat(entry.size()).isEqualTo(1000);
+    }
+
+    // A cached image that has been asked for `requests` times
+    private Path popular(String name, int requests) throws Exception {
+        Path file = image(name, 1000);
+        for (int i = 0; i < requests; i++) {
+            cache.get(file);
+        }
+        assertThat(cache.load(file, 1000, name, "image/png")).isNotNull();
+        return file;
+    }
+
+    private Path image(String name, int size) throws Exception {
+        byte[] bytes = new byte[size];
+        new Random(name.hashCode()).nextBytes(bytes);
+        return Files.write(folder.resolve(name + ".png"), bytes);
+    }
+
+    private static byte[] bytesOf(HotImageCache.Entry entry) {
+        ByteBuffer buffer = entry.bytes();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,395 @@
+package com.kaamwala.controller;
+
+import com.kaamwala.cache.HotImageCache;
+import com.kaamwala.image.ImageVariant;
+import com.kaamwala.model.User;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.service.FileService;
+import com.kaamwala.service.ImageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /users/image/{userId}: full and partial responses, conditional requests and cache headers.
+ * The avatar is small enough for HotImageCache and is written from memory after its first
+ * request; the photo is above image.cache.max-entry-bytes and always read from its file.
+ * Released images are deleted at once (no reuse grace period).
+ */
+@SpringBootTest(properties = {"image.cache.max-entry-bytes=1024", "image.store.reuse-grace=0s"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ImageServingTest {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    // Created before the context, which reads the folder from user.profile.image.path
+    private static final Path imageFolder = createFolder();
+
+    @DynamicPropertySource
+    static void imageFolder(DynamicPropertyRegistry registry) {
+        registry.add("user.profile.image.path", imageFolder::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Autowired
+    private ImageService imageService;
+
+    private byte[] avatar;
+    private byte[] photo;
+    private byte[] largePhoto;
+
+    private String avatarUser;
+    private String photoUser;
+    private String largePhotoUser;
+    private String userWithoutImage;
+
+    @BeforeAll
+    void storeImages() throws Exception {
+        avatar = png(8, 8);
+        photo = jpegLike(5_000, 1);
+        largePhoto = jpegLike(100_000, 2);
+        assertThat(avatar.length).isLessThan(1024);
+
+        // PNG bytes under a .jpg name: the content type comes from the bytes
+        avatarUser = userWithImage(upload("avatar.jpg", avatar));
+        photoUser = userWithImage(upload("photo.jpg", photo));
+        largePhotoUser = userWithImage(upload("large.jpg", largePhoto));
+        userWithoutImage = userWithImage(null);
+    }
+
+    @AfterAll
+    void deleteImages() throws Exception {
+        FileSystemUtils.deleteRecursively(imageFolder);
+    }
+
+    @Test
+    void servesTheWholeImage() throws Exception {
+        for (String userId : new String[]{avatarUser, avatarUser, photoUser}) {
+            byte[] expected = userId.equals(avatarUser) ? avatar : photo;
+            mockMvc.perform(get("/users/image/" + userId))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, expected.length))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                    .andExpect(content().bytes(expected));
+        }
+
+        assertThat(hotImageCache.get(file(avatarUser))).isNotNull();
+        assertThat(hotImageCache.get(file(photoUser))).isNull();
+    }
+
+    @Test
+    void contentTypeComesFromTheBytes() throws Exception {
+        mockMvc.perform(get("/users/image/" + avatarUser))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG));
+        mockMvc.perform(get("/users/image/" + photoUser))
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        mockMvc.perform(head("/users/image/" + photoUser))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, photo.length))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    // Hot (in memory) and cold (file channel) bodies are sliced alike
+    @Test
+    void servesOneRange() throws Exception {
+        expectRange(avatarUser, avatar, "bytes=10-19", 10, 19);
+        expectRange(avatarUser, avatar, "bytes=-5", avatar.length - 5, avatar.length - 1);
+        expectRange(avatarUser, avatar, "bytes=20-", 20, avatar.length - 1);
+        expectRange(photoUser, photo, "bytes=1000-1999", 1000, 1999);
+        expectRange(photoUser, photo, "bytes=-1", photo.length - 1, photo.length - 1);
+        // An end past the file is cut to its last byte
+        expectRange(photoUser, photo, "bytes=4990-9999", 4990, photo.length - 1);
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() throws Exception {
+        for (String userId : new String[]{avatarUser, photoUser}) {
+            long size = userId.equals(avatarUser) ? avatar.length : photo.length;
+            mockMvc.perform(get("/users/image/" + userId).header(HttpHeaders.RANGE, "bytes=" + size + "-"))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + size))
+                    .andExpect(content().bytes(new byte[0]));
+        }
+    }
+
+    // Malformed and multi-part ranges are ignored rather than answered with multipart/byteranges
+    @Test
+    void unusableRangeHeaderSendsTheWholeImage() throws Exception {
+        for (String range : new String[]{"bytes=0-9,20-29", "bytes=abc", "items=0-9", "bytes=9-3"}) {
+            mockMvc.perform(get("/users/image/" + photoUser).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isOk())
+                    .andExpect(content().bytes(photo));
+        }
+    }
+
+    @Test
+    void ifRangeHonoursTheRangeOnlyForTheCurrentETag() throws Exception {
+        String eTag = eTagOf(photoUser);
+
+        expectRange(photoUser, photo, "bytes=0-99", 0, 99, eTag);
+        mockMvc.perform(get("/users/image/" + photoUser)
+                        .header(HttpHeaders.RANGE, "bytes=0-99")
+                        .header(HttpHeaders.IF_RANGE, "\"0123456789abcdef0123456789abcdef\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(photo));
+    }
+
+    @Test
+    void matchingETagIsNotModified() throws Exception {
+        for (String userId : new String[]{avatarUser, photoUser}) {
+            String eTag = eTagOf(userId);
+            mockMvc.perform(get("/users/image/" + userId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(content().bytes(new byte[0]));
+            // Wins over Range: a client that has the image needs none of it
+            mockMvc.perform(get("/users/image/" + userId)
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                            .header(HttpHeaders.RANGE, "bytes=0-9"))
+                    .andExpect(status().isNotModified());
+        }
+        mockMvc.perform(get("/users/image/" + photoUser).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    // Content-addressed uploads: the ETag is the first half of the SHA-256 in the file name
+    @Test
+    void eTagIsTheContentHash() throws Exception {
+        String imageName = userRepository.findImageNameByUserId(photoUser).orElseThrow();
+        String fileName = imageName.substring(imageName.lastIndexOf('/') + 1);
+
+        assertThat(eTagOf(photoUser)).isEqualTo("\"" + fileName.substring(0, 32) + "\"");
+        assertThat(eTagOf(avatarUser)).isNotEqualTo(eTagOf(photoUser));
+    }
+
+    @Test
+    void versionedUrlIsCachedAsImmutable() throws Exception {
+        String eTag = eTagOf(avatarUser);
+        String hash = eTag.substring(1, eTag.length() - 1);
+
+        mockMvc.perform(get("/users/image/" + avatarUser).param("v", hash))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+        // A stale version (the user has a new image since) must still revalidate
+        mockMvc.perform(get("/users/image/" + avatarUser).param("v", "0123456789abcdef0123456789abcdef"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().bytes(avatar));
+        // 304s carry it too, so a revalidated entry stays immutable
+        mockMvc.perform(get("/users/image/" + avatarUser).param("v", hash).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"));
+    }
+
+    // Large files are left to the connector; nothing is written to the response
+    @Test
+    void largeFileIsHandedToSendfile() throws Exception {
+        MockHttpServletRequest request = mockMvc.perform(get("/users/image/" + largePhotoUser)
+                        .requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, largePhoto.length - 100))
+                .andExpect(content().bytes(new byte[0]))
+                .andReturn().getRequest();
+
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(file(largePhotoUser).toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(100L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo((long) largePhoto.length);
+
+        // Without connector support the same file is copied through the response
+        mockMvc.perform(get("/users/image/" + largePhotoUser))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(largePhoto));
+    }
+
+    @Test
+    void ungeneratedVariantFallsBackToTheOriginal() throws Exception {
+        mockMvc.perform(get("/users/image/" + photoUser).param("variant", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTagOf(photoUser)))
+                .andExpect(content().bytes(photo));
+    }
+
+    @Test
+    void missingImageIsNotFound() throws Exception {
+        mockMvc.perform(get("/users/image/" + userWithoutImage)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/image/" + UUID.randomUUID())).andExpect(status().isNotFound());
+        // User ids are stored as BINARY(16); one that is not a UUID matches nobody
+        mockMvc.perform(get("/users/image/not-a-user")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/image/" + photoUser).param("variant", "huge")).andExpect(status().isBadRequest());
+    }
+
+    // The original and its variants are all dropped from memory with their files
+    @Test
+    void releasedImageLeavesTheCache() throws Exception {
+        String imageName = upload("released.png", png(16, 12));
+        String userId = userWithImage(imageName);
+        imageService.generateVariants(imageName);
+        Path original = file(userId);
+        Path thumb = original.resolveSibling(ImageVariant.THUMB.fileName(original.getFileName().toString()));
+        awaitFile(original.resolveSibling(ImageVariant.FULL.fileName(original.getFileName().toString())));
+        for (String variant : new String[]{"", "thumb"}) {
+            mockMvc.perform(get("/users/image/" + userId).param("variant", variant)).andExpect(status().isOk());
+        }
+        assertThat(hotImageCache.get(original)).isNotNull();
+        assertThat(hotImageCache.get(thumb)).isNotNull();
+
+        User user = userRepository.findById(userId).orElseThrow();
+        user.setImageName(null);
+        userRepository.save(user);
+        imageService.releaseImage(imageName);
+
+        assertThat(original).doesNotExist();
+        assertThat(thumb).doesNotExist();
+        assertThat(hotImageCache.get(original)).isNull();
+        assertThat(hotImageCache.get(thumb)).isNull();
+    }
+
+    // A shared file stays, in memory too, while another user still has it
+    @Test
+    void sharedImageIsKeptWhileStillInUse() throws Exception {
+        byte[] shared = png(6, 6);
+        String imageName = upload("shared.png", shared);
+        String keeper = userWithImage(imageName);
+        String leaver = userWithImage(upload("same.png", shared));
+        mockMvc.perform(get("/users/image/" + leaver)).andExpect(status().isOk());
+
+        User user = userRepository.findById(leaver).orElseThrow();
+        user.setImageName(null);
+        userRepository.save(user);
+        imageService.releaseImage(imageName);
+
+        assertThat(file(keeper)).exists();
+        assertThat(hotImageCache.get(file(keeper))).isNotNull();
+        mockMvc.perform(get("/users/image/" + keeper))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(shared));
+    }
+
+    private void expectRange(String userId, byte[] image, String range, int start, int end) throws Exception {
+        expectRange(userId, image, range, start, end, null);
+    }
+
+    private void expectRange(String userId, byte[] image, String range, int start, int end, String ifRange) throws Exception {
+        var request = get("/users/image/" + userId).header(HttpHeaders.RANGE, range);
+        if (ifRange != null) {
+            request.header(HttpHeaders.IF_RANGE, ifRange);
+        }
+        mockMvc.perform(request)
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, end - start + 1))
+                .andExpect(content().bytes(Arrays.copyOfRange(image, start, end + 1)));
+    }
+
+    private Path file(String userId) {
+        return imageFolder.resolve(userRepository.findImageNameByUserId(userId).orElseThrow()).toAbsolutePath();
+    }
+
+    private static void awaitFile(Path file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Files.isRegularFile(file) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(file).isRegularFile();
+    }
+
+    private String eTagOf(String userId) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/users/image/" + userId)).andReturn().getResponse();
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    private String upload(String fileName, byte[] bytes) throws Exception {
+        return fileService.uploadImage(new MockMultipartFile("userImage", fileName, null, bytes), imageFolder.toString());
+    }
+
+    private String userWithImage(String imageName) {
+        User user = User.builder()
+                .userId(UUID.randomUUID().toString())
+                .name("Image User")
+                .email(UUID.randomUUID() + "@test.com")
+                .role("customer")
+                .imageName(imageName)
+                .createdAt(LocalDateTime.now())
+                .build();
+        return userRepository.save(user).getUserId();
+    }
+
+    private static Path createFolder() {
+        try {
+            return Files.createTempDirectory("kaamwala-images");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(1, 1, 0xFF8800);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    // JPEG magic bytes and random content: served as image/jpeg, never decoded
+    private static byte[] jpegLike(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        return bytes;
+    }
+}
@@ -0,0 +1,47 @@
+package com.kaamwala.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paging parameters of /api/workers/top-rated are checked before they reach the in-memory top lists.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class TopRatedPagingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {
+            "page=-1",
+            "size=-1",
+            "size=0",
+            "size=101",
+            "category=Plumbing&page=-3",
+            "page=2147483647&size=100",
+            "cursor=&size=-1"
+    })
+    void invalidPagingIsABadRequest(String query) throws Exception {
+        mockMvc.perform(get("/api/workers/top-rated?" + query))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void pageBeyondTheTopListIsEmpty() throws Exception {
+        mockMvc.perform(get("/api/workers/top-rated?page=50&size=100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+}
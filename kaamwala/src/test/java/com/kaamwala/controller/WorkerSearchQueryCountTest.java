@@ -0,0 +1,217 @@
+package com.kaamwala.controller;
+
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import com.kaamwala.repository.SubCategoryRepository;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.UserSkillRepository;
+import com.kaamwala.search.TopRatedIndex;
+import com.kaamwala.support.StatementBudget;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Mapping a page of workers to UserDto must cost a fixed number of statements: the page query
+ * plus one batched query each for skills, subcategories and categories, however many workers
+ * the page holds. Conditional GETs of unchanged resources must answer 304 with at most the
+ * ETag lookup.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkerSearchQueryCountTest {
+
+    private static final int WORKERS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSkillRepository userSkillRepository;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    @Autowired
+    private TopRatedIndex topRatedIndex;
+
+    private String workerId;
+
+    @BeforeAll
+    void seedWorkers() {
+        SubCategory pipes = subCategoryRepository.findById("PLUMB_SUB_001").orElseThrow();
+        SubCategory wiring = subCategoryRepository.findById("ELEC_SUB_001").orElseThrow();
+        for (int i = 0; i < WORKERS; i++) {
+            User worker = User.builder()
+                    .userId(UUID.randomUUID().toString())
+                    .name(String.format("Worker %02d", i))
+                    .email("worker" + i + "@test.com")
+                    .role("worker")
+                    .experience(i)
+                    .hourlyRate(200.0 + i)
+                    .serviceAreas("Delhi, Noida")
+                    .latitude(28.60 + i * 0.001)
+                    .longitude(77.20)
+                    .ratingCount(i + 1L)
+                    .ratingSum(4L * (i + 1))
+                    .averageRating(4.0)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            Helper.syncServiceAreas(worker);
+            userRepository.save(worker);
+            userSkillRepository.save(skill(worker, pipes));
+            userSkillRepository.save(skill(worker, wiring));
+            workerId = worker.getUserId();
+        }
+        topRatedIndex.rebuild();
+    }
+
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+                Arguments.of("/api/workers/all", "$", 4),
+                Arguments.of("/api/workers/all?cursor=", "$.content", 4),
+                Arguments.of("/api/workers/search/category/Plumbing", "$", 4),
+                Arguments.of("/api/workers/search/skill/Home Wiring", "$", 4),
+                Arguments.of("/api/workers/search/location/Delhi", "$", 4),
+                Arguments.of("/api/workers/search?category=Plumbing&minRate=100", "$", 4),
+                Arguments.of("/api/workers/search?skill=Pipe Installation&cursor=", "$.content", 4),
+                Arguments.of("/api/workers/search/nearby?lat=28.6&lng=77.2&radiusKm=20", "$", 4),
+                Arguments.of("/api/workers/top-rated", "$", 4),
+                Arguments.of("/api/workers/top-rated?cursor=", "$.content", 4),
+                Arguments.of("/api/workers/recent", "$", 4)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void statementCountDoesNotGrowWithPageSize(String url, String contentPath, int budget) throws Exception {
+        long small = statementsFor(url, 5, contentPath);
+        long large = statementsFor(url, WORKERS, contentPath);
+
+        assertThat(large).isEqualTo(small);
+        assertThat(large).isLessThanOrEqualTo(budget);
+    }
+
+    // Same budgets through the X-Query-Statements header, which counts JdbcTemplate statements too
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void endpointStaysWithinStatementBudget(String url, String contentPath, int budget) throws Exception {
+        mockMvc.perform(get(url + (url.contains("?") ? "&" : "?") + "size=" + WORKERS))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(budget));
+    }
+
+    @Test
+    void statementBudgetFailsWhenExceeded() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/api/workers/search/category/Plumbing"))
+                .andExpect(StatementBudget.atMost(1)))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("GET /api/workers/search/category/Plumbing issued")
+                .hasMessageContaining("budget is 1");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("singleUserEndpoints")
+    void singleUserIsLoadedWithOneStatement(String url, int statements) throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    // getById first reads the profile version for its ETag
+    Stream<Arguments> singleUserEndpoints() {
+        return Stream.of(
+                Arguments.of("/users/getById/" + workerId, 2),
+                Arguments.of("/users/getByEmail/worker0@test.com", 1)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("conditionalEndpoints")
+    void unchangedResourceIsNotModified(String url, int statements) throws Exception {
+        String eTag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    // The catalog ETag matches for every category id, known or not
+    @Test
+    void unknownCategoryIsNotFoundEvenWithAMatchingETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/categories/PLUMBING_CAT_001/subcategories"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/categories/NO_SUCH_CAT/subcategories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+    }
+
+    Stream<Arguments> conditionalEndpoints() {
+        return Stream.of(
+                Arguments.of("/api/categories/active", 0),
+                Arguments.of("/api/categories/subcategories/active", 0),
+                Arguments.of("/api/categories/PLUMBING_CAT_001/subcategories", 0),
+                Arguments.of("/users/getById/" + workerId, 1)
+        );
+    }
+
+    private long statementsFor(String url, int size, String contentPath) throws Exception {
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get(url + (url.contains("?") ? "&" : "?") + "size=" + size))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(contentPath + ".length()").value(size));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static UserSkill skill(User worker, SubCategory subCategory) {
+        return UserSkill.builder()
+                .userSkillId(UUID.randomUUID().toString())
+                .user(worker)
+                .subCategory(subCategory)
+                .proficiencyLevel(UserSkill.ProficiencyLevel.INTERMEDIATE)
+                .experienceYears(3)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.kaamwala.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdTest {
+
+    private static final long T = 1_760_000_000_000L;
+
+    private final TimeOrderedId generator = new TimeOrderedId();
+
+    @Test
+    void idsAreVersion7WithTheRfcVariant() {
+        long before = System.currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            String id = TimeOrderedId.next();
+            UUID uuid = UUID.fromString(id);
+
+            assertThat(id).hasSize(36);
+            assertThat(uuid.version()).isEqualTo(7);
+            assertThat(uuid.variant()).isEqualTo(2);
+            assertThat(millis(uuid)).isBetween(before, System.currentTimeMillis() + 1);
+        }
+    }
+
+    @Test
+    void idsWithinOneMillisecondIncreaseBySequence() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            UUID uuid = generator.generate(T);
+            assertThat(millis(uuid)).isEqualTo(T);
+            assertThat(sequence(uuid)).isEqualTo(i);
+            ids.add(uuid.toString());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void sequenceOverflowBorrowsTheNextMillisecond() {
+        for (int i = 0; i < 4096; i++) {
+            generator.generate(T);
+        }
+
+        UUID rolledOver = generator.generate(T);
+        UUID sameMillisecondAgain = generator.generate(T + 1);
+        UUID later = generator.generate(T + 2);
+
+        assertThat(millis(rolledOver)).isEqualTo(T + 1);
+        assertThat(sequence(rolledOver)).isZero();
+        // The clock reaching the borrowed millisecond continues its sequence
+        assertThat(millis(sameMillisecondAgain)).isEqualTo(T + 1);
+        assertThat(sequence(sameMillisecondAgain)).isEqualTo(1);
+        assertThat(millis(later)).isEqualTo(T + 2);
+        assertThat(sequence(later)).isZero();
+        assertThat(List.of(rolledOver.toString(), sameMillisecondAgain.toString(), later.toString())).isSorted();
+    }
+
+    @Test
+    void clockSteppingBackKeepsIdsIncreasing() {
+        UUID beforeStep = generator.generate(T);
+        UUID afterStep = generator.generate(T - 5_000);
+        UUID stillBehind = generator.generate(T - 4_000);
+        UUID caughtUp = generator.generate(T + 1);
+
+        assertThat(millis(afterStep)).isEqualTo(T);
+        assertThat(sequence(afterStep)).isEqualTo(1);
+        assertThat(sequence(stillBehind)).isEqualTo(2);
+        assertThat(millis(caughtUp)).isEqualTo(T + 1);
+        assertThat(List.of(beforeStep.toString(), afterStep.toString(), stillBehind.toString(), caughtUp.toString()))
+                .isSorted();
+    }
+
+    @Test
+    void textOrderIsCreationOrderAcrossMilliseconds() {
+        List<String> ids = new ArrayList<>();
+        for (long millis = T; millis < T + 300; millis += 7) {
+            ids.add(generator.generate(millis).toString());
+            ids.add(generator.generate(millis).toString());
+        }
+
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void concurrentCallersNeverShareAnId() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<List<String>>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        ids.add(TimeOrderedId.next());
+                    }
+                    return ids;
+                });
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> result : executor.invokeAll(tasks)) {
+                List<String> ids = result.get();
+                // Each caller sees its own ids in increasing order
+                assertThat(ids).isSorted();
+                all.addAll(ids);
+            }
+            assertThat(all).hasSize(8 * 5_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long millis(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static long sequence(UUID uuid) {
+        return uuid.getMostSignificantBits() & 0xFFF;
+    }
+}
@@ -0,0 +1,106 @@
+package com.kaamwala.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With a zero threshold every statement is logged as slow, so the log line shows exactly which bind
+ * values would reach the logs.
+ */
+class QueryAccountingListenerTest {
+
+    // The statement WorkerImportServiceImp batches for every imported user
+    private static final String INSERT_USER = "INSERT INTO user (user_id, user_name, user_email, user_password, "
+            + "gender, about, phone_number, user_role, experience_years, hourly_rate, service_areas, latitude, "
+            + "longitude, service_radius_km, rating_count, rating_sum, role_mask, preferred_location, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 1, ?, ?, ?)";
+
+    private final QueryAccountingListener listener = new QueryAccountingListener(0);
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(QueryAccountingListener.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void slowUserInsertDoesNotLogPasswordEmailOrPhone() throws Exception {
+        List<ParameterSetOperation> row = new ArrayList<>();
+        Object[] values = {"id-1", "Ravi Kumar", "ravi@example.com", "S3cret!pass", "male", "Plumber",
+                "9876543210", "worker", 5, 300.0, "Delhi", 28.6, 77.2, 10.0, "Delhi", "2026-01-01", "2026-01-01"};
+        for (int i = 0; i < values.length; i++) {
+            row.add(setString(i + 1, values[i]));
+        }
+
+        String logged = run(INSERT_USER, List.of(row, row));
+
+        assertThat(logged).contains("1=id-1", "2=Ravi Kumar", "8=worker", "15=Delhi")
+                .contains("3=***", "4=***", "7=***")
+                .doesNotContain("S3cret!pass", "ravi@example.com", "9876543210");
+    }
+
+    @Test
+    void whereClauseValuesAreRedactedByColumn() throws Exception {
+        String sql = "select u1_0.user_id from user u1_0 where u1_0.user_role=? and u1_0.user_email=? "
+                + "and u1_0.phone_number in (?, ?) and u1_0.user_name like ? escape '\\'";
+
+        String logged = run(sql, List.of(List.of(setString(1, "worker"), setString(2, "ravi@example.com"),
+                setString(3, "9876543210"), setString(4, "9123456780"), setString(5, "Ravi%"))));
+
+        assertThat(logged).contains("1=worker", "2=***", "3=***", "4=***", "5=Ravi%")
+                .doesNotContain("ravi@example.com", "9876543210", "9123456780");
+    }
+
+    @Test
+    void updatedPasswordIsRedactedAndNullsStayVisible() throws Exception {
+        String sql = "update user set user_password=?, phone_number=?, about=? where user_id=?";
+        ParameterSetOperation nullPhone = new ParameterSetOperation(
+                PreparedStatement.class.getMethod("setNull", int.class, int.class), new Object[]{2, Types.VARCHAR});
+
+        String logged = run(sql, List.of(List.of(setString(1, "n3w-pass"), nullPhone,
+                setString(3, "Electrician"), setString(4, "id-1"))));
+
+        assertThat(logged).contains("1=***", "2=null", "3=Electrician", "4=id-1").doesNotContain("n3w-pass");
+    }
+
+    private String run(String sql, List<List<ParameterSetOperation>> parameterSets) {
+        QueryInfo queryInfo = new QueryInfo(sql);
+        queryInfo.getParametersList().addAll(parameterSets);
+        ExecutionInfo execInfo = new ExecutionInfo();
+
+        listener.beforeQuery(execInfo, List.of(queryInfo));
+        listener.afterQuery(execInfo, List.of(queryInfo));
+
+        assertThat(appender.list).hasSize(1);
+        return appender.list.get(0).getFormattedMessage();
+    }
+
+    private static ParameterSetOperation setString(int index, Object value) throws Exception {
+        return new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+                new Object[]{index, value});
+    }
+}
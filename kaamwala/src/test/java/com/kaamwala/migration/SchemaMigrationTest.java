@@ -0,0 +1,102 @@
+package com.kaamwala.migration;
+
+import com.kaamwala.model.UuidBinaryType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrade path of a database created by ddl-auto=update before Flyway: it already holds the V1
+ * schema and data, gets baselined at V1 and migrated to the latest version, data migrations included.
+ */
+class SchemaMigrationTest {
+
+    // Pre-Flyway user ids were UUID.randomUUID() strings
+    private static final String ADMIN = "3f2b6c1e-8d4a-4e9b-a7c5-0d1e2f3a4b5c";
+    private static final String WORKER = "9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d";
+    private static final String CUSTOMER = "00c0ffee-1234-4abc-9def-0123456789ab";
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createPreFlywayDatabase() throws Exception {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migration-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+        }
+        jdbcTemplate.update("INSERT INTO role (role_id, role_name) VALUES ('A', 'ROLE_ADMIN'), ('N', 'ROLE_NORMAL')");
+        insertUser(ADMIN, null);
+        insertUser(WORKER, "Noida, New  Delhi; noida");
+        insertUser(CUSTOMER, "");
+        jdbcTemplate.update("INSERT INTO user_roles (user_user_id, roles_role_id) VALUES (?, 'A'), (?, 'N'), (?, 'N'), (?, 'N')",
+                ADMIN, ADMIN, WORKER, CUSTOMER);
+        jdbcTemplate.update("INSERT INTO categories (category_id, category_name) VALUES ('C', 'Plumbing')");
+        jdbcTemplate.update("INSERT INTO sub_categories (sub_category_id, sub_category_name, category_id) VALUES ('SUB', 'Pipe Fitting', 'C')");
+        jdbcTemplate.update("INSERT INTO user_skills (user_skill_id, sub_category_id, user_id) VALUES ('S1', 'SUB', ?)", WORKER);
+    }
+
+    @Test
+    void baselinedDatabaseMigratesToLatest() {
+        Flyway flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .javaMigrations(new V3_1__BackfillServiceAreas(), new V9_1__ConvertUserIds())
+                .load();
+
+        flyway.migrate();
+
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("10");
+        assertThat(jdbcTemplate.queryForObject("SELECT role_mask FROM user WHERE user_id = ?", Integer.class, key(ADMIN)))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT role_mask FROM user WHERE user_id = ?", Integer.class, key(WORKER)))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_name = 'user_roles'", String.class)).isEmpty();
+
+        List<Map<String, Object>> areas = jdbcTemplate.queryForList(
+                "SELECT user_id, area_key, area_name FROM service_areas ORDER BY area_key");
+        assertThat(areas).extracting(row -> row.get("area_key")).containsExactly("new delhi", "noida");
+        assertThat(areas).extracting(row -> UuidBinaryType.toId((byte[]) row.get("user_id"))).containsOnly(WORKER);
+        assertThat(jdbcTemplate.queryForObject("SELECT rating_count FROM user WHERE user_id = ?", Long.class, key(WORKER)))
+                .isZero();
+
+        // Ids are 16 bytes everywhere, and the foreign keys still join
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM user ORDER BY user_id", byte[].class))
+                .extracting(UuidBinaryType::toId).containsExactly(CUSTOMER, ADMIN, WORKER);
+        assertThat(jdbcTemplate.queryForObject("SELECT u.user_email FROM user_skills s JOIN user u ON u.user_id = s.user_id",
+                String.class)).isEqualTo(WORKER + "@test.com");
+        assertThat(jdbcTemplate.queryForList("SELECT table_name, data_type, is_nullable FROM information_schema.columns "
+                + "WHERE column_name IN ('user_id', 'worker_id', 'reviewer_id') ORDER BY table_name, column_name"))
+                .extracting(row -> row.get("table_name") + "." + row.get("data_type") + "." + row.get("is_nullable"))
+                .containsExactly("reviews.binary.YES", "reviews.binary.NO", "service_areas.binary.NO",
+                        "user.binary.NO", "user_skills.binary.NO");
+
+        // Nothing left to run on the next start
+        assertThat(flyway.migrate().migrationsExecuted).isZero();
+    }
+
+    private static byte[] key(String userId) {
+        return UuidBinaryType.toBytes(userId);
+    }
+
+    private void insertUser(String userId, String serviceAreas) {
+        jdbcTemplate.update("INSERT INTO user (user_id, user_name, user_email, user_role, service_areas) "
+                + "VALUES (?, ?, ?, 'worker', ?)", userId, userId, userId + "@test.com", serviceAreas);
+    }
+}
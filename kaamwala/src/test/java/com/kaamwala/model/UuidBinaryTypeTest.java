@@ -0,0 +1,48 @@
+package com.kaamwala.model;
+
+import com.kaamwala.helper.TimeOrderedId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidBinaryTypeTest {
+
+    @Test
+    void idsSurviveTheRoundTrip() {
+        for (String id : List.of(TimeOrderedId.next(), UUID.randomUUID().toString(),
+                "00000000-0000-0000-0000-000000000000", "ffffffff-ffff-ffff-ffff-ffffffffffff")) {
+            byte[] bytes = UuidBinaryType.toBytes(id);
+            assertThat(bytes).hasSize(16);
+            assertThat(UuidBinaryType.toId(bytes)).isEqualTo(id);
+        }
+        assertThat(UuidBinaryType.toId(UuidBinaryType.toBytes("0190A1B2-C3D4-7E5F-8A9B-0C1D2E3F4A5B")))
+                .isEqualTo("0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a5b");
+    }
+
+    // The database compares BINARY unsigned, byte by byte; ids with the high bit set must sort after the rest
+    @Test
+    void bytesSortLikeTheText() {
+        List<String> ids = Stream.concat(Stream.generate(() -> UUID.randomUUID().toString()).limit(200),
+                        Stream.of("7fffffff-ffff-4fff-bfff-ffffffffffff", "80000000-0000-4000-8000-000000000000"))
+                .toList();
+
+        List<String> byText = ids.stream().sorted().toList();
+        List<String> byBytes = ids.stream()
+                .sorted(Comparator.comparing(UuidBinaryType::toBytes, Arrays::compareUnsigned))
+                .toList();
+
+        assertThat(byBytes).isEqualTo(byText);
+    }
+
+    @Test
+    void idThatIsNotAUuidMatchesNoKey() {
+        assertThat(UuidBinaryType.toBytes("not-a-user")).isEmpty();
+        assertThat(UuidBinaryType.toBytes("")).isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+package com.kaamwala.rating;
+
+import com.kaamwala.model.UuidBinaryType;
+import com.kaamwala.search.TopRatedIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingAggregatorTest {
+
+    private static final String W1 = "0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a01";
+    private static final String W2 = "0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a02";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TopRatedIndex topRatedIndex;
+
+    @InjectMocks
+    private RatingAggregator aggregator;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> batch;
+
+    @Test
+    void flushRecomputesEachReviewedWorkerOnce() {
+        aggregator.record(W2, 4);
+        aggregator.record(W1, 5);
+        aggregator.record(W1, 3);
+
+        aggregator.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertThat(workerIds(batch.getValue())).containsExactly(W1, W2);
+        verify(topRatedIndex).addRating(W1, 5);
+        verify(topRatedIndex).addRating(W1, 3);
+        verify(topRatedIndex).addRating(W2, 4);
+    }
+
+    @Test
+    void flushWithNothingPendingIssuesNoStatement() {
+        aggregator.flush();
+        aggregator.record(W1, 5);
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushIsRetriedWithLaterRatings() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1, 1});
+        aggregator.record(W1, 5);
+        aggregator.flush();
+
+        aggregator.record(W2, 4);
+        aggregator.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertThat(workerIds(batch.getAllValues().get(1))).containsExactly(W1, W2);
+    }
+
+    // Totals left behind by a crash are recomputed on startup
+    @Test
+    void reconcileRecomputesDriftedWorkers() {
+        when(jdbcTemplate.queryForList(RatingAggregator.DRIFTED_SQL, byte[].class))
+                .thenReturn(List.of(UuidBinaryType.toBytes(W2)));
+
+        aggregator.reconcile();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertThat(workerIds(batch.getValue())).containsExactly(W2);
+        verifyNoInteractions(topRatedIndex);
+    }
+
+    @Test
+    void reconcileWithNothingDriftedIssuesNoUpdate() {
+        when(jdbcTemplate.queryForList(RatingAggregator.DRIFTED_SQL, byte[].class)).thenReturn(List.of());
+
+        aggregator.reconcile();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    // The worker id is the last bind value of each row, as its BINARY(16) key
+    private static List<String> workerIds(List<Object[]> rows) {
+        return rows.stream().map(row -> UuidBinaryType.toId((byte[]) row[row.length - 1])).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.kaamwala.rating;
+
+import com.kaamwala.dtos.ReviewDto;
+import com.kaamwala.helper.TimeOrderedId;
+import com.kaamwala.model.Review;
+import com.kaamwala.model.User;
+import com.kaamwala.repository.ReviewRepository;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.service.ReviewService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Rating totals against the database. Reviews saved straight through the repository stand for
+ * reviews whose worker was still waiting for a flush when the process died. The scheduled flush is
+ * pushed out of the way, so only the explicit calls write totals.
+ */
+@SpringBootTest(properties = "rating.flush.interval-ms=3600000")
+class RatingReconciliationTest {
+
+    @Autowired
+    private RatingAggregator ratingAggregator;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Test
+    void reconcileRecomputesTotalsThatDoNotMatchTheReviews() {
+        User unflushed = worker(0, 0);
+        User phantom = worker(2, 9);
+        User current = worker(1, 4);
+        LocalDateTime currentUpdatedAt = reload(current).getUpdatedAt();
+        review(unflushed, 5);
+        review(unflushed, 4);
+        review(unflushed, 3);
+        review(current, 4);
+
+        ratingAggregator.reconcile();
+
+        assertTotals(unflushed, 3, 12);
+        assertThat(reload(unflushed).getAverageRating()).isCloseTo(4.0, offset(1e-9));
+        assertTotals(phantom, 0, 0);
+        assertThat(reload(phantom).getAverageRating()).isNull();
+        // Matching totals are left alone
+        assertTotals(current, 1, 4);
+        assertThat(reload(current).getUpdatedAt()).isEqualTo(currentUpdatedAt);
+    }
+
+    @Test
+    void flushRecomputesTotalsOfReviewedWorkers() {
+        User worker = worker(0, 0);
+        review(worker, 2);
+
+        reviewService.createReview(worker.getUserId(), ReviewDto.builder().rating(5).build());
+        reviewService.createReview(worker.getUserId(), ReviewDto.builder().rating(4).build());
+        ratingAggregator.flush();
+
+        // The review saved without the aggregator is counted too
+        assertTotals(worker, 3, 11);
+        assertThat(reload(worker).getAverageRating()).isCloseTo(11 / 3.0, offset(1e-9));
+    }
+
+    private User worker(long ratingCount, long ratingSum) {
+        return userRepository.save(User.builder()
+                .userId(TimeOrderedId.next())
+                .name("Rated Worker")
+                .email("rated-" + UUID.randomUUID() + "@test.com")
+                .role("worker")
+                .ratingCount(ratingCount)
+                .ratingSum(ratingSum)
+                .build());
+    }
+
+    private void review(User worker, int rating) {
+        reviewRepository.save(Review.builder()
+                .reviewId(TimeOrderedId.next())
+                .worker(worker)
+                .rating(rating)
+                .build());
+    }
+
+    private User reload(User worker) {
+        return userRepository.findById(worker.getUserId()).orElseThrow();
+    }
+
+    private void assertTotals(User worker, long count, long sum) {
+        User reloaded = reload(worker);
+        assertThat(reloaded.getRatingCount()).isEqualTo(count);
+        assertThat(reloaded.getRatingSum()).isEqualTo(sum);
+    }
+}
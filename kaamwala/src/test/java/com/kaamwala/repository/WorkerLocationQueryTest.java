@@ -0,0 +1,48 @@
+package com.kaamwala.repository;
+
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * findWorkersByLocation is a prefix match: LIKE wildcards in the prefix must match only themselves,
+ * or "%" would list every worker and "_" would match any character.
+ */
+@SpringBootTest
+@Transactional
+class WorkerLocationQueryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void wildcardsInThePrefixMatchOnlyThemselves() {
+        User worker = User.builder()
+                .userId(UUID.randomUUID().toString())
+                .name("Prefix Worker")
+                .email("prefix-" + UUID.randomUUID() + "@test.com")
+                .role("worker")
+                .serviceAreas("Prefixabad North")
+                .build();
+        Helper.syncServiceAreas(worker);
+        userRepository.saveAndFlush(worker);
+
+        assertThat(userRepository.findWorkersByLocation("prefixabad n")).extracting(User::getUserId)
+                .containsExactly(worker.getUserId());
+        assertThat(userRepository.findWorkersByLocation("prefix_bad")).isEmpty();
+        assertThat(userRepository.findWorkersByLocation("%north")).isEmpty();
+        assertThat(userRepository.findWorkersByLocation("%")).isEmpty();
+    }
+
+    @Test
+    void escapeLikeEscapesTheEscapeCharacter() {
+        assertThat(Helper.escapeLike("50%_off!")).isEqualTo("50!%!_off!!");
+    }
+}
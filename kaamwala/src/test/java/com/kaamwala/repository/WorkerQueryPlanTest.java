@@ -0,0 +1,158 @@
+package com.kaamwala.repository;
+
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.support.SqlCapture;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Each worker query must use the index V8__worker_filter_indexes.sql added for it. The SQL is what
+ * Hibernate generates for the repository call (captured by SqlCapture) and the plan is H2's EXPLAIN
+ * over the Flyway-migrated schema.
+ *
+ * H2 only counts an index as sorted when the ORDER BY starts at its first column, so for the sorted
+ * queries it cannot show what MySQL does with (user_role, sort column, user_id). Those are checked
+ * in two steps: the plan reads workers through a user_role index (no table scan), and the intended
+ * index holds exactly user_role followed by the ORDER BY columns, in one direction, which is what
+ * lets MySQL return the rows in index order without a filesort.
+ */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkerQueryPlanTest {
+
+    private static final Pattern ORDER_BY = Pattern.compile(" order by (.+?)(?: fetch first| offset|$)");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    Stream<Arguments> filterQueries() {
+        return Stream.of(
+                Arguments.of("findWorkersByMaxRate", (Runnable) () -> userRepository.findWorkersByMaxRate(500.0),
+                        "idx_user_role_hourly_rate"),
+                Arguments.of("findWorkerRatingTotals", (Runnable) () -> userRepository.findWorkerRatingTotals(),
+                        "idx_user_role_rating_totals"),
+                Arguments.of("findWorkersByServiceArea",
+                        (Runnable) () -> userRepository.findWorkersByServiceArea("noida", PageRequest.of(0, 20)),
+                        "idx_service_area_key_user"),
+                Arguments.of("findWorkersBySkill",
+                        (Runnable) () -> userRepository.findWorkersBySkill("Home Wiring", PageRequest.of(0, 20)),
+                        "idx_user_skill_user_sub")
+        );
+    }
+
+    Stream<Arguments> sortedQueries() {
+        return Stream.of(
+                Arguments.of("sortBy=name", (Runnable) () -> workerPage(Sort.by("name")), "idx_user_role_name"),
+                Arguments.of("sortBy=experience DESC", (Runnable) () -> workerPage(Sort.by("experience").descending()),
+                        "idx_user_role_experience"),
+                Arguments.of("sortBy=hourlyRate", (Runnable) () -> workerPage(Sort.by("hourlyRate")),
+                        "idx_user_role_hourly_rate"),
+                Arguments.of("recent", (Runnable) () -> workerPage(Sort.by("createdAt").descending()),
+                        "idx_user_role_created"),
+                Arguments.of("cursor by name", (Runnable) () -> workerSeek(Sort.Order.asc("name")), "idx_user_role_name"),
+                Arguments.of("cursor by createdAt DESC", (Runnable) () -> workerSeek(Sort.Order.desc("createdAt")),
+                        "idx_user_role_created"),
+                Arguments.of("top-rated cursor", (Runnable) () -> workerSeek(Sort.Order.desc("averageRating")),
+                        "idx_user_role_rating"),
+                Arguments.of("export", (Runnable) () -> {
+                    try (var workers = userRepository.streamWorkersWithFilters(null, null, null, null, null, null)) {
+                        workers.findFirst();
+                    }
+                }, "idx_user_role_id")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterQueries")
+    void filterQueryUsesItsIndex(String name, Runnable query, String index) {
+        assertThat(explain(singleStatement(query))).contains("/* public." + index + ":");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("sortedQueries")
+    void sortedQueryReadsInIndexOrder(String name, Runnable query, String index) {
+        String sql = singleStatement(query);
+        assertThat(explain(sql)).contains("/* public.idx_user_role_");
+
+        Matcher orderBy = ORDER_BY.matcher(sql);
+        assertThat(orderBy.find()).as("ORDER BY in %s", sql).isTrue();
+        List<String> sortTerms = new ArrayList<>();
+        for (String term : orderBy.group(1).split(",")) {
+            String[] parts = term.trim().split(" ");
+            String column = parts[0].substring(parts[0].indexOf('.') + 1);
+            sortTerms.add(column + (Arrays.asList(parts).contains("desc") ? " DESC" : " ASC"));
+        }
+
+        // user_role, then the ORDER BY columns read all forwards or all backwards
+        List<String> indexColumns = indexColumns(index);
+        assertThat(indexColumns.get(0)).isEqualTo("user_role ASC");
+        List<String> sortColumns = indexColumns.subList(1, indexColumns.size());
+        assertThat(List.of(sortTerms, reversed(sortTerms)))
+                .as("%s columns %s for ORDER BY %s", index, indexColumns, sortTerms)
+                .anySatisfy(terms -> assertThat(sortColumns).startsWith(terms.toArray(String[]::new)));
+    }
+
+    private void workerPage(Sort sort) {
+        userRepository.findByRole("worker", PageRequest.of(0, 20, sort));
+    }
+
+    private void workerSeek(Sort.Order order) {
+        userRepository.findBy(WorkerSpecifications.matching(new WorkerSearchCriteria()),
+                query -> query.sortBy(Sort.by(order)).limit(20).scroll(ScrollPosition.keyset()));
+    }
+
+    private static String singleStatement(Runnable query) {
+        List<String> statements = SqlCapture.of(query);
+        assertThat(statements).hasSize(1);
+        return statements.get(0);
+    }
+
+    // Parameters stay unbound: H2 plans the prepared statement without their values
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    // "column ASC|DESC" in index order
+    private List<String> indexColumns(String index) {
+        return jdbcTemplate.queryForList("SELECT column_name || ' ' || ordering_specification "
+                + "FROM information_schema.index_columns WHERE index_name = ? ORDER BY ordinal_position",
+                String.class, index);
+    }
+
+    private static List<String> reversed(List<String> sortTerms) {
+        return sortTerms.stream()
+                .map(term -> term.endsWith(" DESC") ? term.replace(" DESC", " ASC") : term.replace(" ASC", " DESC"))
+                .toList();
+    }
+}
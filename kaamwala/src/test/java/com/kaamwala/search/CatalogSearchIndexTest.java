@@ -0,0 +1,157 @@
+package com.kaamwala.search;
+
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.repository.CategoryRepository;
+import com.kaamwala.repository.SubCategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stems: plumbing -> plumb, electrical -> electric, carpentry -> carpent, painting -> paint.
+ * Stems of 4-7 letters tolerate one edit, 8 or more two, shorter ones none.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogSearchIndexTest {
+
+    private static final Category PLUMBING = category("PLUMB", "Plumbing", "Water systems, pipes, fixtures installation and repair");
+    private static final Category ELECTRICAL = category("ELEC", "Electrical", "Wiring, installations, and electrical repairs");
+    private static final Category CARPENTRY = category("CARP", "Carpentry", "Furniture and woodwork");
+    private static final Category PAINTING = category("PAINT", "Painting", "Interior and exterior walls");
+    private static final Category CLEANING = category("CLEAN", "Cleaning", "Home and office cleaning");
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private SubCategoryRepository subCategoryRepository;
+
+    @InjectMocks
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(PLUMBING, ELECTRICAL, CARPENTRY, PAINTING, CLEANING));
+        when(subCategoryRepository.findByIsActiveTrue()).thenReturn(List.of(
+                subCategory("PIPE", "Pipe Installation", "Installation of water and drainage pipes", PLUMBING),
+                subCategory("TAP", "tap Repair", "Fixing leaking taps", PLUMBING),
+                subCategory("FAN", "Fan Repair", "Fixing ceiling fans", ELECTRICAL),
+                subCategory("WIRE", "Home Wiring", "House electrical wiring", ELECTRICAL),
+                subCategory("APPL", "Appliance Installation", "Fitting lights after the wiring is done", ELECTRICAL)));
+        index.rebuild();
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @CsvSource({
+            "plumbing, PLUMB",
+            "PLUMBING, PLUMB",
+            "Électrical, ELEC",
+            // stemming
+            "plumber, PLUMB",
+            "electric, ELEC",
+            "painters, PAINT",
+            // type-ahead prefixes
+            "elec, ELEC",
+            "plumbin, PLUMB",
+            "carp, CARP",
+            // one edit on a stem of 4-7 letters
+            "plmubing, PLUMB",
+            "plumbbing, PLUMB",
+            "carpntry, CARP",
+            "paimting, PAINT",
+            // two edits on a stem of 8 or more
+            "electircal, ELEC",
+            "furnxtyre, CARP",
+            "frnxture, CARP"
+    })
+    void findsTheCategory(String keyword, String categoryId) {
+        assertThat(index.searchCategories(keyword)).first().isEqualTo(categoryId);
+    }
+
+    // plmubing is a single adjacent swap (OSA distance 1) but two Levenshtein edits, and its stem only allows one.
+    // cleanign does not stem, so it is compared word to word.
+    @Test
+    void transpositionCountsAsOneEdit() {
+        assertThat(index.searchCategories("plmubing")).containsExactly("PLUMB");
+        assertThat(index.searchCategories("cleanign")).containsExactly("CLEAN");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "plmbng",      // two edits on a 6-letter stem
+            "pntng",       // three edits
+            "frnxtr",      // two edits on a 6-letter stem
+            "plm",         // no edits below 4 letters, and no word starts with it
+            "xyz",
+            "",
+            "  ,; "
+    })
+    void findsNothingBeyondTheEditCutoff(String keyword) {
+        assertThat(index.searchCategories(keyword)).isEmpty();
+    }
+
+    @Test
+    void queriesShorterThanATrigramMatchByPrefix() {
+        // Plumbing and Painting score the same; equal scores are ordered by name
+        assertThat(index.searchCategories("p")).containsExactly("PAINT", "PLUMB");
+        assertThat(index.searchCategories("pl")).containsExactly("PLUMB");
+        // A prefix scores by how much of the word it covers: more of Cleaning than of Carpentry
+        assertThat(index.searchCategories("c")).containsExactly("CLEAN", "CARP");
+        assertThat(index.searchCategories("el")).containsExactly("ELEC");
+    }
+
+    @Test
+    void equalScoresAreOrderedByNameIgnoringCase() {
+        assertThat(index.searchSubCategories("repair")).containsExactly("FAN", "TAP");
+    }
+
+    @Test
+    void nameOutranksParentAndDescription() {
+        // Home Wiring by name, Appliance Installation by description
+        assertThat(index.searchSubCategories("wiring")).containsExactly("WIRE", "APPL");
+        // Neither name nor description says plumbing: both match through their parent category
+        assertThat(index.searchSubCategories("plumbing")).containsExactlyInAnyOrder("PIPE", "TAP");
+    }
+
+    @Test
+    void nameStartingWithTheQueryIsBoosted() {
+        // Both names contain "installation"; only Pipe Installation starts with "pipe"
+        assertThat(index.searchSubCategories("pipe installation")).containsExactly("PIPE", "APPL");
+    }
+
+    @Test
+    void mostOfTheQueryHasToMatch() {
+        assertThat(index.searchCategories("pipes xyzzy")).containsExactly("PLUMB");
+        assertThat(index.searchCategories("pipes xyzzy qwrtp")).isEmpty();
+    }
+
+    @Test
+    void rebuildReplacesTheIndex() {
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(CLEANING));
+
+        index.rebuild();
+
+        assertThat(index.searchCategories("plumbing")).isEmpty();
+        assertThat(index.searchCategories("cleaning")).containsExactly("CLEAN");
+    }
+
+    private static Category category(String id, String name, String description) {
+        return Category.builder().categoryId(id).categoryName(name).description(description).build();
+    }
+
+    private static SubCategory subCategory(String id, String name, String description, Category category) {
+        return SubCategory.builder().subCategoryId(id).subCategoryName(name).description(description).category(category).build();
+    }
+}
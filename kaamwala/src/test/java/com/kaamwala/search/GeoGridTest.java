@@ -0,0 +1,147 @@
+package com.kaamwala.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoGridTest {
+
+    private final GeoGrid grid = new GeoGrid(0.05);
+
+    @Test
+    void distanceMatchesKnownValues() {
+        assertThat(GeoGrid.distanceKm(28.6139, 77.2090, 28.6139, 77.2090)).isZero();
+        // one degree along the equator and along a meridian
+        assertThat(GeoGrid.distanceKm(0, 0, 0, 1)).isCloseTo(GeoGrid.KM_PER_DEGREE_LAT, within(1e-9));
+        assertThat(GeoGrid.distanceKm(10, 30, 11, 30)).isCloseTo(GeoGrid.KM_PER_DEGREE_LAT, within(1e-9));
+        // New Delhi to Mumbai
+        assertThat(GeoGrid.distanceKm(28.6139, 77.2090, 19.0760, 72.8777)).isCloseTo(1148, within(5.0));
+        assertThat(GeoGrid.distanceKm(0, 179.99, 0, -179.99)).isCloseTo(0.02 * GeoGrid.KM_PER_DEGREE_LAT, within(1e-6));
+        assertThat(GeoGrid.distanceKm(90, 0, 90, 135)).isCloseTo(0, within(1e-9));
+    }
+
+    @ParameterizedTest(name = "({0}, {1}), {2} km")
+    @CsvSource({
+            "28.6139, 77.2090, 5",
+            "28.6139, 77.2090, 100",
+            "0, 0, 0.1",
+            "0, 179.99, 5",
+            "0, -179.99, 5",
+            "-33.87, 180, 20",
+            "65.0, -179.5, 100",
+            "89.99, 0, 5",
+            "89.5, 45, 100",
+            "-89.95, -120, 10",
+            "90, 0, 1",
+            "-90, 0, 1"
+    })
+    void candidatesContainEveryPointWithinTheRadius(double latitude, double longitude, double radiusKm) {
+        Map<String, double[]> points = scatter(latitude, longitude, radiusKm, 2000);
+        points.forEach((id, point) -> grid.add(id, point[0], point[1]));
+
+        List<String> candidates = grid.candidates(latitude, longitude, radiusKm);
+
+        List<String> inside = new ArrayList<>();
+        points.forEach((id, point) -> {
+            if (GeoGrid.distanceKm(latitude, longitude, point[0], point[1]) <= radiusKm) {
+                inside.add(id);
+            }
+        });
+        assertThat(inside).isNotEmpty();
+        assertThat(candidates).containsAll(inside);
+        assertThat(grid.candidateCount(latitude, longitude, radiusKm)).isEqualTo(candidates.size());
+    }
+
+    // The centres put a cell edge (every 0.05 degrees) just inside the radius, so a box a hair too small misses them
+    @Test
+    void pointsAtTheRadiusAreCandidatesInEveryDirection() {
+        double radiusKm = 10;
+        double angle = radiusKm / GeoGrid.EARTH_RADIUS_KM;
+        double degrees = Math.toDegrees(angle);
+        double north = 28.1 - degrees * 0.9995;
+        grid.add("north", north + degrees * 0.9999, 77.0);
+
+        // The circle is widest slightly poleward of its centre
+        double east = GeoGrid.longitudeDelta(60, radiusKm);
+        double widestLat = Math.toDegrees(Math.asin(Math.sin(Math.toRadians(60)) / Math.cos(angle)));
+        double centreLng = 10.2 - east * 0.9995;
+        grid.add("widest", widestLat, centreLng + east * 0.9999);
+
+        assertThat(grid.candidates(north, 77.0, radiusKm)).contains("north");
+        assertThat(GeoGrid.distanceKm(60, centreLng, widestLat, centreLng + east * 0.9999)).isLessThan(radiusKm);
+        assertThat(grid.candidates(60, centreLng, radiusKm)).contains("widest");
+    }
+
+    @Test
+    void antimeridianNeighboursAreFoundFromBothSides() {
+        grid.add("east", -17.7, 179.99);
+        grid.add("west", -17.7, -179.99);
+        grid.add("far", -17.7, 170.0);
+
+        assertThat(grid.candidates(-17.7, 179.99, 5)).contains("east", "west").doesNotContain("far");
+        assertThat(grid.candidates(-17.7, -179.99, 5)).contains("east", "west").doesNotContain("far");
+        assertThat(grid.candidates(-17.7, 180, 5)).contains("east", "west");
+    }
+
+    @Test
+    void circleOverAPoleCoversEveryLongitude() {
+        grid.add("same side", 89.95, 0);
+        grid.add("far side", 89.95, 180);
+        grid.add("quarter", 89.95, -90);
+
+        assertThat(GeoGrid.longitudeDelta(89.99, 5)).isEqualTo(180);
+        assertThat(GeoGrid.longitudeDelta(-89.99, 5)).isEqualTo(180);
+        assertThat(grid.candidates(89.99, 0, 15)).contains("same side", "far side", "quarter");
+        assertThat(grid.candidates(90, 0, 10)).contains("same side", "far side", "quarter");
+    }
+
+    @Test
+    void longitudeDeltaWidensTowardsThePoles() {
+        assertThat(GeoGrid.longitudeDelta(0, 10)).isCloseTo(10 / GeoGrid.KM_PER_DEGREE_LAT, within(1e-6));
+        assertThat(GeoGrid.longitudeDelta(60, 10)).isGreaterThan(GeoGrid.longitudeDelta(0, 10) * 2);
+        assertThat(GeoGrid.longitudeDelta(-60, 10)).isEqualTo(GeoGrid.longitudeDelta(60, 10));
+    }
+
+    @Test
+    void removedPointsAreNoLongerCandidates() {
+        grid.add("a", 28.6, 77.2);
+        grid.add("b", 28.6, 77.2);
+
+        grid.remove("a", 28.6, 77.2);
+        grid.remove("missing", 10, 10);
+
+        assertThat(grid.candidates(28.6, 77.2, 1)).containsExactly("b");
+        grid.clear();
+        assertThat(grid.candidates(28.6, 77.2, 1)).isEmpty();
+    }
+
+    // Random points out to twice the radius, wrapped into valid coordinates
+    private static Map<String, double[]> scatter(double latitude, double longitude, double radiusKm, int count) {
+        Random random = new Random(42);
+        Map<String, double[]> points = new HashMap<>();
+        double spread = 2 * radiusKm / GeoGrid.KM_PER_DEGREE_LAT;
+        for (int i = 0; i < count; i++) {
+            double lat = latitude + (random.nextDouble() * 2 - 1) * spread;
+            double lng = longitude + (random.nextDouble() * 2 - 1) * Math.min(180, GeoGrid.longitudeDelta(latitude, 2 * radiusKm));
+            if (lat > 90) {
+                lat = 180 - lat;
+                lng += 180;
+            } else if (lat < -90) {
+                lat = -180 - lat;
+                lng += 180;
+            }
+            lng = ((lng + 180) % 360 + 360) % 360 - 180;
+            points.put("p" + i, new double[]{lat, lng});
+        }
+        return points;
+    }
+}
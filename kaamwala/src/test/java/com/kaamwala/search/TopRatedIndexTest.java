@@ -0,0 +1,115 @@
+package com.kaamwala.search;
+
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.UserSkillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Lists hold 2 workers. a, b and c are plumbers scoring 4.5, 4.17 and 3.83 with the default
+ * prior (3.5, weight 5), so c is the member-in-waiting of every list.
+ */
+@ExtendWith(MockitoExtension.class)
+class TopRatedIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserSkillRepository userSkillRepository;
+
+    @InjectMocks
+    private TopRatedIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        ReflectionTestUtils.setField(index, "capacity", 2);
+        ReflectionTestUtils.setField(index, "priorMean", 3.5);
+        ReflectionTestUtils.setField(index, "priorWeight", 5.0);
+        when(userRepository.findWorkerRatingTotals()).thenReturn(List.of(
+                new Object[]{"a", 50L, 10L},
+                new Object[]{"b", 45L, 10L},
+                new Object[]{"c", 40L, 10L}));
+        when(userSkillRepository.findSkillNamesOfRatedWorkers()).thenReturn(List.of(
+                skill("a", "Pipe Fitting", "Plumbing"),
+                skill("b", "Pipe Fitting", "Plumbing"),
+                skill("c", "Pipe Fitting", "Plumbing")));
+        index.rebuild();
+    }
+
+    @Test
+    void listsKeepTheBestWorkers() {
+        assertThat(index.top(null, null, 0, 10)).containsExactly("a", "b");
+        assertThat(index.top("Plumbing", null, 0, 10)).containsExactly("a", "b");
+        assertThat(index.top(null, " pipe fitting ", 0, 10)).containsExactly("a", "b");
+        assertThat(index.top(null, null, 1, 1)).containsExactly("b");
+        assertThat(index.top("Carpentry", null, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void keyChangeRefillsTheListsTheWorkerLeft() {
+        when(userSkillRepository.findSkillNamesByUserId("a")).thenReturn(List.<Object[]>of(skill("a", "Wiring", "Electrical")));
+
+        index.refreshKeys("a");
+
+        assertThat(index.top("Plumbing", null, 0, 10)).containsExactly("b", "c");
+        assertThat(index.top(null, "Pipe Fitting", 0, 10)).containsExactly("b", "c");
+        assertThat(index.top("Electrical", null, 0, 10)).containsExactly("a");
+        assertThat(index.top(null, null, 0, 10)).containsExactly("a", "b");
+    }
+
+    @Test
+    void scoreDropLetsTheNextWorkerIn() {
+        // (50 + 5) / 15 ratings with the prior: 3.63, below c
+        for (int i = 0; i < 5; i++) {
+            index.addRating("a", 1);
+        }
+
+        assertThat(index.top(null, null, 0, 10)).containsExactly("b", "c");
+        assertThat(index.top("Plumbing", null, 0, 10)).containsExactly("b", "c");
+    }
+
+    @Test
+    void scoreRiseReordersWithoutRefill() {
+        for (int i = 0; i < 10; i++) {
+            index.addRating("c", 5);
+        }
+
+        assertThat(index.top(null, null, 0, 10)).containsExactly("a", "c");
+    }
+
+    @Test
+    void firstRatingAddsTheWorkerToTheirLists() {
+        when(userSkillRepository.findSkillNamesByUserId("d")).thenReturn(List.<Object[]>of(skill("d", "Wiring", "Electrical")));
+
+        for (int i = 0; i < 20; i++) {
+            index.addRating("d", 5);
+        }
+
+        assertThat(index.top(null, null, 0, 10)).containsExactly("d", "a");
+        assertThat(index.top("Electrical", null, 0, 10)).containsExactly("d");
+        assertThat(index.top("Plumbing", null, 0, 10)).containsExactly("a", "b");
+    }
+
+    @Test
+    void removedWorkerIsReplacedFromTheMembers() {
+        index.remove("a");
+
+        assertThat(index.top(null, null, 0, 10)).containsExactly("b", "c");
+        assertThat(index.top("Plumbing", null, 0, 10)).containsExactly("b", "c");
+    }
+
+    private static Object[] skill(String userId, String skill, String category) {
+        return new Object[]{userId, skill, category};
+    }
+}
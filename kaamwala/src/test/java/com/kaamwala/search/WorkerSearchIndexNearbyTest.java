@@ -0,0 +1,98 @@
+package com.kaamwala.search;
+
+import com.kaamwala.model.Category;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Distance cutoff of radius searches: the searcher's radius and the worker's own service radius.
+ */
+class WorkerSearchIndexNearbyTest {
+
+    private static final double KM = 1 / GeoGrid.KM_PER_DEGREE_LAT;
+
+    private final WorkerSearchIndex index = new WorkerSearchIndex(0.05);
+
+    @Test
+    void workersBeyondTheRadiusAreCutOff() {
+        index.load(List.of(
+                worker("at 1 km", 28.0 + KM, 77.0, null),
+                worker("inside edge", 28.0 + 4.999 * KM, 77.0, null),
+                worker("outside edge", 28.0 + 5.001 * KM, 77.0, null),
+                worker("no location", null, null, null)));
+
+        assertThat(ids(index.nearby(28.0, 77.0, 5, null, 10))).containsExactly("at 1 km", "inside edge");
+    }
+
+    @Test
+    void workerMustServeTheSearchPoint() {
+        index.load(List.of(
+                worker("short reach", 28.0 + 3 * KM, 77.0, 2.0),
+                worker("long reach", 28.0 + 3 * KM, 77.0, 3.5)));
+
+        assertThat(ids(index.nearby(28.0, 77.0, 10, null, 10))).containsExactly("long reach");
+    }
+
+    @Test
+    void nearestComeFirstUpToTheLimit() {
+        index.load(List.of(
+                worker("c", 28.0 + 3 * KM, 77.0, null),
+                worker("a", 28.0 + KM, 77.0, null),
+                worker("b", 28.0 - 2 * KM, 77.0, null)));
+
+        List<WorkerSearchIndex.NearbyHit> hits = index.nearby(28.0, 77.0, 5, null, 2);
+
+        assertThat(ids(hits)).containsExactly("a", "b");
+        assertThat(hits.get(0).getDistanceKm()).isCloseTo(1.0, org.assertj.core.api.Assertions.within(1e-6));
+    }
+
+    @Test
+    void radiusSearchWrapsAcrossTheAntimeridianAndPoles() {
+        index.load(List.of(
+                worker("fiji east", -17.7, 179.99, null),
+                worker("fiji west", -17.7, -179.99, null),
+                worker("pole far side", 89.99, 180.0, null)));
+
+        assertThat(ids(index.nearby(-17.7, 179.995, 5, null, 10))).containsExactly("fiji east", "fiji west");
+        assertThat(ids(index.nearby(89.99, 0.0, 5, null, 10))).containsExactly("pole far side");
+    }
+
+    @Test
+    void skillFilterUsesThePostingList() {
+        index.load(List.of(
+                worker("plumber", 28.0 + KM, 77.0, null, "Pipe Installation"),
+                worker("electrician", 28.0 + KM, 77.0, null, "Home Wiring")));
+
+        assertThat(ids(index.nearby(28.0, 77.0, 5, "pipe installation", 10))).containsExactly("plumber");
+        assertThat(ids(index.nearby(28.0, 77.0, 5, "Carpentry", 10))).isEmpty();
+    }
+
+    private static User worker(String userId, Double latitude, Double longitude, Double serviceRadiusKm, String... skills) {
+        User user = User.builder()
+                .userId(userId)
+                .name(userId)
+                .role("worker")
+                .latitude(latitude)
+                .longitude(longitude)
+                .serviceRadiusKm(serviceRadiusKm)
+                .build();
+        Category category = Category.builder().categoryName("Trades").build();
+        for (String skill : skills) {
+            user.getUserSkills().add(UserSkill.builder()
+                    .user(user)
+                    .subCategory(SubCategory.builder().subCategoryName(skill).category(category).build())
+                    .build());
+        }
+        return user;
+    }
+
+    private static List<String> ids(List<WorkerSearchIndex.NearbyHit> hits) {
+        return hits.stream().map(WorkerSearchIndex.NearbyHit::getUserId).toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.kaamwala.service;
+
+import com.kaamwala.cache.CategoryTreeCache;
+import com.kaamwala.dtos.CategoryDto;
+import com.kaamwala.dtos.SubCategoryDto;
+import com.kaamwala.service.imp.CategoryServiceImp;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog writes made by another instance (plain JDBC here, bypassing this instance's Hibernate
+ * and snapshots) are picked up by the scheduled check. The schedule itself is pushed out of the way.
+ */
+@SpringBootTest(properties = "catalog.refresh.interval-ms=3600000")
+class CatalogRefreshTest {
+
+    @Autowired
+    private CategoryServiceImp categoryService;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Each read in its own session, as a request would have
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writesFromAnotherInstanceReplaceTheSnapshots() {
+        // Warm the second-level cache and query cache with the current rows
+        assertThat(read(() -> categoryService.searchSubCategories("pipe"))).extracting(SubCategoryDto::getSubCategoryId)
+                .contains("PLUMB_SUB_001");
+        String eTag = categoryService.getCatalogETag();
+        assertThat(categoryTreeCache.isStale()).isFalse();
+
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        jdbcTemplate.update("INSERT INTO categories (category_id, category_name, category_description, is_active, "
+                + "created_at, updated_at) VALUES ('ROOF_CAT_001', 'Roofing', 'Roof repair', true, ?, ?)", now, now);
+        jdbcTemplate.update("UPDATE sub_categories SET sub_category_description = 'Copper and zinc pipework', "
+                + "updated_at = ? WHERE sub_category_id = 'PLUMB_SUB_001'", now);
+
+        assertThat(categoryTreeCache.isStale()).isTrue();
+        assertThat(categoryService.getAllActiveCategories()).extracting(CategoryDto::getCategoryName)
+                .doesNotContain("Roofing");
+
+        categoryService.refreshIfChangedElsewhere();
+
+        assertThat(categoryTreeCache.isStale()).isFalse();
+        assertThat(categoryService.getCatalogETag()).isNotEqualTo(eTag);
+        assertThat(categoryService.getAllActiveCategories()).extracting(CategoryDto::getCategoryName)
+                .contains("Roofing");
+        assertThat(read(() -> categoryService.searchCategories("roofing"))).extracting(CategoryDto::getCategoryId)
+                .first().isEqualTo("ROOF_CAT_001");
+        // Found through the rebuilt search index and read past the evicted second-level cache
+        assertThat(read(() -> categoryService.searchSubCategories("zinc"))).extracting(SubCategoryDto::getDescription)
+                .containsExactly("Copper and zinc pipework");
+    }
+
+    @Test
+    void unchangedCatalogIsLeftAlone() {
+        long version = categoryTreeCache.get().getVersion();
+
+        categoryService.refreshIfChangedElsewhere();
+
+        assertThat(categoryTreeCache.get().getVersion()).isEqualTo(version);
+    }
+
+    private <T> List<T> read(Supplier<List<T>> query) {
+        return transactionTemplate.execute(status -> query.get());
+    }
+}
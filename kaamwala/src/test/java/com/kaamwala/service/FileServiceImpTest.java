@@ -0,0 +1,248 @@
+package com.kaamwala.service;
+
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.exception.ResourceNotFoundException;
+import com.kaamwala.service.imp.FileServiceImp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Content-addressed storage in a temporary folder. The scheduler is a mock: deferred deletions
+ * are captured and run by hand, as if the grace period had passed.
+ */
+@ExtendWith(MockitoExtension.class)
+class FileServiceImpTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(10);
+
+    @TempDir
+    Path folder;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private FileServiceImp fileService;
+
+    @Captor
+    private ArgumentCaptor<Runnable> deferred;
+
+    @Captor
+    private ArgumentCaptor<Instant> deferredUntil;
+
+    private final List<Path> deleted = new ArrayList<>();
+
+    @BeforeEach
+    void contentMode() {
+        ReflectionTestUtils.setField(fileService, "storeMode", "content");
+        ReflectionTestUtils.setField(fileService, "reuseGrace", GRACE);
+    }
+
+    @Test
+    void fileIsNamedAndFiledByItsHash() throws Exception {
+        byte[] bytes = bytes("photo");
+        String hash = sha256(bytes);
+
+        String name = upload("Photo.JPEG", bytes);
+
+        assertThat(name).isEqualTo(hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".jpg");
+        assertThat(folder.resolve(name)).hasBinaryContent(bytes);
+        assertThat(fileService.resolve(folder.toString(), name)).isEqualTo(folder.resolve(name));
+    }
+
+    @Test
+    void identicalUploadsAreStoredOnce() throws Exception {
+        String first = upload("a.jpg", bytes("same"));
+        age(first, Duration.ofHours(1));
+
+        String second = upload("b.jpg", bytes("same"));
+        String other = upload("c.jpg", bytes("different"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(storedFiles()).hasSize(2);
+        // Reuse restarts the grace period
+        assertThat(Files.getLastModifiedTime(folder.resolve(first)).toInstant())
+                .isAfter(Instant.now().minus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void sameBytesWithAnotherExtensionAreAnotherFile() throws Exception {
+        assertThat(upload("a.png", bytes("same"))).isNotEqualTo(upload("a.jpg", bytes("same")));
+    }
+
+    @Test
+    void flatModeNamesEveryUploadAfresh() throws Exception {
+        ReflectionTestUtils.setField(fileService, "storeMode", "flat");
+
+        String first = upload("a.png", bytes("same"));
+        String second = upload("b.png", bytes("same"));
+
+        assertThat(first).matches("[0-9a-f-]{36}\\.png").isNotEqualTo(second);
+        assertThat(storedFiles()).hasSize(2);
+    }
+
+    @Test
+    void onlyImagesAreAccepted() {
+        assertThatThrownBy(() -> upload("notes.txt", bytes("text"))).isInstanceOf(BadApiRequest.class);
+        assertThatThrownBy(() -> upload("no-extension", bytes("text"))).isInstanceOf(BadApiRequest.class);
+    }
+
+    @Test
+    void noTemporaryFilesAreLeftBehind() throws Exception {
+        upload("a.jpg", bytes("one"));
+        upload("b.jpg", bytes("one"));
+        upload("c.jpg", bytes("two"));
+
+        assertThat(storedFiles()).allSatisfy(file -> assertThat(file.getFileName().toString()).doesNotEndWith(".tmp"));
+    }
+
+    @Test
+    void referencedFileIsKept() throws Exception {
+        String name = upload("a.jpg", bytes("shared"));
+        age(name, Duration.ofHours(1));
+
+        deleteIfUnused(name, 1);
+
+        assertThat(folder.resolve(name)).exists();
+        assertThat(deleted).isEmpty();
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void unreferencedFileOlderThanTheGracePeriodIsDeleted() throws Exception {
+        String name = upload("a.jpg", bytes("old"));
+        age(name, GRACE.plusSeconds(1));
+
+        deleteIfUnused(name, 0);
+
+        assertThat(folder.resolve(name)).doesNotExist();
+        assertThat(deleted).containsExactly(folder.resolve(name));
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void recentlyStoredFileIsCheckedAgainAfterTheGracePeriod() throws Exception {
+        String name = upload("a.jpg", bytes("recent"));
+        Instant modified = Files.getLastModifiedTime(folder.resolve(name)).toInstant();
+        AtomicLong references = new AtomicLong();
+
+        fileService.deleteIfUnused(folder.toString(), name, references::get, deleted::add);
+
+        assertThat(folder.resolve(name)).exists();
+        verify(taskScheduler).schedule(deferred.capture(), deferredUntil.capture());
+        assertThat(deferredUntil.getValue()).isEqualTo(modified.plus(GRACE));
+
+        // Still unreferenced once the grace period is over
+        age(name, GRACE.plusSeconds(1));
+        deferred.getValue().run();
+
+        assertThat(folder.resolve(name)).doesNotExist();
+        assertThat(deleted).containsExactly(folder.resolve(name));
+    }
+
+    // The race the grace period exists for: an identical upload deduplicated to the file just
+    // before its last user let go, and assigned to its uploader after the first check
+    @Test
+    void fileReusedDuringTheGracePeriodSurvives() throws Exception {
+        String name = upload("a.jpg", bytes("popular"));
+        age(name, Duration.ofHours(1));
+        AtomicLong references = new AtomicLong();
+
+        assertThat(upload("b.jpg", bytes("popular"))).isEqualTo(name);
+        fileService.deleteIfUnused(folder.toString(), name, references::get, deleted::add);
+        verify(taskScheduler).schedule(deferred.capture(), any(Instant.class));
+
+        references.set(1);
+        age(name, GRACE.plusSeconds(1));
+        deferred.getValue().run();
+
+        assertThat(folder.resolve(name)).exists();
+        assertThat(deleted).isEmpty();
+    }
+
+    // UUID-named files are never shared, so there is nothing to wait for
+    @Test
+    void flatFileIsDeletedAtOnce() throws Exception {
+        ReflectionTestUtils.setField(fileService, "storeMode", "flat");
+        String name = upload("a.png", bytes("flat"));
+
+        deleteIfUnused(name, 0);
+
+        assertThat(folder.resolve(name)).doesNotExist();
+        assertThat(deleted).containsExactly(folder.resolve(name));
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void missingOrEscapingNamesAreIgnored() throws Exception {
+        Path outside = Files.writeString(folder.getParent().resolve("outside-" + folder.getFileName() + ".jpg"), "x");
+        try {
+            deleteIfUnused("ab/cd/" + "0".repeat(64) + ".jpg", 0);
+            deleteIfUnused("../" + outside.getFileName(), 0);
+
+            assertThat(outside).exists();
+            assertThat(deleted).isEmpty();
+            assertThatThrownBy(() -> fileService.locate(folder.toString(), "../" + outside.getFileName()))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        } finally {
+            Files.deleteIfExists(outside);
+        }
+    }
+
+    private void deleteIfUnused(String name, long references) {
+        fileService.deleteIfUnused(folder.toString(), name, () -> references, deleted::add);
+    }
+
+    private String upload(String fileName, byte[] bytes) throws Exception {
+        return fileService.uploadImage(new MockMultipartFile("userImage", fileName, null, bytes), folder.toString());
+    }
+
+    private void age(String name, Duration age) throws Exception {
+        Files.setLastModifiedTime(folder.resolve(name), FileTime.from(Instant.now().minus(age)));
+    }
+
+    private List<Path> storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(folder)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
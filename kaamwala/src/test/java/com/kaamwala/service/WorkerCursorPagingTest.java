@@ -0,0 +1,112 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.CursorPageResponse;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.User;
+import com.kaamwala.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks every cursor page for each sort property and direction. About a third of the workers have
+ * no value for the sort property (and many share one), so pages have to continue through ties and
+ * past the last non-null value: every worker must come back exactly once, in order, nulls last.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkerCursorPagingTest {
+
+    private static final int WORKERS = 23;
+
+    // Only the seeded workers serve this area
+    private static final String AREA = "Cursorganj";
+
+    @Autowired
+    private WorkerSearchService workerSearchService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> workers = new ArrayList<>();
+
+    @BeforeAll
+    void seedWorkers() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < WORKERS; i++) {
+            boolean missing = i % 3 == 0;
+            User worker = User.builder()
+                    .userId(UUID.randomUUID().toString())
+                    .name(i == 7 ? null : "Cursor Worker " + (char) ('A' + i % 5))
+                    .email("cursor" + i + "@test.com")
+                    .role("worker")
+                    .experience(missing ? null : i % 4)
+                    .hourlyRate(i % 3 == 1 ? null : 200.0 + 50 * (i % 2))
+                    .createdAt(missing ? null : start.plusDays(i % 5))
+                    .averageRating(i % 4 == 0 ? null : 3.0 + i % 3)
+                    .serviceAreas(AREA)
+                    .build();
+            Helper.syncServiceAreas(worker);
+            workers.add(userRepository.save(worker));
+        }
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            "name, ASC", "name, DESC",
+            "experience, ASC", "experience, DESC",
+            "hourlyRate, ASC", "hourlyRate, DESC",
+            "createdAt, ASC", "createdAt, DESC",
+            "averageRating, ASC", "averageRating, DESC"
+    })
+    @Transactional(readOnly = true)
+    void everyWorkerIsReturnedOnceInOrder(String property, Sort.Direction direction) {
+        Sort.Order order = new Sort.Order(direction, property);
+        WorkerSearchCriteria criteria = WorkerSearchCriteria.builder().location(AREA).build();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            CursorPageResponse<UserDto> page = workerSearchService.seekWorkers(criteria, order, cursor, 4);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(4);
+            page.getContent().forEach(worker -> seen.add(worker.getUserId()));
+            cursor = page.getNextCursor();
+            assertThat(++pages).isLessThanOrEqualTo(WORKERS);
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyElementsOf(expected(order));
+    }
+
+    // Unrated workers have no averageRating to seek from and are left out of that sort
+    private List<String> expected(Sort.Order order) {
+        Comparator<Comparable<Object>> values = order.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return workers.stream()
+                .filter(worker -> !"averageRating".equals(order.getProperty()) || worker.getAverageRating() != null)
+                .sorted(Comparator.comparing((User worker) -> value(worker, order), Comparator.nullsLast(values))
+                        .thenComparing(User::getUserId))
+                .map(User::getUserId)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> value(User worker, Sort.Order order) {
+        return (Comparable<Object>) new BeanWrapperImpl(worker).getPropertyValue(order.getProperty());
+    }
+}
@@ -0,0 +1,287 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.ImportEvent;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.model.AccessRole;
+import com.kaamwala.model.UuidBinaryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Imports run against the Flyway-migrated schema (H2 in MySQL mode), so the importer's hand-written
+ * INSERTs fail here if they drift from the tables. Chunks hold three rows. Exported CSV files
+ * import again.
+ */
+@SpringBootTest(properties = "import.chunk-size=3")
+class WorkerImportServiceTest {
+
+    private static final String HEADER = "name,email,password,gender,phone,role,experience,hourlyRate,serviceAreas,about,userSkills";
+
+    @Autowired
+    private WorkerImportService workerImportService;
+
+    @Autowired
+    private WorkerSearchService workerSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ImportEvent> events = new ArrayList<>();
+
+    // Emails are unique per test: all tests share one database
+    private String run;
+
+    @BeforeEach
+    void newRun() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void csvWithQuotingAndByteOrderMark() throws Exception {
+        String csv = "\uFEFF" + HEADER + "\r\n"
+                + "Ravi Kumar," + email("ravi") + ",secret1,Male,9876543210,worker,5,300,"
+                + "\"Delhi, Noida\",\"Says \"\"hi\"\", fixes\r\nleaks\",Pipe Installation:EXPERT:8:400|ELEC_SUB_001\r\n"
+                + "Asha Rao," + email("asha") + ",secret2,Female,+91 8876543210,customer,,,,,\r\n";
+
+        ImportEvent done = importCsv(csv);
+
+        assertThat(done.getType()).isEqualTo(ImportEvent.DONE);
+        assertThat(done.getRowsRead()).isEqualTo(2);
+        assertThat(done.getImported()).isEqualTo(2);
+        assertThat(done.getFailed()).isZero();
+        assertThat(events).extracting(ImportEvent::getType).containsExactly(ImportEvent.PROGRESS);
+
+        Map<String, Object> ravi = user("ravi");
+        assertThat(ravi.get("user_name")).isEqualTo("Ravi Kumar");
+        // Line breaks inside quotes are kept as written
+        assertThat(ravi.get("about")).isEqualTo("Says \"hi\", fixes\r\nleaks");
+        assertThat(ravi.get("service_areas")).isEqualTo("Delhi, Noida");
+        assertThat(ravi.get("experience_years")).isEqualTo(5);
+        assertThat(ravi.get("hourly_rate")).isEqualTo(300.0);
+        assertThat(ravi.get("rating_count")).isEqualTo(0L);
+        assertThat(ravi.get("role_mask")).isEqualTo(AccessRole.NORMAL.getMask());
+        assertThat(ravi.get("created_at")).isNotNull();
+        assertThat(ravi.get("updated_at")).isNotNull();
+        assertThat(jdbcTemplate.queryForList("SELECT area_key FROM service_areas WHERE user_id = ?",
+                String.class, ravi.get("user_id"))).containsExactlyInAnyOrder("delhi", "noida");
+        // The first listed skill is primary; the others default to the worker's experience and rate
+        assertThat(jdbcTemplate.queryForList("SELECT sub_category_id, proficiency_level, experience_years, "
+                        + "skill_hourly_rate, is_primary_skill FROM user_skills WHERE user_id = ?", ravi.get("user_id")))
+                .extracting(row -> row.get("sub_category_id"), row -> row.get("proficiency_level"),
+                        row -> row.get("experience_years"), row -> row.get("skill_hourly_rate"),
+                        row -> row.get("is_primary_skill"))
+                .containsExactlyInAnyOrder(
+                        tuple("PLUMB_SUB_001", "EXPERT", 8, 400.0, true),
+                        tuple("ELEC_SUB_001", "ADVANCED", 5, 300.0, false));
+
+        // Workers get the /users/create defaults; customers a blank preferred location
+        Map<String, Object> asha = user("asha");
+        assertThat(asha.get("user_role")).isEqualTo("customer");
+        assertThat(asha.get("preferred_location")).isEqualTo("");
+        assertThat(asha.get("experience_years")).isNull();
+    }
+
+    @Test
+    void workerDefaultsApplyToEmptyCells() throws Exception {
+        importCsv(HEADER + "\n" + "Default Worker," + email("default") + ",secret1,Other,7876543210,,,,,,\n");
+
+        Map<String, Object> worker = user("default");
+        assertThat(worker.get("user_role")).isEqualTo("worker");
+        assertThat(worker.get("experience_years")).isEqualTo(0);
+        assertThat(worker.get("hourly_rate")).isEqualTo(100.0);
+        assertThat(worker.get("service_areas")).isEqualTo("");
+    }
+
+    @Test
+    void everyRejectedRowIsReportedAndTheRestImported() throws Exception {
+        String csv = HEADER + "\n"
+                + valid("first") + "\n"
+                + "Bad Phone," + email("phone") + ",secret1,Male,12345,worker,1,200,,,\n"
+                + "No Skill," + email("skill") + ",secret1,Male,9876543210,worker,1,200,,,Roof Welding\n"
+                + "Too Many," + email("columns") + ",secret1,Male,9876543210,worker,1,200,,,,extra\n"
+                + "Not A Number," + email("number") + ",secret1,Male,9876543210,worker,many,200,,,\n"
+                + "Twice Listed," + email("twice") + ",secret1,Male,9876543210,worker,1,200,,,Pipe Installation|pipe installation\n"
+                + "\n"
+                + valid("last") + "\n";
+
+        ImportEvent done = importCsv(csv);
+
+        assertThat(errors()).extracting(ImportEvent::getRow, ImportEvent::getEmail).containsExactly(
+                tuple(2L, email("phone")),
+                tuple(3L, email("skill")),
+                tuple(4L, null),
+                tuple(5L, null),
+                tuple(6L, email("twice")));
+        assertThat(errors()).extracting(ImportEvent::getMessage).satisfiesExactly(
+                message -> assertThat(message).startsWith("phone: "),
+                message -> assertThat(message).isEqualTo("Unknown skill: Roof Welding"),
+                message -> assertThat(message).isEqualTo("Expected 11 columns but found 12"),
+                message -> assertThat(message).startsWith("Invalid value: "),
+                message -> assertThat(message).isEqualTo("Skill listed twice: pipe installation"));
+        assertThat(done.getRowsRead()).isEqualTo(7);
+        assertThat(done.getImported()).isEqualTo(2);
+        assertThat(done.getFailed()).isEqualTo(5);
+        assertThat(imported("first", "phone", "skill", "columns", "number", "twice", "last")).isEqualTo(2);
+    }
+
+    @Test
+    void repeatedEmailsAreRejectedWithinAndAcrossChunks() throws Exception {
+        jdbcTemplate.update("INSERT INTO user (user_id, user_name, user_email, user_role, rating_count, rating_sum, "
+                + "role_mask) VALUES (?, 'Registered', ?, 'customer', 0, 0, 0)",
+                UuidBinaryType.toBytes(UUID.randomUUID().toString()), email("registered"));
+        String csv = HEADER + "\n"
+                // chunk 1: the second row differs from the first only in case
+                + valid("a") + "\n"
+                + valid("a").replace(email("a"), email("a").toUpperCase()) + "\n"
+                + valid("b") + "\n"
+                // chunk 2: a repeats chunk 1, c repeats itself
+                + valid("c") + "\n"
+                + valid("a") + "\n"
+                + valid("c") + "\n"
+                // chunk 3: registered before the import
+                + valid("registered") + "\n";
+
+        ImportEvent done = importCsv(csv);
+
+        assertThat(errors()).extracting(ImportEvent::getRow, ImportEvent::getMessage).containsExactly(
+                tuple(2L, "Email already registered"),
+                tuple(5L, "Email already registered"),
+                tuple(6L, "Email already registered"),
+                tuple(7L, "Email already registered"));
+        assertThat(events).extracting(ImportEvent::getType).containsExactly(
+                ImportEvent.ERROR, ImportEvent.PROGRESS,
+                ImportEvent.ERROR, ImportEvent.ERROR, ImportEvent.PROGRESS,
+                ImportEvent.ERROR, ImportEvent.PROGRESS);
+        assertThat(events).filteredOn(event -> ImportEvent.PROGRESS.equals(event.getType()))
+                .extracting(ImportEvent::getImported).containsExactly(2L, 3L, 3L);
+        assertThat(done.getImported()).isEqualTo(3);
+        assertThat(done.getFailed()).isEqualTo(4);
+        assertThat(imported("a", "b", "c")).isEqualTo(3);
+        assertThat(user("registered").get("user_name")).isEqualTo("Registered");
+    }
+
+    // A password longer than its column passes validation but fails the chunk's batch insert; the
+    // rolled-back chunk is retried row by row, so only that row is lost and nothing is written twice
+    @Test
+    void failedChunkIsRetriedRowByRow() throws Exception {
+        String csv = HEADER + "\n"
+                + valid("before") + "\n"
+                + valid("long").replace("secret1", "a-password-of-30-characters-xx") + "\n"
+                + valid("after") + "\n"
+                + valid("next") + "\n";
+
+        ImportEvent done = importCsv(csv);
+
+        assertThat(errors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getEmail()).isEqualTo(email("long"));
+            assertThat(error.getMessage()).containsIgnoringCase("user_password");
+        });
+        assertThat(done.getImported()).isEqualTo(3);
+        assertThat(done.getFailed()).isEqualTo(1);
+        assertThat(imported("before", "long", "after", "next")).isEqualTo(3);
+        for (String name : new String[]{"before", "after"}) {
+            Object userId = user(name).get("user_id");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_skills WHERE user_id = ?", Long.class, userId))
+                    .isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM service_areas WHERE user_id = ?", Long.class, userId))
+                    .isEqualTo(1);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_skills s LEFT JOIN user u ON u.user_id = s.user_id "
+                + "WHERE u.user_id IS NULL", Long.class)).isZero();
+    }
+
+    // Cells a spreadsheet would run as formulas are exported behind an apostrophe, which the import removes
+    @Test
+    void exportGuardsFormulaCellsAndTheImportReadsThemBack() throws Exception {
+        String area = "Formulapur" + run;
+        importCsv("name,email,password,gender,phone,role,serviceAreas,about,longitude\n"
+                + "@Formula Worker," + email("formula") + ",secret1,Male,+91 9876543210,worker," + area + ","
+                + "\"=HYPERLINK(\"\"http://evil.test\"\",\"\"x\"\")\",-0.12\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workerSearchService.exportWorkers(WorkerSearchCriteria.builder().location(area).build(), true, out);
+        String exported = out.toString(StandardCharsets.UTF_8);
+
+        assertThat(exported).contains(",'@Formula Worker,", ",'+91 9876543210,",
+                ",\"'=HYPERLINK(\"\"http://evil.test\"\",\"\"x\"\")\",", ",-0.12,");
+
+        // Passwords are never exported
+        String[] lines = exported.split("\n");
+        events.clear();
+        ImportEvent done = importCsv(lines[0] + ",password\n" + lines[1].replace(email("formula"), email("again")) + ",secret1\n");
+
+        assertThat(errors()).isEmpty();
+        assertThat(done.getImported()).isEqualTo(1);
+        Map<String, Object> again = user("again");
+        assertThat(again.get("user_name")).isEqualTo("@Formula Worker");
+        assertThat(again.get("phone_number")).isEqualTo("+91 9876543210");
+        assertThat(again.get("about")).isEqualTo("=HYPERLINK(\"http://evil.test\",\"x\")");
+        assertThat(again.get("longitude")).isEqualTo(-0.12);
+    }
+
+    // NDJSON counts lines, blank ones included
+    @Test
+    void ndjsonRowsAreNumberedByLine() throws Exception {
+        String ndjson = "{\"name\":\"Json Worker\",\"email\":\"" + email("json") + "\",\"password\":\"secret1\","
+                + "\"gender\":\"Female\",\"phone\":\"9876543210\",\"userSkills\":[{\"subCategoryId\":\"ELEC_SUB_001\"}]}\n"
+                + "\n"
+                + "{\"name\": broken\n";
+
+        ImportEvent done = workerImportService.importWorkers(stream(ndjson), false, events::add);
+
+        assertThat(errors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(3);
+            assertThat(error.getMessage()).startsWith("Invalid JSON: ");
+        });
+        assertThat(done.getImported()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT proficiency_level FROM user_skills WHERE user_id = ?",
+                String.class, user("json").get("user_id"))).isEqualTo("BEGINNER");
+    }
+
+    private ImportEvent importCsv(String csv) throws Exception {
+        return workerImportService.importWorkers(stream(csv), true, events::add);
+    }
+
+    private String valid(String name) {
+        return "Worker " + name + "," + email(name) + ",secret1,Male,9876543210,worker,3,250,Pune,,Home Wiring";
+    }
+
+    private String email(String name) {
+        return name + "-" + run + "@import.test";
+    }
+
+    private Map<String, Object> user(String name) {
+        return jdbcTemplate.queryForMap("SELECT * FROM user WHERE user_email = ?", email(name));
+    }
+
+    private long imported(String... names) {
+        long count = 0;
+        for (String name : names) {
+            count += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user WHERE user_email = ?", Long.class, email(name));
+        }
+        return count;
+    }
+
+    private List<ImportEvent> errors() {
+        return events.stream().filter(event -> ImportEvent.ERROR.equals(event.getType())).toList();
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.ImportEvent;
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.model.UuidBinaryType;
+import com.kaamwala.search.WorkerSearchIndex;
+import com.kaamwala.service.imp.WorkerSearchServiceImp;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Worker and skill writes made by another instance (plain JDBC here, bypassing this instance's
+ * reindexing) reach the index through the scheduled check, and imported workers are indexed as
+ * they are written. The schedule itself is pushed out of the way.
+ */
+@SpringBootTest(properties = {"worker.search.index.enabled=true", "worker.search.refresh.interval-ms=3600000"})
+class WorkerIndexRefreshTest {
+
+    // Only the inserted worker serves this area
+    private static final String AREA = "Refreshpur";
+
+    @Autowired
+    private WorkerSearchServiceImp workerSearchService;
+
+    @Autowired
+    private WorkerSearchIndex workerSearchIndex;
+
+    @Autowired
+    private WorkerImportService workerImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Each search in its own session, as a request would have
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writesFromAnotherInstanceReachTheIndex() {
+        workerSearchService.refreshIndexIfChangedElsewhere();
+        assertThat(workerSearchIndex.isStale()).isFalse();
+
+        String userId = UUID.randomUUID().toString();
+        byte[] userKey = UuidBinaryType.toBytes(userId);
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        insertRemoteWorker(userKey, "remote@test.com", AREA, now);
+        jdbcTemplate.update("INSERT INTO service_areas (service_area_id, user_id, area_key, area_name) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID().toString(), userKey, "refreshpur", AREA);
+
+        assertThat(workerSearchIndex.isStale()).isTrue();
+        assertThat(search(null)).isEmpty();
+
+        workerSearchService.refreshIndexIfChangedElsewhere();
+
+        assertThat(workerSearchIndex.isStale()).isFalse();
+        assertThat(search(null)).containsExactly(userId);
+        assertThat(search("Pipe Installation")).isEmpty();
+
+        // A skill write does not touch the user row
+        jdbcTemplate.update("INSERT INTO user_skills (user_skill_id, user_id, sub_category_id, proficiency_level, "
+                + "is_primary_skill, created_at, updated_at) VALUES (?, ?, 'PLUMB_SUB_001', 'BEGINNER', true, ?, ?)",
+                UUID.randomUUID().toString(), userKey, now, now);
+
+        assertThat(workerSearchIndex.isStale()).isTrue();
+        workerSearchService.refreshIndexIfChangedElsewhere();
+        assertThat(search("Pipe Installation")).containsExactly(userId);
+
+        jdbcTemplate.update("DELETE FROM user_skills WHERE user_id = ?", (Object) userKey);
+        jdbcTemplate.update("DELETE FROM service_areas WHERE user_id = ?", (Object) userKey);
+        jdbcTemplate.update("DELETE FROM user WHERE user_id = ?", (Object) userKey);
+
+        assertThat(workerSearchIndex.isStale()).isTrue();
+        workerSearchService.refreshIndexIfChangedElsewhere();
+        assertThat(search(null)).isEmpty();
+    }
+
+    @Test
+    void importedWorkersAreIndexedWithoutARebuild() throws Exception {
+        // Written elsewhere: only a rebuild would find it
+        LocalDateTime now = LocalDateTime.now();
+        byte[] remoteKey = UuidBinaryType.toBytes(UUID.randomUUID().toString());
+        insertRemoteWorker(remoteKey, "remote-import@test.com", "Importganj", now);
+        jdbcTemplate.update("INSERT INTO service_areas (service_area_id, user_id, area_key, area_name) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID().toString(), remoteKey, "importganj", "Importganj");
+
+        String csv = "name,email,password,gender,phone,role,experience,hourlyRate,serviceAreas,about,userSkills\n"
+                + "Imported Worker,imported@test.com,secret,Male,9876543210,worker,3,250,Importganj,,Pipe Installation\n";
+        ImportEvent done = workerImportService.importWorkers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true, event -> { });
+        assertThat(done.getImported()).isEqualTo(1);
+
+        WorkerSearchCriteria criteria = WorkerSearchCriteria.builder().location("Importganj").skill("Pipe Installation").build();
+        assertThat(find(criteria)).extracting(UserDto::getEmail).containsExactly("imported@test.com");
+        assertThat(find(WorkerSearchCriteria.builder().location("Importganj").build())).extracting(UserDto::getEmail)
+                .containsExactly("imported@test.com");
+
+        workerSearchService.refreshIndexIfChangedElsewhere();
+        assertThat(find(WorkerSearchCriteria.builder().location("Importganj").build())).extracting(UserDto::getEmail)
+                .containsExactlyInAnyOrder("imported@test.com", "remote-import@test.com");
+    }
+
+    private void insertRemoteWorker(byte[] userKey, String email, String area, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO user (user_id, user_name, user_email, user_role, service_areas, rating_count, "
+                + "rating_sum, role_mask, created_at, updated_at) VALUES (?, 'Remote Worker', ?, 'worker', "
+                + "?, 0, 0, 0, ?, ?)", userKey, email, area, now, now);
+    }
+
+    private List<String> search(String skill) {
+        return find(WorkerSearchCriteria.builder().location(AREA).skill(skill).build()).stream()
+                .map(UserDto::getUserId)
+                .toList();
+    }
+
+    private List<UserDto> find(WorkerSearchCriteria criteria) {
+        return transactionTemplate.execute(status -> workerSearchService.searchWorkers(criteria, 0, 10, "name"));
+    }
+}
@@ -0,0 +1,250 @@
+package com.kaamwala.service;
+
+import com.kaamwala.dtos.UserDto;
+import com.kaamwala.dtos.WorkerSearchCriteria;
+import com.kaamwala.dtos.WorkerSearchResponse;
+import com.kaamwala.exception.BadApiRequest;
+import com.kaamwala.helper.Helper;
+import com.kaamwala.model.SubCategory;
+import com.kaamwala.model.User;
+import com.kaamwala.model.UserSkill;
+import com.kaamwala.repository.SubCategoryRepository;
+import com.kaamwala.repository.UserRepository;
+import com.kaamwala.repository.UserSkillRepository;
+import com.kaamwala.search.WorkerSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The in-memory index must answer every worker search exactly like the UserRepository queries:
+ * same page, same order, same total and facets. Both paths run against the same seeded workers,
+ * switching the index off for the database answer.
+ */
+@SpringBootTest(properties = "worker.search.index.enabled=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkerSearchIndexEquivalenceTest {
+
+    private static final String[] SKILLS = {"PLUMB_SUB_001", "PLUMB_SUB_002", "ELEC_SUB_001", "CARP_SUB_001", "PAINT_SUB_003"};
+
+    private static final String[] AREAS = {"Delhi, Noida", "Gurgaon", "noida ; New  Delhi", ""};
+
+    @Autowired
+    private WorkerSearchService workerSearchService;
+
+    @Autowired
+    private WorkerSearchIndex workerSearchIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSkillRepository userSkillRepository;
+
+    @Autowired
+    private SubCategoryRepository subCategoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    void seedWorkers() {
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        for (int i = 0; i < 30; i++) {
+            User worker = User.builder()
+                    .userId(UUID.randomUUID().toString())
+                    .name(String.format("Worker %02d", (i * 7) % 30))
+                    .email("equivalence" + i + "@test.com")
+                    .role("worker")
+                    .experience((i * 11) % 17)
+                    .hourlyRate(150.0 + (i * 13) % 31 * 10 + i * 0.01)
+                    .serviceAreas(AREAS[i % AREAS.length])
+                    .createdAt(start.plusMinutes((i * 19) % 30))
+                    .build();
+            Helper.syncServiceAreas(worker);
+            userRepository.save(worker);
+            // 1 to 3 skills, spread over four categories
+            for (int s = 0; s <= i % 3; s++) {
+                SubCategory subCategory = subCategoryRepository.findById(SKILLS[(i + s * 2) % SKILLS.length]).orElseThrow();
+                userSkillRepository.save(UserSkill.builder()
+                        .userSkillId(UUID.randomUUID().toString())
+                        .user(worker)
+                        .subCategory(subCategory)
+                        .build());
+            }
+        }
+        // Located workers around Delhi and on both sides of the antimeridian
+        double[][] locations = {{28.61, 77.20}, {28.65, 77.25}, {28.70, 77.10}, {-17.70, 179.99}, {-17.71, -179.98}, {-17.69, 179.90}};
+        for (int i = 0; i < locations.length; i++) {
+            User worker = User.builder()
+                    .userId(UUID.randomUUID().toString())
+                    .name("Worker " + (30 + i))
+                    .email("located" + i + "@test.com")
+                    .role("worker")
+                    .experience(i)
+                    .hourlyRate(400.0 + i)
+                    .latitude(locations[i][0])
+                    .longitude(locations[i][1])
+                    .serviceRadiusKm(i == 2 ? 5.0 : null)
+                    .createdAt(start.plusHours(1 + i))
+                    .build();
+            userRepository.save(worker);
+        }
+        workerSearchIndex.rebuild();
+    }
+
+    static Stream<Arguments> searches() {
+        return Stream.of(
+                Arguments.of("no filters", WorkerSearchCriteria.builder().build()),
+                Arguments.of("category", WorkerSearchCriteria.builder().category("Plumbing").build()),
+                Arguments.of("category, other case", WorkerSearchCriteria.builder().category("electrical").build()),
+                Arguments.of("skill", WorkerSearchCriteria.builder().skill("Pipe Installation").build()),
+                Arguments.of("location", WorkerSearchCriteria.builder().location("new delhi").build()),
+                Arguments.of("location, spacing", WorkerSearchCriteria.builder().location(" Noida ").build()),
+                Arguments.of("min rate", WorkerSearchCriteria.builder().minRate(300.0).build()),
+                Arguments.of("max rate", WorkerSearchCriteria.builder().maxRate(250.0).build()),
+                Arguments.of("rate range", WorkerSearchCriteria.builder().minRate(200.0).maxRate(350.0).build()),
+                Arguments.of("min experience", WorkerSearchCriteria.builder().minExperience(8).build()),
+                Arguments.of("category and location", WorkerSearchCriteria.builder().category("Plumbing").location("Delhi").build()),
+                Arguments.of("skill and rate", WorkerSearchCriteria.builder().skill("Home Wiring").minRate(200.0).build()),
+                Arguments.of("all filters", WorkerSearchCriteria.builder().category("Carpentry").skill("Furniture Making")
+                        .location("Gurgaon").minRate(100.0).maxRate(500.0).minExperience(1).build()),
+                Arguments.of("unknown category", WorkerSearchCriteria.builder().category("Masonry").build())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("searches")
+    void indexAnswersLikeTheDatabase(String name, WorkerSearchCriteria criteria) {
+        for (String sortBy : List.of("name", "hourlyRate", "experience", "createdAt")) {
+            for (int page = 0; page < 3; page++) {
+                int p = page;
+                WorkerSearchResponse fromIndex = workerSearchService.searchWorkers(criteria, p, 7, sortBy, true);
+                WorkerSearchResponse fromDatabase = withoutIndex(() -> workerSearchService.searchWorkers(criteria, p, 7, sortBy, true));
+
+                String context = name + ", sortBy=" + sortBy + ", page=" + page;
+                assertThat(ids(fromIndex.getContent())).as(context).isEqualTo(ids(fromDatabase.getContent()));
+                assertThat(fromIndex.getTotalHits()).as(context).isEqualTo(fromDatabase.getTotalHits());
+                assertThat(fromIndex.getFacets()).as(context).usingRecursiveComparison().isEqualTo(fromDatabase.getFacets());
+            }
+        }
+    }
+
+    // Mapping reads lazy skills: the web layer keeps the session open for these, the test a transaction
+    @Test
+    @Transactional(readOnly = true)
+    void singleFilterEndpointsMatchTheDatabase() {
+        assertSamePage(() -> workerSearchService.getWorkersByCategory("Painting", 0, 10));
+        assertSamePage(() -> workerSearchService.getWorkersBySkill("Home Wiring", 1, 3));
+        assertSamePage(() -> workerSearchService.getWorkersByLocation("Delhi", 0, 5));
+        assertThat(workerSearchService.getWorkersByLocation("Delhi", 0, 100)).isNotEmpty();
+    }
+
+    @ParameterizedTest(name = "({0}, {1}), {2} km")
+    @CsvSource({
+            "28.6139, 77.2090, 5",
+            "28.6139, 77.2090, 20",
+            "-17.70, 179.995, 5",
+            "-17.70, -179.99, 15",
+            "-17.70, 180, 100",
+            "89.99, 0, 50"
+    })
+    @Transactional(readOnly = true)
+    void nearbyAnswersLikeTheDatabase(double latitude, double longitude, double radiusKm) {
+        assertSamePage(() -> workerSearchService.getNearbyWorkers(latitude, longitude, radiusKm, null, 10));
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void databaseBoundingBoxWrapsAcrossTheAntimeridian() {
+        assertThat(withoutIndex(() -> workerSearchService.getNearbyWorkers(-17.70, 179.995, 5, null, 10))).hasSize(2);
+    }
+
+    // Candidates in the bounding box are read as id and position; only the returned workers are loaded
+    @Test
+    @Transactional(readOnly = true)
+    void databaseNearbyLoadsOnlyTheReturnedWorkers() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UserDto> nearest = withoutIndex(() -> workerSearchService.getNearbyWorkers(28.6139, 77.2090, 20, null, 1));
+
+        assertThat(nearest).hasSize(1);
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidNearbySizeIsRejectedOnBothPaths() {
+        for (boolean index : new boolean[]{true, false}) {
+            ReflectionTestUtils.setField(workerSearchIndex, "enabled", index);
+            try {
+                assertThatThrownBy(() -> workerSearchService.getNearbyWorkers(28.6, 77.2, 5, null, 0))
+                        .isInstanceOf(BadApiRequest.class);
+                assertThatThrownBy(() -> workerSearchService.getNearbyWorkers(28.6, 77.2, 5, null, -1))
+                        .isInstanceOf(BadApiRequest.class);
+            } finally {
+                ReflectionTestUtils.setField(workerSearchIndex, "enabled", true);
+            }
+        }
+    }
+
+    @Test
+    void invalidPagesAreRejectedOnBothPaths() {
+        WorkerSearchCriteria criteria = WorkerSearchCriteria.builder().category("Plumbing").build();
+        for (boolean index : new boolean[]{true, false}) {
+            ReflectionTestUtils.setField(workerSearchIndex, "enabled", index);
+            try {
+                assertThatThrownBy(() -> workerSearchService.searchWorkers(criteria, -1, 10, "name", false))
+                        .isInstanceOf(BadApiRequest.class);
+                assertThatThrownBy(() -> workerSearchService.searchWorkers(criteria, 0, 0, "name", false))
+                        .isInstanceOf(BadApiRequest.class);
+                assertThatThrownBy(() -> workerSearchService.searchWorkers(criteria, 0, -5, "name", false))
+                        .isInstanceOf(BadApiRequest.class);
+                assertThatThrownBy(() -> workerSearchService.getWorkersBySkill("Home Wiring", 0, 101))
+                        .isInstanceOf(BadApiRequest.class);
+                // page * size overflows an int
+                assertThatThrownBy(() -> workerSearchService.searchWorkers(criteria, Integer.MAX_VALUE / 50, 100, "name", false))
+                        .isInstanceOf(BadApiRequest.class);
+            } finally {
+                ReflectionTestUtils.setField(workerSearchIndex, "enabled", true);
+            }
+        }
+    }
+
+    private void assertSamePage(Supplier<List<UserDto>> search) {
+        assertThat(ids(search.get())).isEqualTo(ids(withoutIndex(search)));
+    }
+
+    private <T> T withoutIndex(Supplier<T> search) {
+        ReflectionTestUtils.setField(workerSearchIndex, "enabled", false);
+        try {
+            return search.get();
+        } finally {
+            ReflectionTestUtils.setField(workerSearchIndex, "enabled", true);
+        }
+    }
+
+    private static List<String> ids(List<UserDto> workers) {
+        return workers.stream().map(UserDto::getUserId).toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.kaamwala.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate prepares on the calling thread while {@link #of} runs, e.g.
+ * <pre>
+ * List&lt;String&gt; sql = SqlCapture.of(() -&gt; userRepository.findWorkerRatingTotals());
+ * </pre>
+ * Registered as the statement inspector of the test profile
+ * (hibernate.session_factory.statement_inspector); outside {@link #of} it records nothing.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recording = RECORDING.get();
+        if (recording != null) {
+            recording.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> of(Runnable work) {
+        List<String> recording = new ArrayList<>();
+        RECORDING.set(recording);
+        try {
+            work.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return recording;
+    }
+}
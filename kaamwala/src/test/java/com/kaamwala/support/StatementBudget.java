@@ -0,0 +1,38 @@
+package com.kaamwala.support;
+
+import com.kaamwala.metrics.RequestMetricsFilter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Fails a MockMvc request that issued more JDBC statements than its budget, e.g.
+ * <pre>
+ * mockMvc.perform(get("/api/workers/search/category/Plumbing"))
+ *         .andExpect(StatementBudget.atMost(4));
+ * </pre>
+ * Reads the X-Query-Statements header, which the test profile turns on
+ * (query.stats.header.enabled=true). Every statement counts: JPA, JdbcTemplate and batches.
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static ResultMatcher atMost(long budget) {
+        return result -> {
+            MockHttpServletRequest request = result.getRequest();
+            String endpoint = request.getMethod() + " " + request.getRequestURI()
+                    + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+            String header = result.getResponse().getHeader(RequestMetricsFilter.STATEMENTS_HEADER);
+            if (header == null) {
+                throw new AssertionError(endpoint + " has no " + RequestMetricsFilter.STATEMENTS_HEADER
+                        + " header; is query.stats.header.enabled set?");
+            }
+            long statements = Long.parseLong(header);
+            if (statements > budget) {
+                throw new AssertionError(endpoint + " issued " + statements + " statements, budget is " + budget
+                        + " (rows: " + result.getResponse().getHeader(RequestMetricsFilter.ROWS_HEADER) + ")");
+            }
+        };
+    }
+}